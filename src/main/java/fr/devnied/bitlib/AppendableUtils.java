@@ -0,0 +1,52 @@
+package fr.devnied.bitlib;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * Class used to write chars formatted by chunks to an Appendable
+ *
+ * @author Millau Julien
+ *
+ */
+final class AppendableUtils {
+
+	/**
+	 * Size in chars of the chunks written to an Appendable
+	 */
+	static final int CHUNK_SIZE = 4096;
+
+	/**
+	 * Method used to write a chunk without creating a String. Writer and
+	 * StringBuilder take the char array directly, the other Appendable a
+	 * CharBuffer wrapping it.
+	 *
+	 * @param pOut
+	 *            the output
+	 * @param pChunk
+	 *            the chars
+	 * @param pLength
+	 *            number of chars from the start of the chunk
+	 * @throws IOException
+	 *             if the output fails
+	 */
+	static void append(final Appendable pOut, final char[] pChunk, final int pLength) throws IOException {
+		if (pLength == 0) {
+			return;
+		}
+		if (pOut instanceof Writer) {
+			((Writer) pOut).write(pChunk, 0, pLength);
+		} else if (pOut instanceof StringBuilder) {
+			((StringBuilder) pOut).append(pChunk, 0, pLength);
+		} else {
+			pOut.append(CharBuffer.wrap(pChunk, 0, pLength));
+		}
+	}
+
+	/**
+	 * private constructor
+	 */
+	private AppendableUtils() {
+	}
+}
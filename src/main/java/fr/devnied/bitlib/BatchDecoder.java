@@ -0,0 +1,296 @@
+package fr.devnied.bitlib;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Class used to decode batches of independent messages in parallel.<br>
+ * The batch is split in ranges executed by a {@link ForkJoinPool}. Each worker
+ * thread has its own {@link BitUtils} view and scratch buffer, reused for all
+ * the messages it decodes: the messages are not copied and nothing is
+ * allocated per message by this class. The results are stored in the array
+ * given by the caller, in the order of the messages.
+ *
+ * <pre>
+ * BatchDecoder&lt;Integer&gt; batch = new BatchDecoder&lt;Integer&gt;((view, scratch) -&gt; view.getNextInteger(16));
+ * Integer[] results = batch.decode(messages, new Integer[messages.length]);
+ * </pre>
+ *
+ * @param <T>
+ *            type of the decoded messages
+ *
+ * @author Millau Julien
+ *
+ */
+public final class BatchDecoder<T> {
+
+	/**
+	 * Default number of messages decoded by a task without splitting
+	 */
+	public static final int DEFAULT_THRESHOLD = 64;
+
+	/**
+	 * Function decoding a message
+	 *
+	 * @param <T>
+	 *            type of the decoded messages
+	 */
+	@FunctionalInterface
+	public interface Decoder<T> {
+
+		/**
+		 * Method used to decode a message
+		 *
+		 * @param pView
+		 *            view over the message, confined to the current thread
+		 * @param pScratch
+		 *            scratch buffer confined to the current thread
+		 * @return the decoded message
+		 */
+		T decode(BitUtils pView, byte[] pScratch);
+	}
+
+	/**
+	 * Function decoding a message
+	 */
+	private final Decoder<T> decoder;
+
+	/**
+	 * Pool executing the tasks
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Size of the scratch buffers in bytes
+	 */
+	private final int scratchSize;
+
+	/**
+	 * Number of messages decoded by a task without splitting
+	 */
+	private final int threshold;
+
+	/**
+	 * View and scratch buffer of each thread
+	 */
+	private final ThreadLocal<Worker> workers = new ThreadLocal<Worker>() {
+		@Override
+		protected Worker initialValue() {
+			return new Worker(scratchSize);
+		}
+	};
+
+	/**
+	 * Constructor using the common pool, without scratch buffer
+	 *
+	 * @param pDecoder
+	 *            function decoding a message
+	 */
+	public BatchDecoder(final Decoder<T> pDecoder) {
+		this(pDecoder, ForkJoinPool.commonPool(), 0, DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pDecoder
+	 *            function decoding a message
+	 * @param pPool
+	 *            pool executing the tasks
+	 * @param pScratchSize
+	 *            size in bytes of the scratch buffer of each thread
+	 * @param pThreshold
+	 *            number of messages decoded by a task without splitting
+	 */
+	public BatchDecoder(final Decoder<T> pDecoder, final ForkJoinPool pPool, final int pScratchSize, final int pThreshold) {
+		if (pDecoder == null) {
+			throw new IllegalArgumentException("Parameter 'pDecoder' cannot be null");
+		}
+		if (pPool == null) {
+			throw new IllegalArgumentException("Parameter 'pPool' cannot be null");
+		}
+		if (pScratchSize < 0 || pThreshold < 1) {
+			throw new IllegalArgumentException("Invalid scratch size or threshold");
+		}
+		decoder = pDecoder;
+		pool = pPool;
+		scratchSize = pScratchSize;
+		threshold = pThreshold;
+	}
+
+	/**
+	 * Method used to decode an array of messages
+	 *
+	 * @param pMessages
+	 *            the messages
+	 * @param pResults
+	 *            the array receiving the results, at least as long as the
+	 *            messages
+	 * @return the results array
+	 */
+	public T[] decode(final byte[][] pMessages, final T[] pResults) {
+		if (pMessages == null) {
+			throw new IllegalArgumentException("Parameter 'pMessages' cannot be null");
+		}
+		return decode(new Messages() {
+			@Override
+			public byte[] get(final int pIndex) {
+				return pMessages[pIndex];
+			}
+		}, pMessages.length, pResults);
+	}
+
+	/**
+	 * Method used to decode a list of messages
+	 *
+	 * @param pMessages
+	 *            the messages, with a fast random access
+	 * @param pResults
+	 *            the array receiving the results, at least as long as the
+	 *            messages
+	 * @return the results array
+	 */
+	public T[] decode(final List<byte[]> pMessages, final T[] pResults) {
+		if (pMessages == null) {
+			throw new IllegalArgumentException("Parameter 'pMessages' cannot be null");
+		}
+		return decode(new Messages() {
+			@Override
+			public byte[] get(final int pIndex) {
+				return pMessages.get(pIndex);
+			}
+		}, pMessages.size(), pResults);
+	}
+
+	/**
+	 * Method used to decode the messages
+	 *
+	 * @param pMessages
+	 *            access to the messages
+	 * @param pCount
+	 *            number of messages
+	 * @param pResults
+	 *            the array receiving the results
+	 * @return the results array
+	 */
+	private T[] decode(final Messages pMessages, final int pCount, final T[] pResults) {
+		if (pResults == null || pResults.length < pCount) {
+			throw new IllegalArgumentException("Results array too small for " + pCount + " messages");
+		}
+		if (pCount > 0) {
+			pool.invoke(new DecodeTask(pMessages, pResults, 0, pCount));
+		}
+		return pResults;
+	}
+
+	/**
+	 * Access to a message by index
+	 */
+	private interface Messages {
+
+		/**
+		 * Method used to get a message
+		 *
+		 * @param pIndex
+		 *            index of the message
+		 * @return the message
+		 */
+		byte[] get(int pIndex);
+	}
+
+	/**
+	 * View and scratch buffer of a thread
+	 */
+	private static final class Worker {
+
+		/**
+		 * View over the message being decoded
+		 */
+		private final BitUtils view = BitUtils.wrap(new byte[0], 0, 0);
+
+		/**
+		 * Scratch buffer
+		 */
+		private final byte[] scratch;
+
+		/**
+		 * Constructor of the class
+		 *
+		 * @param pScratchSize
+		 *            size in bytes of the scratch buffer
+		 */
+		Worker(final int pScratchSize) {
+			scratch = new byte[pScratchSize];
+		}
+	}
+
+	/**
+	 * Task decoding a range of messages
+	 */
+	private final class DecodeTask extends RecursiveAction {
+
+		/**
+		 * Serial version
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Access to the messages
+		 */
+		private final transient Messages messages;
+
+		/**
+		 * Array receiving the results
+		 */
+		private final T[] results;
+
+		/**
+		 * Index of the first message
+		 */
+		private final int from;
+
+		/**
+		 * Index after the last message
+		 */
+		private final int to;
+
+		/**
+		 * Constructor of the class
+		 *
+		 * @param pMessages
+		 *            access to the messages
+		 * @param pResults
+		 *            array receiving the results
+		 * @param pFrom
+		 *            index of the first message
+		 * @param pTo
+		 *            index after the last message
+		 */
+		DecodeTask(final Messages pMessages, final T[] pResults, final int pFrom, final int pTo) {
+			messages = pMessages;
+			results = pResults;
+			from = pFrom;
+			to = pTo;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= threshold) {
+				Worker worker = workers.get();
+				BitUtils view = worker.view;
+				for (int i = from; i < to; i++) {
+					byte[] message = messages.get(i);
+					if (message == null) {
+						throw new IllegalArgumentException("Message " + i + " is null");
+					}
+					view.reset(message, 0, message.length);
+					results[i] = decoder.decode(view, worker.scratch);
+				}
+				return;
+			}
+			int middle = from + to >>> 1;
+			invokeAll(new DecodeTask(messages, results, from, middle), new DecodeTask(messages, results, middle, to));
+		}
+	}
+}
@@ -0,0 +1,589 @@
+package fr.devnied.bitlib;
+
+/**
+ * Class used to manage bit ranges of byte arrays.<br>
+ * Bits are indexed like in BitUtils: bit 0 is the most significant bit of the
+ * first byte. All the methods accept any bit index and process the data 64
+ * bits at a time: when the source and the destination have the same alignment
+ * the words are loaded and stored directly (with System.arraycopy for the
+ * copies), otherwise they are shifted.
+ * The ranges of {@link #copyBits(byte[], int, byte[], int, int)} can overlap;
+ * the ranges of the logical operations must not, unless they are identical.
+ *
+ * @author Millau Julien
+ *
+ */
+public final class BitArrayUtils {
+
+	/**
+	 * Operation AND
+	 */
+	private static final int OP_AND = 0;
+
+	/**
+	 * Operation OR
+	 */
+	private static final int OP_OR = 1;
+
+	/**
+	 * Operation XOR
+	 */
+	private static final int OP_XOR = 2;
+
+	/**
+	 * Operation AND NOT
+	 */
+	private static final int OP_AND_NOT = 3;
+
+	/**
+	 * Operation NOT
+	 */
+	private static final int OP_NOT = 4;
+
+	/**
+	 * Operation set to 1
+	 */
+	private static final int OP_SET = 5;
+
+	/**
+	 * Operation set to 0
+	 */
+	private static final int OP_CLEAR = 6;
+
+	/**
+	 * Method used to compute dst = dst AND src on a bit range
+	 *
+	 * @param pDst
+	 *            the destination array
+	 * @param pDstIndex
+	 *            bit index in the destination
+	 * @param pSrc
+	 *            the source array
+	 * @param pSrcIndex
+	 *            bit index in the source
+	 * @param pLength
+	 *            number of bits
+	 */
+	public static void and(final byte[] pDst, final int pDstIndex, final byte[] pSrc, final int pSrcIndex, final int pLength) {
+		checkRange(pSrc, pSrcIndex, pLength);
+		apply(OP_AND, pDst, pDstIndex, pSrc, pSrcIndex, pLength);
+	}
+
+	/**
+	 * Method used to compute dst = dst OR src on a bit range
+	 *
+	 * @param pDst
+	 *            the destination array
+	 * @param pDstIndex
+	 *            bit index in the destination
+	 * @param pSrc
+	 *            the source array
+	 * @param pSrcIndex
+	 *            bit index in the source
+	 * @param pLength
+	 *            number of bits
+	 */
+	public static void or(final byte[] pDst, final int pDstIndex, final byte[] pSrc, final int pSrcIndex, final int pLength) {
+		checkRange(pSrc, pSrcIndex, pLength);
+		apply(OP_OR, pDst, pDstIndex, pSrc, pSrcIndex, pLength);
+	}
+
+	/**
+	 * Method used to compute dst = dst XOR src on a bit range
+	 *
+	 * @param pDst
+	 *            the destination array
+	 * @param pDstIndex
+	 *            bit index in the destination
+	 * @param pSrc
+	 *            the source array
+	 * @param pSrcIndex
+	 *            bit index in the source
+	 * @param pLength
+	 *            number of bits
+	 */
+	public static void xor(final byte[] pDst, final int pDstIndex, final byte[] pSrc, final int pSrcIndex, final int pLength) {
+		checkRange(pSrc, pSrcIndex, pLength);
+		apply(OP_XOR, pDst, pDstIndex, pSrc, pSrcIndex, pLength);
+	}
+
+	/**
+	 * Method used to compute dst = dst AND NOT src on a bit range
+	 *
+	 * @param pDst
+	 *            the destination array
+	 * @param pDstIndex
+	 *            bit index in the destination
+	 * @param pSrc
+	 *            the source array
+	 * @param pSrcIndex
+	 *            bit index in the source
+	 * @param pLength
+	 *            number of bits
+	 */
+	public static void andNot(final byte[] pDst, final int pDstIndex, final byte[] pSrc, final int pSrcIndex, final int pLength) {
+		checkRange(pSrc, pSrcIndex, pLength);
+		apply(OP_AND_NOT, pDst, pDstIndex, pSrc, pSrcIndex, pLength);
+	}
+
+	/**
+	 * Method used to compute a AND b
+	 *
+	 * @param pFirst
+	 *            first array
+	 * @param pSecond
+	 *            second array with the same length
+	 * @return a new array
+	 */
+	public static byte[] and(final byte[] pFirst, final byte[] pSecond) {
+		byte[] ret = copyForOperation(pFirst, pSecond);
+		apply(OP_AND, ret, 0, pSecond, 0, ret.length * BitUtils.BYTE_SIZE);
+		return ret;
+	}
+
+	/**
+	 * Method used to compute a OR b
+	 *
+	 * @param pFirst
+	 *            first array
+	 * @param pSecond
+	 *            second array with the same length
+	 * @return a new array
+	 */
+	public static byte[] or(final byte[] pFirst, final byte[] pSecond) {
+		byte[] ret = copyForOperation(pFirst, pSecond);
+		apply(OP_OR, ret, 0, pSecond, 0, ret.length * BitUtils.BYTE_SIZE);
+		return ret;
+	}
+
+	/**
+	 * Method used to compute a XOR b
+	 *
+	 * @param pFirst
+	 *            first array
+	 * @param pSecond
+	 *            second array with the same length
+	 * @return a new array
+	 */
+	public static byte[] xor(final byte[] pFirst, final byte[] pSecond) {
+		byte[] ret = copyForOperation(pFirst, pSecond);
+		apply(OP_XOR, ret, 0, pSecond, 0, ret.length * BitUtils.BYTE_SIZE);
+		return ret;
+	}
+
+	/**
+	 * Method used to compute a AND NOT b
+	 *
+	 * @param pFirst
+	 *            first array
+	 * @param pSecond
+	 *            second array with the same length
+	 * @return a new array
+	 */
+	public static byte[] andNot(final byte[] pFirst, final byte[] pSecond) {
+		byte[] ret = copyForOperation(pFirst, pSecond);
+		apply(OP_AND_NOT, ret, 0, pSecond, 0, ret.length * BitUtils.BYTE_SIZE);
+		return ret;
+	}
+
+	/**
+	 * Method used to invert a bit range
+	 *
+	 * @param pData
+	 *            the array to modify
+	 * @param pIndex
+	 *            index of the first bit
+	 * @param pLength
+	 *            number of bits
+	 */
+	public static void not(final byte[] pData, final int pIndex, final int pLength) {
+		apply(OP_NOT, pData, pIndex, null, 0, pLength);
+	}
+
+	/**
+	 * Method used to set a bit range to 1
+	 *
+	 * @param pData
+	 *            the array to modify
+	 * @param pIndex
+	 *            index of the first bit
+	 * @param pLength
+	 *            number of bits
+	 */
+	public static void fill(final byte[] pData, final int pIndex, final int pLength) {
+		apply(OP_SET, pData, pIndex, null, 0, pLength);
+	}
+
+	/**
+	 * Method used to set a bit range to 0
+	 *
+	 * @param pData
+	 *            the array to modify
+	 * @param pIndex
+	 *            index of the first bit
+	 * @param pLength
+	 *            number of bits
+	 */
+	public static void clear(final byte[] pData, final int pIndex, final int pLength) {
+		apply(OP_CLEAR, pData, pIndex, null, 0, pLength);
+	}
+
+	/**
+	 * Method used to count the bits set in a range
+	 *
+	 * @param pData
+	 *            the array
+	 * @param pIndex
+	 *            index of the first bit
+	 * @param pLength
+	 *            number of bits
+	 * @return the number of bits set
+	 */
+	public static int cardinality(final byte[] pData, final int pIndex, final int pLength) {
+		checkRange(pData, pIndex, pLength);
+		int count = 0;
+		for (int done = 0; done < pLength; done += Long.SIZE) {
+			long word = BitUtils.readWindow(pData, pIndex + done);
+			int remaining = pLength - done;
+			if (remaining < Long.SIZE) {
+				word &= -1L << Long.SIZE - remaining;
+			}
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * Method used to find the next bit set
+	 *
+	 * @param pData
+	 *            the array
+	 * @param pFromIndex
+	 *            index of the first bit to test
+	 * @param pToIndex
+	 *            index after the last bit to test
+	 * @return the index of the next bit set or -1
+	 */
+	public static int nextSetBit(final byte[] pData, final int pFromIndex, final int pToIndex) {
+		return nextBit(pData, pFromIndex, pToIndex, false);
+	}
+
+	/**
+	 * Method used to find the next bit not set
+	 *
+	 * @param pData
+	 *            the array
+	 * @param pFromIndex
+	 *            index of the first bit to test
+	 * @param pToIndex
+	 *            index after the last bit to test
+	 * @return the index of the next bit not set or -1
+	 */
+	public static int nextClearBit(final byte[] pData, final int pFromIndex, final int pToIndex) {
+		return nextBit(pData, pFromIndex, pToIndex, true);
+	}
+
+	/**
+	 * Method used to find the next bit set or not set
+	 *
+	 * @param pData
+	 *            the array
+	 * @param pFromIndex
+	 *            index of the first bit to test
+	 * @param pToIndex
+	 *            index after the last bit to test
+	 * @param pInvert
+	 *            true to find a bit not set
+	 * @return the index of the bit or -1
+	 */
+	private static int nextBit(final byte[] pData, final int pFromIndex, final int pToIndex, final boolean pInvert) {
+		checkRange(pData, pFromIndex, pToIndex - pFromIndex);
+		for (int index = pFromIndex; index < pToIndex; index += Long.SIZE) {
+			long word = BitUtils.readWindow(pData, index);
+			if (pInvert) {
+				word = ~word;
+			}
+			int remaining = pToIndex - index;
+			if (remaining < Long.SIZE) {
+				word &= -1L << Long.SIZE - remaining;
+			}
+			if (word != 0) {
+				return index + Long.numberOfLeadingZeros(word);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Method used to apply an operation on a bit range
+	 *
+	 * @param pOperation
+	 *            the operation
+	 * @param pDst
+	 *            the destination array
+	 * @param pDstIndex
+	 *            bit index in the destination
+	 * @param pSrc
+	 *            the source array or null
+	 * @param pSrcIndex
+	 *            bit index in the source
+	 * @param pLength
+	 *            number of bits
+	 */
+	private static void apply(final int pOperation, final byte[] pDst, final int pDstIndex, final byte[] pSrc,
+			final int pSrcIndex, final int pLength) {
+		checkRange(pDst, pDstIndex, pLength);
+		int shift = pDstIndex % BitUtils.BYTE_SIZE;
+		if (pSrc != null && pSrcIndex % BitUtils.BYTE_SIZE != shift) {
+			applyWords(pOperation, pDst, pDstIndex, pSrc, pSrcIndex, pLength);
+			return;
+		}
+		// Same alignment: whole words loaded and stored directly, the partial
+		// bytes around them with the shifted words
+		int head = Math.min(pLength, (BitUtils.BYTE_SIZE - shift) % BitUtils.BYTE_SIZE);
+		int words = (pLength - head) / Long.SIZE;
+		int tail = pLength - head - words * Long.SIZE;
+		if (head > 0) {
+			applyWords(pOperation, pDst, pDstIndex, pSrc, pSrcIndex, head);
+		}
+		int dstByte = (pDstIndex + head) / BitUtils.BYTE_SIZE;
+		int srcByte = (pSrcIndex + head) / BitUtils.BYTE_SIZE;
+		for (int i = 0; i < words; i++, dstByte += Long.BYTES, srcByte += Long.BYTES) {
+			long src = pSrc == null ? 0 : BitUtils.readWord(pSrc, srcByte);
+			BitUtils.writeWord(pDst, dstByte, combine(pOperation, BitUtils.readWord(pDst, dstByte), src));
+		}
+		if (tail > 0) {
+			applyWords(pOperation, pDst, pDstIndex + pLength - tail, pSrc, pSrcIndex + pLength - tail, tail);
+		}
+	}
+
+	/**
+	 * Method used to combine two words with an operation
+	 *
+	 * @param pOperation
+	 *            the operation
+	 * @param pDst
+	 *            the destination word
+	 * @param pSrc
+	 *            the source word
+	 * @return the result
+	 */
+	private static long combine(final int pOperation, final long pDst, final long pSrc) {
+		switch (pOperation) {
+		case OP_AND:
+			return pDst & pSrc;
+		case OP_OR:
+			return pDst | pSrc;
+		case OP_XOR:
+			return pDst ^ pSrc;
+		case OP_AND_NOT:
+			return pDst & ~pSrc;
+		case OP_NOT:
+			return ~pDst;
+		case OP_SET:
+			return -1L;
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * Method used to apply an operation on a bit range with shifted words
+	 *
+	 * @param pOperation
+	 *            the operation
+	 * @param pDst
+	 *            the destination array
+	 * @param pDstIndex
+	 *            bit index in the destination
+	 * @param pSrc
+	 *            the source array or null
+	 * @param pSrcIndex
+	 *            bit index in the source
+	 * @param pLength
+	 *            number of bits
+	 */
+	private static void applyWords(final int pOperation, final byte[] pDst, final int pDstIndex, final byte[] pSrc,
+			final int pSrcIndex, final int pLength) {
+		int done = 0;
+		while (done < pLength) {
+			int index = pDstIndex + done;
+			int shift = index % BitUtils.BYTE_SIZE;
+			// Bits of the destination word to update
+			int chunk = Math.min(pLength - done, Long.SIZE - shift);
+			long mask = -1L >>> shift;
+			if (shift + chunk < Long.SIZE) {
+				mask &= ~(-1L >>> shift + chunk);
+			}
+			int byteIndex = index / BitUtils.BYTE_SIZE;
+			long dst = BitUtils.readWindow(pDst, byteIndex * BitUtils.BYTE_SIZE);
+			long src = pSrc == null ? 0 : BitUtils.readWindow(pSrc, pSrcIndex + done) >>> shift;
+			long result = combine(pOperation, dst, src);
+			storeWord(pDst, byteIndex, dst & ~mask | result & mask, shift + chunk);
+			done += chunk;
+		}
+	}
+
+	/**
+	 * Method used to copy a bit range. The ranges can overlap in the same
+	 * array: the result is the same as with a copy of the source in a
+	 * temporary array.
+	 *
+	 * @param pSrc
+	 *            the source array
+	 * @param pSrcIndex
+	 *            bit index in the source
+	 * @param pDst
+	 *            the destination array
+	 * @param pDstIndex
+	 *            bit index in the destination
+	 * @param pLength
+	 *            number of bits
+	 */
+	public static void copyBits(final byte[] pSrc, final int pSrcIndex, final byte[] pDst, final int pDstIndex, final int pLength) {
+		checkRange(pSrc, pSrcIndex, pLength);
+		checkRange(pDst, pDstIndex, pLength);
+		if (pLength == 0 || pSrc == pDst && pSrcIndex == pDstIndex) {
+			return;
+		}
+		if (pSrcIndex % BitUtils.BYTE_SIZE == pDstIndex % BitUtils.BYTE_SIZE) {
+			copyAligned(pSrc, pSrcIndex, pDst, pDstIndex, pLength);
+		} else if (pSrc == pDst && pDstIndex > pSrcIndex) {
+			// Copy from the end to read the source before overwriting it
+			int end = pLength;
+			while (end > 0) {
+				int start = Math.max(0, end - Long.SIZE + BitUtils.BYTE_SIZE);
+				writeBits(pDst, pDstIndex + start, end - start, BitUtils.readWindow(pSrc, pSrcIndex + start));
+				end = start;
+			}
+		} else {
+			int done = 0;
+			while (done < pLength) {
+				int chunk = Math.min(pLength - done, Long.SIZE - (pDstIndex + done) % BitUtils.BYTE_SIZE);
+				writeBits(pDst, pDstIndex + done, chunk, BitUtils.readWindow(pSrc, pSrcIndex + done));
+				done += chunk;
+			}
+		}
+	}
+
+	/**
+	 * Method used to copy a bit range with the same alignment in the source
+	 * and the destination
+	 *
+	 * @param pSrc
+	 *            the source array
+	 * @param pSrcIndex
+	 *            bit index in the source
+	 * @param pDst
+	 *            the destination array
+	 * @param pDstIndex
+	 *            bit index in the destination
+	 * @param pLength
+	 *            number of bits
+	 */
+	private static void copyAligned(final byte[] pSrc, final int pSrcIndex, final byte[] pDst, final int pDstIndex, final int pLength) {
+		int head = Math.min(pLength, (BitUtils.BYTE_SIZE - pSrcIndex % BitUtils.BYTE_SIZE) % BitUtils.BYTE_SIZE);
+		int bytes = (pLength - head) / BitUtils.BYTE_SIZE;
+		int tail = pLength - head - bytes * BitUtils.BYTE_SIZE;
+		// Read the partial bytes before the middle copy can overwrite them
+		long headBits = BitUtils.readWindow(pSrc, pSrcIndex);
+		long tailBits = BitUtils.readWindow(pSrc, pSrcIndex + pLength - tail);
+		System.arraycopy(pSrc, (pSrcIndex + head) / BitUtils.BYTE_SIZE, pDst, (pDstIndex + head) / BitUtils.BYTE_SIZE, bytes);
+		if (head > 0) {
+			writeBits(pDst, pDstIndex, head, headBits);
+		}
+		if (tail > 0) {
+			writeBits(pDst, pDstIndex + pLength - tail, tail, tailBits);
+		}
+	}
+
+	/**
+	 * Method used to write bits without modifying the bits around them
+	 *
+	 * @param pData
+	 *            the array to modify
+	 * @param pIndex
+	 *            bit index of the first bit
+	 * @param pLength
+	 *            number of bits, lower or equal to 64 - pIndex % 8
+	 * @param pValue
+	 *            the bits to write, from the most significant bit
+	 */
+	static void writeBits(final byte[] pData, final int pIndex, final int pLength, final long pValue) {
+		int shift = pIndex % BitUtils.BYTE_SIZE;
+		int byteIndex = pIndex / BitUtils.BYTE_SIZE;
+		long mask = -1L >>> shift;
+		if (shift + pLength < Long.SIZE) {
+			mask &= ~(-1L >>> shift + pLength);
+		}
+		long word = BitUtils.readWindow(pData, byteIndex * BitUtils.BYTE_SIZE);
+		storeWord(pData, byteIndex, word & ~mask | pValue >>> shift & mask, shift + pLength);
+	}
+
+	/**
+	 * Method used to store the first bytes of a word
+	 *
+	 * @param pData
+	 *            the array to modify
+	 * @param pByteIndex
+	 *            index of the first byte
+	 * @param pWord
+	 *            the word
+	 * @param pBits
+	 *            number of bits to store, rounded to the next byte
+	 */
+	private static void storeWord(final byte[] pData, final int pByteIndex, final long pWord, final int pBits) {
+		if (pBits == Long.SIZE) {
+			BitUtils.writeWord(pData, pByteIndex, pWord);
+			return;
+		}
+		int nbBytes = (pBits + BitUtils.BYTE_SIZE - 1) / BitUtils.BYTE_SIZE;
+		for (int i = 0; i < nbBytes; i++) {
+			pData[pByteIndex + i] = (byte) (pWord >>> Long.SIZE - BitUtils.BYTE_SIZE * (i + 1));
+		}
+	}
+
+	/**
+	 * Method used to check a bit range
+	 *
+	 * @param pData
+	 *            the array
+	 * @param pIndex
+	 *            index of the first bit
+	 * @param pLength
+	 *            number of bits
+	 */
+	private static void checkRange(final byte[] pData, final int pIndex, final int pLength) {
+		if (pData == null) {
+			throw new IllegalArgumentException("Byte array cannot be null");
+		}
+		if (pIndex < 0 || pLength < 0 || (long) pIndex + pLength > (long) pData.length * BitUtils.BYTE_SIZE) {
+			throw new IllegalArgumentException("Invalid bit range. index=" + pIndex + " length=" + pLength);
+		}
+	}
+
+	/**
+	 * Method used to copy the first array of an operation
+	 *
+	 * @param pFirst
+	 *            first array
+	 * @param pSecond
+	 *            second array
+	 * @return a copy of the first array
+	 */
+	private static byte[] copyForOperation(final byte[] pFirst, final byte[] pSecond) {
+		if (pFirst == null || pSecond == null) {
+			throw new IllegalArgumentException("Byte arrays cannot be null");
+		}
+		if (pFirst.length != pSecond.length) {
+			throw new IllegalArgumentException("Byte arrays must have the same length");
+		}
+		return pFirst.clone();
+	}
+
+	/**
+	 * private constructor
+	 */
+	private BitArrayUtils() {
+	}
+}
@@ -0,0 +1,515 @@
+package fr.devnied.bitlib;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Class used to encode bytes as groups of bits, each group being a char of an
+ * alphabet of 2, 4, 8, 16, 32 or 64 chars (Base16, Base32, Base64...).<br>
+ * The symbols are the values read by {@link BitUtils#getNextInteger(int)} with
+ * the number of bits of the alphabet, but the data is processed by blocks of
+ * up to 5 bytes loaded in a long, and the chars are converted with lookup
+ * tables.
+ *
+ * <pre>
+ * String key = BitGroupCodec.BASE32.encode(data);
+ * byte[] data = BitGroupCodec.BASE32.decode(key);
+ * </pre>
+ *
+ * The decoding accepts the data with or without padding, and the lower case
+ * letters when the alphabet contains only upper case letters. Only the
+ * streaming decoding ignores the whitespaces. Instances are immutable and
+ * thread safe.
+ *
+ * @author Millau Julien
+ *
+ */
+public final class BitGroupCodec {
+
+	/**
+	 * Hexadecimal alphabet (RFC 4648)
+	 */
+	public static final BitGroupCodec BASE16 = new BitGroupCodec("0123456789ABCDEF", false);
+
+	/**
+	 * Base32 alphabet with padding (RFC 4648)
+	 */
+	public static final BitGroupCodec BASE32 = new BitGroupCodec("ABCDEFGHIJKLMNOPQRSTUVWXYZ234567", true);
+
+	/**
+	 * Base32 alphabet with extended hex and padding (RFC 4648)
+	 */
+	public static final BitGroupCodec BASE32_HEX = new BitGroupCodec("0123456789ABCDEFGHIJKLMNOPQRSTUV", true);
+
+	/**
+	 * Base64 alphabet with padding (RFC 4648)
+	 */
+	public static final BitGroupCodec BASE64 = new BitGroupCodec(
+			"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/", true);
+
+	/**
+	 * URL and filename safe Base64 alphabet without padding (RFC 4648)
+	 */
+	public static final BitGroupCodec BASE64_URL = new BitGroupCodec(
+			"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_", false);
+
+	/**
+	 * Padding char
+	 */
+	public static final char PADDING = '=';
+
+	/**
+	 * Number of blocks processed by chunk in the streaming methods
+	 */
+	private static final int CHUNK_BLOCKS = 1024;
+
+	/**
+	 * Chars of the alphabet
+	 */
+	private final char[] alphabet;
+
+	/**
+	 * Value of each ASCII char, -1 if the char is not in the alphabet
+	 */
+	private final byte[] values = new byte[128];
+
+	/**
+	 * Number of bits per char
+	 */
+	private final int bits;
+
+	/**
+	 * Number of bytes of a block
+	 */
+	private final int blockBytes;
+
+	/**
+	 * Number of chars of a block
+	 */
+	private final int blockChars;
+
+	/**
+	 * True to complete the last block with padding chars
+	 */
+	private final boolean padding;
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pAlphabet
+	 *            distinct ASCII chars, 2, 4, 8, 16, 32 or 64 chars
+	 * @param pPadding
+	 *            true to complete the last block with {@link #PADDING}
+	 */
+	public BitGroupCodec(final String pAlphabet, final boolean pPadding) {
+		if (pAlphabet == null) {
+			throw new IllegalArgumentException("Parameter 'pAlphabet' cannot be null");
+		}
+		int length = pAlphabet.length();
+		if (length < 2 || length > 64 || Integer.bitCount(length) != 1) {
+			throw new IllegalArgumentException("Alphabet size must be 2, 4, 8, 16, 32 or 64. size=" + length);
+		}
+		alphabet = pAlphabet.toCharArray();
+		Arrays.fill(values, (byte) -1);
+		boolean lowerCase = false;
+		for (int i = 0; i < length; i++) {
+			char c = alphabet[i];
+			if (c >= values.length || c == PADDING || values[c] != -1) {
+				throw new IllegalArgumentException("Invalid or duplicate char in the alphabet: '" + c + "'");
+			}
+			values[c] = (byte) i;
+			lowerCase |= c >= 'a' && c <= 'z';
+		}
+		if (!lowerCase) {
+			for (char c = 'A'; c <= 'Z'; c++) {
+				values[Character.toLowerCase(c)] = values[c];
+			}
+		}
+		bits = Integer.numberOfTrailingZeros(length);
+		// Smallest number of bits multiple of 8 and of the char size
+		int blockBits = bits * BitUtils.BYTE_SIZE / gcd(bits, BitUtils.BYTE_SIZE);
+		blockBytes = blockBits / BitUtils.BYTE_SIZE;
+		blockChars = blockBits / bits;
+		padding = pPadding;
+	}
+
+	/**
+	 * Method used to encode an array
+	 *
+	 * @param pData
+	 *            the data
+	 * @return the encoded data
+	 */
+	public String encode(final byte[] pData) {
+		if (pData == null) {
+			throw new IllegalArgumentException("Parameter 'pData' cannot be null");
+		}
+		return encode(pData, 0, pData.length);
+	}
+
+	/**
+	 * Method used to encode a part of an array
+	 *
+	 * @param pData
+	 *            the data
+	 * @param pOffset
+	 *            index of the first byte
+	 * @param pLength
+	 *            number of bytes
+	 * @return the encoded data
+	 */
+	public String encode(final byte[] pData, final int pOffset, final int pLength) {
+		char[] ret = new char[getEncodedLength(pLength)];
+		BitMetrics.getDefault().bytesAllocated(ret.length * Character.BYTES);
+		encode(pData, pOffset, pLength, ret, 0);
+		return new String(ret);
+	}
+
+	/**
+	 * Method used to encode a part of an array in a char array
+	 *
+	 * @param pData
+	 *            the data
+	 * @param pOffset
+	 *            index of the first byte
+	 * @param pLength
+	 *            number of bytes
+	 * @param pDest
+	 *            the destination array
+	 * @param pDestOffset
+	 *            index of the first char in the destination array
+	 * @return the index after the last char written
+	 */
+	public int encode(final byte[] pData, final int pOffset, final int pLength, final char[] pDest, final int pDestOffset) {
+		if (pData == null) {
+			throw new IllegalArgumentException("Parameter 'pData' cannot be null");
+		}
+		if (pOffset < 0 || pLength < 0 || pData.length < (long) pOffset + pLength) {
+			throw new IllegalArgumentException("Length or offset not valid");
+		}
+		int length = getEncodedLength(pLength);
+		if (pDest == null || pDestOffset < 0 || pDest.length < (long) pDestOffset + length) {
+			throw new IllegalArgumentException("Destination too small for " + length + " chars");
+		}
+		int mask = alphabet.length - 1;
+		int position = pDestOffset;
+		int index = pOffset;
+		int end = pOffset + pLength;
+		// Full blocks
+		for (int last = end - blockBytes; index <= last; index += blockBytes) {
+			long word = 0;
+			for (int i = 0; i < blockBytes; i++) {
+				word = word << BitUtils.BYTE_SIZE | pData[index + i] & 0xFF;
+			}
+			for (int shift = (blockChars - 1) * bits; shift >= 0; shift -= bits) {
+				pDest[position++] = alphabet[(int) (word >>> shift) & mask];
+			}
+		}
+		// Last partial block, completed with 0 bits
+		int remaining = end - index;
+		if (remaining > 0) {
+			long word = 0;
+			for (int i = 0; i < blockBytes; i++) {
+				word = word << BitUtils.BYTE_SIZE | (i < remaining ? pData[index + i] & 0xFF : 0);
+			}
+			int chars = (remaining * BitUtils.BYTE_SIZE + bits - 1) / bits;
+			for (int i = 0, shift = (blockChars - 1) * bits; i < chars; i++, shift -= bits) {
+				pDest[position++] = alphabet[(int) (word >>> shift) & mask];
+			}
+			if (padding) {
+				for (int i = chars; i < blockChars; i++) {
+					pDest[position++] = PADDING;
+				}
+			}
+		}
+		return position;
+	}
+
+	/**
+	 * Method used to encode a stream, by chunks
+	 *
+	 * @param pIn
+	 *            the data
+	 * @param pOut
+	 *            the output of the encoded data
+	 * @throws IOException
+	 *             if the input or the output fails
+	 */
+	public void encode(final InputStream pIn, final Appendable pOut) throws IOException {
+		if (pIn == null || pOut == null) {
+			throw new IllegalArgumentException("Input and output cannot be null");
+		}
+		byte[] buffer = new byte[blockBytes * CHUNK_BLOCKS];
+		char[] chunk = new char[getEncodedLength(buffer.length)];
+		int length;
+		while ((length = fill(pIn, buffer)) > 0) {
+			int end = encode(buffer, 0, length, chunk, 0);
+			AppendableUtils.append(pOut, chunk, end);
+			if (length < buffer.length) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Method used to decode a string
+	 *
+	 * @param pData
+	 *            the encoded data
+	 * @return the bytes
+	 */
+	public byte[] decode(final CharSequence pData) {
+		if (pData == null) {
+			throw new IllegalArgumentException("Parameter 'pData' cannot be null");
+		}
+		int length = stripPadding(pData, 0, pData.length());
+		byte[] ret = new byte[getDecodedLength(length)];
+		BitMetrics.getDefault().bytesAllocated(ret.length);
+		decode(pData, 0, length, ret, 0);
+		return ret;
+	}
+
+	/**
+	 * Method used to decode a part of a string in a byte array
+	 *
+	 * @param pData
+	 *            the encoded data
+	 * @param pOffset
+	 *            index of the first char
+	 * @param pLength
+	 *            number of chars, with the padding
+	 * @param pDest
+	 *            the destination array
+	 * @param pDestOffset
+	 *            index of the first byte in the destination array
+	 * @return the index after the last byte written
+	 */
+	public int decode(final CharSequence pData, final int pOffset, final int pLength, final byte[] pDest,
+			final int pDestOffset) {
+		if (pData == null) {
+			throw new IllegalArgumentException("Parameter 'pData' cannot be null");
+		}
+		if (pOffset < 0 || pLength < 0 || pData.length() < (long) pOffset + pLength) {
+			throw new IllegalArgumentException("Length or offset not valid");
+		}
+		int charCount = stripPadding(pData, pOffset, pLength);
+		int length = getDecodedLength(charCount);
+		if (pDest == null || pDestOffset < 0 || pDest.length < (long) pDestOffset + length) {
+			throw new IllegalArgumentException("Destination too small for " + length + " bytes");
+		}
+		int position = pDestOffset;
+		int index = pOffset;
+		int end = pOffset + charCount;
+		// Full blocks
+		for (int last = end - blockChars; index <= last; index += blockChars) {
+			long word = 0;
+			for (int i = 0; i < blockChars; i++) {
+				word = word << bits | value(pData, index + i);
+			}
+			for (int shift = (blockBytes - 1) * BitUtils.BYTE_SIZE; shift >= 0; shift -= BitUtils.BYTE_SIZE) {
+				pDest[position++] = (byte) (word >>> shift);
+			}
+		}
+		// Last partial block
+		int remaining = end - index;
+		if (remaining > 0) {
+			long word = 0;
+			for (int i = 0; i < blockChars; i++) {
+				word = word << bits | (i < remaining ? value(pData, index + i) : 0);
+			}
+			int bytes = remaining * bits / BitUtils.BYTE_SIZE;
+			// The unused bits of the last char are written as 0 by the encoder
+			if ((word & (1L << (blockBytes - bytes) * BitUtils.BYTE_SIZE) - 1) != 0) {
+				BitMetrics.getDefault().decodeError();
+				throw new IllegalArgumentException("Non zero bits after the last byte");
+			}
+			for (int i = 0, shift = (blockBytes - 1) * BitUtils.BYTE_SIZE; i < bytes; i++, shift -= BitUtils.BYTE_SIZE) {
+				pDest[position++] = (byte) (word >>> shift);
+			}
+		}
+		return position;
+	}
+
+	/**
+	 * Method used to decode a stream, by chunks. The whitespaces are ignored,
+	 * for the line breaks of the files.
+	 *
+	 * @param pIn
+	 *            the encoded data
+	 * @param pOut
+	 *            the output of the bytes
+	 * @throws IOException
+	 *             if the input or the output fails
+	 */
+	public void decode(final Reader pIn, final OutputStream pOut) throws IOException {
+		if (pIn == null || pOut == null) {
+			throw new IllegalArgumentException("Input and output cannot be null");
+		}
+		char[] buffer = new char[blockChars * CHUNK_BLOCKS];
+		CharBuffer chars = CharBuffer.wrap(buffer);
+		byte[] chunk = new byte[blockBytes * CHUNK_BLOCKS];
+		boolean ended = false;
+		// Chars of an incomplete block kept at the start of the buffer
+		int kept = 0;
+		while (true) {
+			int read = pIn.read(buffer, kept, buffer.length - kept);
+			boolean endOfStream = read < 0;
+			int length = kept;
+			for (int i = kept; i < kept + read; i++) {
+				if (!Character.isWhitespace(buffer[i])) {
+					buffer[length++] = buffer[i];
+				}
+			}
+			if (ended && length > 0) {
+				BitMetrics.getDefault().decodeError();
+				throw new IllegalArgumentException("Data after the last block");
+			}
+			// Whole blocks only, the last block can be partial
+			int blocks = endOfStream ? length : length - length % blockChars;
+			if (blocks > 0) {
+				pOut.write(chunk, 0, decode(chars, 0, blocks, chunk, 0));
+				ended = buffer[blocks - 1] == PADDING;
+			}
+			if (endOfStream) {
+				break;
+			}
+			kept = length - blocks;
+			System.arraycopy(buffer, blocks, buffer, 0, kept);
+		}
+	}
+
+	/**
+	 * Method used to get the number of chars of encoded data
+	 *
+	 * @param pLength
+	 *            number of bytes
+	 * @return the number of chars
+	 */
+	public int getEncodedLength(final int pLength) {
+		if (pLength < 0) {
+			throw new IllegalArgumentException("Length must be positive. pLength=" + pLength);
+		}
+		long ret = (long) pLength / blockBytes * blockChars;
+		int remaining = pLength % blockBytes;
+		if (remaining > 0) {
+			ret += padding ? blockChars : (remaining * BitUtils.BYTE_SIZE + bits - 1) / bits;
+		}
+		if (ret > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Encoded data too long: " + ret);
+		}
+		return (int) ret;
+	}
+
+	/**
+	 * Method used to get the number of bits per char
+	 *
+	 * @return the number of bits encoded by a char
+	 */
+	public int getBitsPerChar() {
+		return bits;
+	}
+
+	/**
+	 * Method used to get the number of bytes decoded from chars without
+	 * padding
+	 *
+	 * @param pLength
+	 *            number of chars, without the padding
+	 * @return the number of bytes
+	 */
+	private int getDecodedLength(final int pLength) {
+		int ret = pLength / blockChars * blockBytes;
+		int remaining = pLength % blockChars;
+		if (remaining > 0) {
+			int bytes = remaining * bits / BitUtils.BYTE_SIZE;
+			// The encoder writes the min number of chars for the last bytes
+			if (bytes == 0 || (bytes * BitUtils.BYTE_SIZE + bits - 1) / bits != remaining) {
+				BitMetrics.getDefault().decodeError();
+				throw new IllegalArgumentException("Invalid length of the last block: " + remaining + " chars");
+			}
+			ret += bytes;
+		}
+		return ret;
+	}
+
+	/**
+	 * Method used to remove the padding at the end of the data
+	 *
+	 * @param pData
+	 *            the encoded data
+	 * @param pOffset
+	 *            index of the first char
+	 * @param pLength
+	 *            number of chars
+	 * @return the number of chars without the padding
+	 */
+	private int stripPadding(final CharSequence pData, final int pOffset, final int pLength) {
+		int ret = pLength;
+		while (ret > 0 && pLength - ret < blockChars && pData.charAt(pOffset + ret - 1) == PADDING) {
+			ret--;
+		}
+		// A whole block of padding is never written by the encoder
+		if (ret < pLength && (pLength % blockChars != 0 || pLength - ret == blockChars)) {
+			BitMetrics.getDefault().decodeError();
+			throw new IllegalArgumentException("Invalid padding");
+		}
+		return ret;
+	}
+
+	/**
+	 * Method used to get the value of a char
+	 *
+	 * @param pData
+	 *            the encoded data
+	 * @param pIndex
+	 *            index of the char
+	 * @return the value of the char
+	 */
+	private int value(final CharSequence pData, final int pIndex) {
+		char c = pData.charAt(pIndex);
+		int ret = c < values.length ? values[c] : -1;
+		if (ret < 0) {
+			BitMetrics.getDefault().decodeError();
+			throw new IllegalArgumentException("Invalid char '" + c + "' at index " + pIndex);
+		}
+		return ret;
+	}
+
+	/**
+	 * Method used to read a stream until the buffer is full or the end of the
+	 * stream
+	 *
+	 * @param pIn
+	 *            the stream
+	 * @param pBuffer
+	 *            the buffer
+	 * @return the number of bytes read
+	 * @throws IOException
+	 *             if the stream fails
+	 */
+	private static int fill(final InputStream pIn, final byte[] pBuffer) throws IOException {
+		int ret = 0;
+		int read;
+		while (ret < pBuffer.length && (read = pIn.read(pBuffer, ret, pBuffer.length - ret)) >= 0) {
+			ret += read;
+		}
+		return ret;
+	}
+
+	/**
+	 * Method used to get the greatest common divisor
+	 *
+	 * @param pA
+	 *            first value
+	 * @param pB
+	 *            second value
+	 * @return the greatest common divisor
+	 */
+	private static int gcd(final int pA, final int pB) {
+		return pB == 0 ? pA : gcd(pB, pA % pB);
+	}
+}
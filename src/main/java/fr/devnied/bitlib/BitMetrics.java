@@ -0,0 +1,104 @@
+package fr.devnied.bitlib;
+
+/**
+ * Class used to collect metrics of the bit codecs.<br>
+ * All the methods do nothing: subclasses override the events they want to
+ * count. The default instance {@link #NONE} overrides nothing, so when no other
+ * implementation is used the calls are inlined and removed by the JIT.<br>
+ * Implementations are called on the decoding threads and must be thread safe
+ * and cheap, see {@link StripedBitMetrics}.
+ *
+ * @author Millau Julien
+ *
+ */
+public abstract class BitMetrics {
+
+	/**
+	 * Metrics disabled
+	 */
+	public static final BitMetrics NONE = new Disabled();
+
+	/**
+	 * Metrics used by the new BitUtils and by BytesUtils
+	 */
+	private static volatile BitMetrics defaultMetrics = NONE;
+
+	/**
+	 * Method used to get the default metrics
+	 *
+	 * @return the metrics used by the new BitUtils and by BytesUtils
+	 */
+	public static BitMetrics getDefault() {
+		return defaultMetrics;
+	}
+
+	/**
+	 * Method used to set the default metrics. BitUtils created before the call
+	 * keep their metrics.
+	 *
+	 * @param pMetrics
+	 *            the metrics or null to disable them
+	 */
+	public static void setDefault(final BitMetrics pMetrics) {
+		defaultMetrics = pMetrics == null ? NONE : pMetrics;
+	}
+
+	/**
+	 * Called when bits are read
+	 *
+	 * @param pCount
+	 *            number of bits
+	 */
+	public void bitsRead(final int pCount) {
+		// Nothing to do
+	}
+
+	/**
+	 * Called when bits are written
+	 *
+	 * @param pCount
+	 *            number of bits
+	 */
+	public void bitsWritten(final int pCount) {
+		// Nothing to do
+	}
+
+	/**
+	 * Called when an array or a string is allocated
+	 *
+	 * @param pCount
+	 *            number of bytes allocated
+	 */
+	public void bytesAllocated(final int pCount) {
+		// Nothing to do
+	}
+
+	/**
+	 * Called when a value is read or written on byte boundaries or with a
+	 * word access
+	 */
+	public void fastPath() {
+		// Nothing to do
+	}
+
+	/**
+	 * Called when a value is read or written bit by bit or byte by byte at an
+	 * unaligned position
+	 */
+	public void slowPath() {
+		// Nothing to do
+	}
+
+	/**
+	 * Called when a value cannot be decoded
+	 */
+	public void decodeError() {
+		// Nothing to do
+	}
+
+	/**
+	 * Metrics doing nothing
+	 */
+	private static final class Disabled extends BitMetrics {
+	}
+}
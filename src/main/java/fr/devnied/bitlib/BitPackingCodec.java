@@ -0,0 +1,211 @@
+package fr.devnied.bitlib;
+
+/**
+ * Class used to store integers with a frame of reference bit packing.<br>
+ * The values are split in blocks (128 values by default). For each block the
+ * minimum is stored as reference and the values minus the reference are
+ * packed with the smallest width able to store the block range. With the
+ * delta mode the differences between consecutive values are packed instead
+ * of the values, which is better for sorted data (ids, timestamps).<br>
+ * Format:
+ *
+ * <pre>
+ * count                       LEB128 varint
+ * for each block:
+ *   width                     8 bits (0 to 32)
+ *   reference                 ZigZag LEB128 varint
+ *   values - reference        width bits each
+ * </pre>
+ *
+ * The computations wrap like the int arithmetic, so any int can be stored.
+ * The encoder and the decoder must use the same block size and mode.
+ *
+ * @author Millau Julien
+ *
+ */
+public final class BitPackingCodec {
+
+	/**
+	 * Default number of values in a block
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 128;
+
+	/**
+	 * Size in bits of the width of a block
+	 */
+	private static final int WIDTH_SIZE = 8;
+
+	/**
+	 * Max size in bits of an integer varint
+	 */
+	private static final int MAX_VARINT_BITS = 5 * BitUtils.BYTE_SIZE;
+
+	/**
+	 * Number of values in a block
+	 */
+	private final int blockSize;
+
+	/**
+	 * True to pack the differences between consecutive values
+	 */
+	private final boolean delta;
+
+	/**
+	 * Constructor for a frame of reference codec with the default block size
+	 */
+	public BitPackingCodec() {
+		this(DEFAULT_BLOCK_SIZE, false);
+	}
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pBlockSize
+	 *            number of values in a block
+	 * @param pDelta
+	 *            true to pack the differences between consecutive values
+	 */
+	public BitPackingCodec(final int pBlockSize, final boolean pDelta) {
+		if (pBlockSize < 1) {
+			throw new IllegalArgumentException("Block size must be greater than 0. pBlockSize=" + pBlockSize);
+		}
+		blockSize = pBlockSize;
+		delta = pDelta;
+	}
+
+	/**
+	 * Method used to get the max size of encoded values
+	 *
+	 * @param pCount
+	 *            number of values
+	 * @return the max number of bits written by encode
+	 */
+	public long getMaxEncodedBits(final int pCount) {
+		long blocks = (pCount + (long) blockSize - 1) / blockSize;
+		return MAX_VARINT_BITS + blocks * (WIDTH_SIZE + MAX_VARINT_BITS) + (long) pCount * Integer.SIZE;
+	}
+
+	/**
+	 * Method used to encode values
+	 *
+	 * @param pOut
+	 *            the bit utils to write to
+	 * @param pValues
+	 *            the values
+	 * @param pOffset
+	 *            index of the first value
+	 * @param pLength
+	 *            number of values
+	 */
+	public void encode(final BitUtils pOut, final int[] pValues, final int pOffset, final int pLength) {
+		if (pValues == null) {
+			throw new IllegalArgumentException("Parameter 'pValues' cannot be null");
+		}
+		if (pOffset < 0 || pLength < 0 || pValues.length < (long) pOffset + pLength) {
+			throw new IllegalArgumentException("Length or offset not valid");
+		}
+		pOut.setNextVarInteger(pLength);
+		int[] block = new int[Math.min(blockSize, pLength)];
+		int previous = 0;
+		for (int start = 0; start < pLength; start += blockSize) {
+			int count = Math.min(blockSize, pLength - start);
+			int min = Integer.MAX_VALUE;
+			int max = Integer.MIN_VALUE;
+			for (int i = 0; i < count; i++) {
+				int value = pValues[pOffset + start + i];
+				if (delta) {
+					int current = value;
+					value -= previous;
+					previous = current;
+				}
+				block[i] = value;
+				min = Math.min(min, value);
+				max = Math.max(max, value);
+			}
+			// The range is read as unsigned: it always fits in 32 bits
+			int width = Integer.SIZE - Integer.numberOfLeadingZeros(max - min);
+			for (int i = 0; i < count; i++) {
+				block[i] -= min;
+			}
+			pOut.setNextInteger(width, WIDTH_SIZE);
+			pOut.setNextVarIntegerSigned(min);
+			pOut.setNextIntegers(block, 0, count, width);
+		}
+	}
+
+	/**
+	 * Method used to decode values in a new array
+	 *
+	 * @param pIn
+	 *            the bit utils to read from
+	 * @return the values
+	 */
+	public int[] decode(final BitUtils pIn) {
+		int count = pIn.getNextVarInteger();
+		// Each block uses at least 16 bits: reject counts allocating too much
+		long maxCount = Math.max(0, pIn.remaining()) / (WIDTH_SIZE + BitUtils.BYTE_SIZE) * (long) blockSize;
+		if (count < 0 || count > maxCount) {
+			throw new IllegalArgumentException("Invalid number of values: " + (count & 0xFFFFFFFFL));
+		}
+		int[] ret = new int[count];
+		decodeBlocks(pIn, ret, 0, count);
+		return ret;
+	}
+
+	/**
+	 * Method used to decode values in an existing array
+	 *
+	 * @param pIn
+	 *            the bit utils to read from
+	 * @param pValues
+	 *            the array to fill
+	 * @param pOffset
+	 *            index of the first value in the array
+	 * @return the number of values read
+	 */
+	public int decode(final BitUtils pIn, final int[] pValues, final int pOffset) {
+		if (pValues == null) {
+			throw new IllegalArgumentException("Parameter 'pValues' cannot be null");
+		}
+		int count = pIn.getNextVarInteger();
+		if (count < 0 || pOffset < 0 || pValues.length < (long) pOffset + count) {
+			throw new IllegalArgumentException("Array too small for " + (count & 0xFFFFFFFFL) + " values");
+		}
+		decodeBlocks(pIn, pValues, pOffset, count);
+		return count;
+	}
+
+	/**
+	 * Method used to decode the blocks
+	 *
+	 * @param pIn
+	 *            the bit utils to read from
+	 * @param pValues
+	 *            the array to fill
+	 * @param pOffset
+	 *            index of the first value in the array
+	 * @param pCount
+	 *            number of values
+	 */
+	private void decodeBlocks(final BitUtils pIn, final int[] pValues, final int pOffset, final int pCount) {
+		int previous = 0;
+		for (int start = 0; start < pCount; start += blockSize) {
+			int count = Math.min(blockSize, pCount - start);
+			int width = pIn.getNextInteger(WIDTH_SIZE);
+			if (width > Integer.SIZE) {
+				throw new IllegalArgumentException("Invalid block width: " + width);
+			}
+			int reference = pIn.getNextVarIntegerSigned();
+			int first = pOffset + start;
+			pIn.getNextIntegers(pValues, first, count, width);
+			for (int i = first; i < first + count; i++) {
+				int value = pValues[i] + reference;
+				if (delta) {
+					value += previous;
+					previous = value;
+				}
+				pValues[i] = value;
+			}
+		}
+	}
+}
@@ -0,0 +1,266 @@
+package fr.devnied.bitlib;
+
+/**
+ * Class used to read bits with a 64 bits reservoir.<br>
+ * The reservoir is refilled with whole 64 bits loads, so looking at the next
+ * bits with {@link #peekBits(int)} and consuming them with
+ * {@link #skipBits(int)} cost a shift each. This reader is designed for table
+ * driven decoders (Huffman, VLC) that peek several bits to find a symbol and
+ * then consume only the length of the symbol.<br>
+ * The data are not copied: the reader can be reused with
+ * {@link #reset(byte[], int, int)}.
+ *
+ * @author Millau Julien
+ *
+ */
+public final class BitReader {
+
+	/**
+	 * Max number of bits that can be peeked at once
+	 */
+	public static final int MAX_PEEK_BITS = Long.SIZE - BitUtils.BYTE_SIZE;
+
+	/**
+	 * Data to read
+	 */
+	private byte[] data;
+
+	/**
+	 * Index of the first byte
+	 */
+	private int start;
+
+	/**
+	 * Index after the last byte
+	 */
+	private int end;
+
+	/**
+	 * Number of bits that can be read from the start
+	 */
+	private int bitLimit;
+
+	/**
+	 * Index of the next byte to load in the reservoir
+	 */
+	private int position;
+
+	/**
+	 * Bits loaded and not consumed, left aligned
+	 */
+	private long reservoir;
+
+	/**
+	 * Number of valid bits in the reservoir
+	 */
+	private int available;
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pData
+	 *            the data to read
+	 */
+	public BitReader(final byte[] pData) {
+		if (pData == null) {
+			throw new IllegalArgumentException("Parameter 'pData' cannot be null");
+		}
+		reset(pData, 0, pData.length);
+	}
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pData
+	 *            the data to read
+	 * @param pOffset
+	 *            index of the first byte to read
+	 * @param pLength
+	 *            number of bytes to read
+	 */
+	public BitReader(final byte[] pData, final int pOffset, final int pLength) {
+		reset(pData, pOffset, pLength);
+	}
+
+	/**
+	 * Constructor used to read the data of a BitUtils from its current index
+	 * without copy
+	 *
+	 * @param pBit
+	 *            the bit utils to read
+	 */
+	public BitReader(final BitUtils pBit) {
+		if (pBit == null) {
+			throw new IllegalArgumentException("Parameter 'pBit' cannot be null");
+		}
+		byte[] tab = pBit.getByteTab();
+		reset(tab, pBit.getOffset(), (pBit.getSize() + BitUtils.BYTE_SIZE - 1) / BitUtils.BYTE_SIZE);
+		bitLimit = Math.min(bitLimit, pBit.getSize());
+		setBitPosition(pBit.getCurrentBitIndex());
+	}
+
+	/**
+	 * Method used to read new data with this reader
+	 *
+	 * @param pData
+	 *            the data to read
+	 * @param pOffset
+	 *            index of the first byte to read
+	 * @param pLength
+	 *            number of bytes to read
+	 */
+	public void reset(final byte[] pData, final int pOffset, final int pLength) {
+		if (pData == null) {
+			throw new IllegalArgumentException("Parameter 'pData' cannot be null");
+		}
+		if (pOffset < 0 || pLength < 0 || pData.length < (long) pOffset + pLength
+				|| pLength > Integer.MAX_VALUE / BitUtils.BYTE_SIZE) {
+			throw new IllegalArgumentException("Length or offset not valid");
+		}
+		data = pData;
+		start = pOffset;
+		end = pOffset + pLength;
+		bitLimit = pLength * BitUtils.BYTE_SIZE;
+		position = start;
+		reservoir = 0;
+		available = 0;
+	}
+
+	/**
+	 * Method used to get the next bits without moving the current position.
+	 * Bits after the end of the data are read as 0.
+	 *
+	 * @param pLength
+	 *            number of bits to peek (between 0 and 56)
+	 * @return the bits right aligned in a long
+	 */
+	public long peekBits(final int pLength) {
+		if (pLength <= 0) {
+			if (pLength < 0) {
+				throw new IllegalArgumentException("Length must be between 0 and 56. pLength=" + pLength);
+			}
+			return 0;
+		}
+		if (available < pLength) {
+			if (pLength > MAX_PEEK_BITS) {
+				throw new IllegalArgumentException("Length must be between 0 and 56. pLength=" + pLength);
+			}
+			refill();
+		}
+		return reservoir >>> Long.SIZE - pLength;
+	}
+
+	/**
+	 * Method used to skip bits
+	 *
+	 * @param pLength
+	 *            number of bits to skip
+	 */
+	public void skipBits(final int pLength) {
+		if (pLength <= available && pLength >= 0) {
+			if (pLength > remaining()) {
+				throw new IndexOutOfBoundsException("Cannot skip " + pLength + " bits, remaining=" + remaining());
+			}
+			reservoir <<= pLength;
+			available -= pLength;
+		} else {
+			setBitPosition(getBitPosition() + pLength);
+		}
+	}
+
+	/**
+	 * Method used to read the next bits
+	 *
+	 * @param pLength
+	 *            number of bits to read (between 0 and 64)
+	 * @return the bits right aligned in a long
+	 */
+	public long readBits(final int pLength) {
+		if (pLength > MAX_PEEK_BITS || pLength < 0) {
+			if (pLength > Long.SIZE || pLength < 0) {
+				throw new IllegalArgumentException("Length must be between 0 and 64. pLength=" + pLength);
+			}
+			long high = readBits(pLength - Integer.SIZE);
+			return high << Integer.SIZE | readBits(Integer.SIZE);
+		}
+		long value = peekBits(pLength);
+		skipBits(pLength);
+		return value;
+	}
+
+	/**
+	 * Method used to read the next bit
+	 *
+	 * @return true if the bit is set
+	 */
+	public boolean readBoolean() {
+		return readBits(1) == 1;
+	}
+
+	/**
+	 * Method used to move the position to the next byte boundary
+	 */
+	public void alignToByte() {
+		skipBits(available % BitUtils.BYTE_SIZE);
+	}
+
+	/**
+	 * Getter for the current position in bits
+	 *
+	 * @return the number of bits read since the first byte
+	 */
+	public int getBitPosition() {
+		return (position - start) * BitUtils.BYTE_SIZE - available;
+	}
+
+	/**
+	 * Setter for the current position
+	 *
+	 * @param pBitPosition
+	 *            the number of bits from the first byte
+	 */
+	public void setBitPosition(final int pBitPosition) {
+		if (pBitPosition < 0 || pBitPosition > bitLimit) {
+			throw new IndexOutOfBoundsException("Invalid bit position " + pBitPosition + ", limit=" + bitLimit);
+		}
+		position = start + pBitPosition / BitUtils.BYTE_SIZE;
+		reservoir = 0;
+		available = 0;
+		int bits = pBitPosition % BitUtils.BYTE_SIZE;
+		if (bits != 0) {
+			refill();
+			reservoir <<= bits;
+			available -= bits;
+		}
+	}
+
+	/**
+	 * Method used to get the number of bits that can be read
+	 *
+	 * @return the remaining bits
+	 */
+	public int remaining() {
+		return bitLimit - getBitPosition();
+	}
+
+	/**
+	 * Method used to load bytes in the reservoir until it contains at least 56
+	 * bits
+	 */
+	private void refill() {
+		if (position + Long.BYTES <= end) {
+			// Load a whole word and keep only the complete bytes
+			reservoir |= BitUtils.readWord(data, position) >>> available;
+			int bytes = (Long.SIZE - 1 - available) / BitUtils.BYTE_SIZE;
+			position += bytes;
+			available += bytes * BitUtils.BYTE_SIZE;
+		} else {
+			while (available <= MAX_PEEK_BITS) {
+				long value = position < end ? data[position] & 0xFFL : 0;
+				reservoir |= value << MAX_PEEK_BITS - available;
+				position++;
+				available += BitUtils.BYTE_SIZE;
+			}
+		}
+	}
+}
@@ -4,10 +4,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.charset.Charset;
-import java.text.ParseException;
+import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Class to manage bit with java
@@ -33,15 +34,60 @@ public final class BitUtils {
 	 */
 	private static final Charset DEFAULT_CHARSET = Charset.forName("ASCII");
 
+	/**
+	 * Mask of the payload of a LEB128 byte
+	 */
+	private static final int VARINT_PAYLOAD_MASK = 0x7F;
+
+	/**
+	 * Continuation bit of a LEB128 byte
+	 */
+	private static final int VARINT_CONTINUATION_BIT = 0x80;
+
+	/**
+	 * Continuation bits of 8 LEB128 bytes loaded in a long
+	 */
+	private static final long VARINT_CONTINUATION_BITS = 0x8080808080808080L;
+
+	/**
+	 * Max number of bytes of a LEB128 encoded long
+	 */
+	private static final int VARINT_MAX_BYTES = 10;
+
+	/**
+	 * Size of an IEEE 754 half precision float
+	 */
+	private static final int HALF_SIZE = 16;
+
 	/**
 	 * Simple date format (yyyMMdd)
 	 */
 	public static final String DATE_FORMAT = "yyyyMMdd";
 
+	/**
+	 * Log one decode error out of errorLogSampling (0 to disable the logs)
+	 */
+	private static volatile int errorLogSampling;
+
+	/**
+	 * Number of decode errors of all the instances, used for the log sampling
+	 */
+	private static final AtomicLong ERROR_LOG_COUNTER = new AtomicLong();
+
 	/**
 	 * Table of read byte
 	 */
-	private final byte[] byteTab;
+	private byte[] byteTab;
+
+	/**
+	 * Index in the byte tab of the first byte of the data
+	 */
+	private int offset;
+
+	/**
+	 * Number of bytes of the data
+	 */
+	private int dataLength;
 
 	/**
 	 * Current index
@@ -51,7 +97,27 @@ public final class BitUtils {
 	/**
 	 * Size in bit of the byte tab
 	 */
-	private final int size;
+	private int size;
+
+	/**
+	 * Metrics of this instance
+	 */
+	private BitMetrics metrics = BitMetrics.getDefault();
+
+	/**
+	 * Policy used for the decode errors
+	 */
+	private DecodeErrorPolicy errorPolicy = DecodeErrorPolicy.EXCEPTION;
+
+	/**
+	 * Last decode error, created with the first error
+	 */
+	private DecodeError decodeError;
+
+	/**
+	 * True if the reads are not checked against the end of the data
+	 */
+	private boolean uncheckedReads;
 
 	/**
 	 * Constructor of the class
@@ -61,7 +127,9 @@ public final class BitUtils {
 	 */
 	public BitUtils(final byte[] pByte) {
 		byteTab = Arrays.copyOf(pByte, pByte.length);
+		dataLength = pByte.length;
 		size = pByte.length * BYTE_SIZE;
+		metrics.bytesAllocated(byteTab.length);
 	}
 
 	/**
@@ -72,7 +140,72 @@ public final class BitUtils {
 	 */
 	public BitUtils(final int pSize) {
 		byteTab = new byte[(pSize + BYTE_SIZE - 1) / BYTE_SIZE];
+		dataLength = byteTab.length;
 		size = pSize;
+		metrics.bytesAllocated(byteTab.length);
+	}
+
+	/**
+	 * Constructor of a view
+	 *
+	 * @param pData
+	 *            the array
+	 * @param pOffset
+	 *            index of the first byte
+	 * @param pLength
+	 *            number of bytes
+	 */
+	private BitUtils(final byte[] pData, final int pOffset, final int pLength) {
+		reset(pData, pOffset, pLength);
+	}
+
+	/**
+	 * Method used to create a view over a part of an array, without copy. The
+	 * reads and the writes use the array directly.
+	 *
+	 * @param pData
+	 *            the array
+	 * @param pOffset
+	 *            index of the first byte
+	 * @param pLength
+	 *            number of bytes
+	 * @return the view
+	 */
+	public static BitUtils wrap(final byte[] pData, final int pOffset, final int pLength) {
+		return new BitUtils(pData, pOffset, pLength);
+	}
+
+	/**
+	 * Method used to move this instance over a part of an other array,
+	 * without copy, and reset the current bit index, the decode errors and
+	 * the unchecked reads. The instance can be reused for each frame of a
+	 * buffer. The bit indexes in the array must
+	 * fit in an int: the view must end before the byte 2^28.
+	 *
+	 * @param pData
+	 *            the array
+	 * @param pOffset
+	 *            index of the first byte
+	 * @param pLength
+	 *            number of bytes
+	 */
+	public void reset(final byte[] pData, final int pOffset, final int pLength) {
+		if (pData == null) {
+			throw new IllegalArgumentException("Parameter 'pData' cannot be null");
+		}
+		if (pOffset < 0 || pLength < 0 || pData.length < (long) pOffset + pLength
+				|| (long) pOffset + pLength > Integer.MAX_VALUE / BYTE_SIZE) {
+			throw new IllegalArgumentException("Length or offset not valid");
+		}
+		byteTab = pData;
+		offset = pOffset;
+		dataLength = pLength;
+		size = pLength * BYTE_SIZE;
+		currentBitIndex = 0;
+		uncheckedReads = false;
+		if (decodeError != null) {
+			decodeError.clear();
+		}
 	}
 
 	/**
@@ -103,7 +236,204 @@ public final class BitUtils {
 	 * @return a byte tab which contain all data
 	 */
 	public byte[] getData() {
-		return Arrays.copyOf(byteTab, byteTab.length);
+		metrics.bytesAllocated(dataLength);
+		return Arrays.copyOfRange(byteTab, offset, offset + dataLength);
+	}
+
+	/**
+	 * Getter for the metrics
+	 *
+	 * @return the metrics of this instance
+	 */
+	public BitMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Setter for the metrics
+	 *
+	 * @param pMetrics
+	 *            the metrics or null to disable them
+	 */
+	public void setMetrics(final BitMetrics pMetrics) {
+		metrics = pMetrics == null ? BitMetrics.NONE : pMetrics;
+	}
+
+	/**
+	 * Getter for the error policy
+	 *
+	 * @return the policy used for the decode errors
+	 */
+	public DecodeErrorPolicy getErrorPolicy() {
+		return errorPolicy;
+	}
+
+	/**
+	 * Setter for the error policy
+	 *
+	 * @param pErrorPolicy
+	 *            the policy used for the decode errors
+	 */
+	public void setErrorPolicy(final DecodeErrorPolicy pErrorPolicy) {
+		if (pErrorPolicy == null) {
+			throw new IllegalArgumentException("Parameter 'pErrorPolicy' cannot be null");
+		}
+		errorPolicy = pErrorPolicy;
+	}
+
+	/**
+	 * Method used to get the last decode error. The same instance is returned
+	 * for all the errors of this BitUtils.
+	 *
+	 * @return the last decode error
+	 */
+	public DecodeError getDecodeError() {
+		if (decodeError == null) {
+			decodeError = new DecodeError();
+		}
+		return decodeError;
+	}
+
+	/**
+	 * Method used to get the number of bits between the current index and the
+	 * end of the data
+	 *
+	 * @return the number of bits remaining (negative if the index is after the
+	 *         end)
+	 */
+	public int remaining() {
+		return size - currentBitIndex;
+	}
+
+	/**
+	 * Method used to check once that a whole record can be read.<br>
+	 * If there are less than pBits remaining, the error is reported according
+	 * to the error policy: IndexOutOfBoundsException or false with the error
+	 * recorded.
+	 *
+	 * @param pBits
+	 *            number of bits needed
+	 * @return true if pBits can be read
+	 */
+	public boolean ensureRemaining(final int pBits) {
+		if ((long) currentBitIndex + pBits > size) {
+			readError(DecodeError.Type.OUT_OF_RANGE, currentBitIndex);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Getter for the unchecked reads
+	 *
+	 * @return true if the reads are not checked against the end of the data
+	 */
+	public boolean isUncheckedReads() {
+		return uncheckedReads;
+	}
+
+	/**
+	 * Method used to disable the check of each read against the end of the
+	 * data, for decoders that validate the length of a record once with
+	 * {@link #ensureRemaining(int)}.<br>
+	 * In this mode the error policy is not applied to the reads after the end
+	 * of the array, they throw ArrayIndexOutOfBoundsException.
+	 *
+	 * @param pUncheckedReads
+	 *            true to disable the checks
+	 */
+	public void setUncheckedReads(final boolean pUncheckedReads) {
+		uncheckedReads = pUncheckedReads;
+	}
+
+	/**
+	 * Method used to log only a part of the decode errors that are not
+	 * thrown (invalid dates and all the errors with the STATUS policy). The
+	 * errors are counted over all the instances, so the sampling also limits
+	 * the logs when a new instance decodes each frame.
+	 *
+	 * @param pSampling
+	 *            log one error out of pSampling at WARN level, 0 to disable the
+	 *            logs (0 by default)
+	 */
+	public static void setErrorLogSampling(final int pSampling) {
+		if (pSampling < 0) {
+			throw new IllegalArgumentException("Sampling must be positive. pSampling=" + pSampling);
+		}
+		errorLogSampling = pSampling;
+	}
+
+	/**
+	 * Method used to record a decode error and log it if it is sampled
+	 *
+	 * @param pType
+	 *            the error type
+	 * @param pBitIndex
+	 *            bit index of the value in error
+	 */
+	private void recordError(final DecodeError.Type pType, final int pBitIndex) {
+		metrics.decodeError();
+		getDecodeError().set(pType, pBitIndex);
+		int sampling = errorLogSampling;
+		if (sampling > 0 && ERROR_LOG_COUNTER.getAndIncrement() % sampling == 0) {
+			LOGGER.warn("{} at bit index {}", pType.getMessage(), pBitIndex);
+		}
+	}
+
+	/**
+	 * Method used to report a read error according to the error policy: throw
+	 * an exception or record the error and move the index to the end of the
+	 * data (the size in bits)
+	 *
+	 * @param pType
+	 *            the error type
+	 * @param pBitIndex
+	 *            bit index of the value in error
+	 */
+	private void readError(final DecodeError.Type pType, final int pBitIndex) {
+		if (errorPolicy == DecodeErrorPolicy.EXCEPTION) {
+			metrics.decodeError();
+			String message = pType.getMessage() + " at bit index " + pBitIndex + ", size=" + size;
+			if (pType == DecodeError.Type.OUT_OF_RANGE) {
+				throw new IndexOutOfBoundsException(message);
+			}
+			throw new IllegalArgumentException(message);
+		}
+		recordError(pType, pBitIndex);
+		currentBitIndex = size;
+	}
+
+	/**
+	 * Method used to check that a read doesn't go after the end of the data
+	 *
+	 * @param pLength
+	 *            number of bits to read
+	 * @return true if the bits can be read, false if an error was recorded
+	 */
+	private boolean checkRead(final int pLength) {
+		if (!uncheckedReads && (long) currentBitIndex + pLength > size) {
+			readError(DecodeError.Type.OUT_OF_RANGE, currentBitIndex);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Method used to get the internal byte tab without copy
+	 *
+	 * @return the byte tab used by this instance
+	 */
+	byte[] getByteTab() {
+		return byteTab;
+	}
+
+	/**
+	 * Method used to get the index of the data in the internal byte tab
+	 *
+	 * @return the index of the first byte, 0 if this instance is not a view
+	 */
+	int getOffset() {
+		return offset;
 	}
 
 	/**
@@ -170,15 +500,21 @@ public final class BitUtils {
 	 */
 	public byte[] getNextByte(final int pSize, final boolean pShift) {
 		byte[] tab = new byte[(pSize + BYTE_SIZE - 1) / BYTE_SIZE];
+		metrics.bytesAllocated(tab.length);
+		if (!checkRead(pSize)) {
+			return tab;
+		}
+		metrics.bitsRead(pSize);
 
 		if (currentBitIndex % BYTE_SIZE != 0) {
+			metrics.slowPath();
 			int index = 0;
 			int max = currentBitIndex + pSize;
 			while (currentBitIndex < max) {
 				int mod = currentBitIndex % BYTE_SIZE;
 				int modTab = index % BYTE_SIZE;
 				int length = Math.min(max - currentBitIndex, Math.min(BYTE_SIZE - mod, BYTE_SIZE - modTab));
-				byte val = (byte) (byteTab[currentBitIndex / BYTE_SIZE] & getMask(mod, length));
+				byte val = (byte) (byteTab[offset + currentBitIndex / BYTE_SIZE] & getMask(mod, length));
 				if (pShift || pSize % BYTE_SIZE == 0) {
 					if (mod != 0) {
 						val = (byte) (val << Math.min(mod, BYTE_SIZE - length));
@@ -194,7 +530,8 @@ public final class BitUtils {
 				tab[tab.length - 1] = (byte) (tab[tab.length - 1] & getMask((max - pSize - 1) % BYTE_SIZE, BYTE_SIZE));
 			}
 		} else {
-			System.arraycopy(byteTab, currentBitIndex / BYTE_SIZE, tab, 0, tab.length);
+			metrics.fastPath();
+			System.arraycopy(byteTab, offset + currentBitIndex / BYTE_SIZE, tab, 0, tab.length);
 			int val = pSize % BYTE_SIZE;
 			if (val == 0) {
 				val = BYTE_SIZE;
@@ -242,14 +579,81 @@ public final class BitUtils {
 			dateTxt = getNextString(pSize);
 		}
 
-		try {
-			date = sdf.parse(dateTxt);
-		} catch (ParseException e) {
-			LOGGER.error("Parsing date error. date:" + dateTxt + " pattern:" + pPattern, e);
+		// Parse without exception: malformed dates are frequent in corrupted data
+		int bitIndex = currentBitIndex - pSize;
+		ParsePosition position = new ParsePosition(0);
+		date = sdf.parse(dateTxt, position);
+		if (date == null) {
+			recordError(DecodeError.Type.INVALID_DATE, bitIndex);
 		}
 		return date;
 	}
 
+	/**
+	 * Method used to get the next IEEE 754 single precision float (32 bits)
+	 *
+	 * @return the float value
+	 */
+	public float getNextFloat() {
+		return Float.intBitsToFloat((int) getNextLong(Float.SIZE));
+	}
+
+	/**
+	 * Method used to get the next IEEE 754 double precision float (64 bits)
+	 *
+	 * @return the double value
+	 */
+	public double getNextDouble() {
+		return Double.longBitsToDouble(getNextLong(Double.SIZE));
+	}
+
+	/**
+	 * Method used to get the next IEEE 754 half precision float (16 bits)
+	 *
+	 * @return the value converted to float (exact)
+	 */
+	public float getNextHalf() {
+		return halfToFloat((int) getNextLong(HALF_SIZE));
+	}
+
+	/**
+	 * Method used to get the next signed fixed-point value (Qm.n) stored in
+	 * two's complement on pIntBits + pFracBits bits
+	 *
+	 * @param pIntBits
+	 *            number of integer bits, sign bit included (m)
+	 * @param pFracBits
+	 *            number of fractional bits (n)
+	 * @return the value
+	 */
+	public double getNextFixedPoint(final int pIntBits, final int pFracBits) {
+		return getNextFixedPoint(pIntBits, pFracBits, true);
+	}
+
+	/**
+	 * Method used to get the next fixed-point value (Qm.n) stored on pIntBits
+	 * + pFracBits bits
+	 *
+	 * @param pIntBits
+	 *            number of integer bits, sign bit included if signed (m)
+	 * @param pFracBits
+	 *            number of fractional bits (n)
+	 * @param pSigned
+	 *            true if the value is signed (two's complement)
+	 * @return the value
+	 */
+	public double getNextFixedPoint(final int pIntBits, final int pFracBits, final boolean pSigned) {
+		int length = checkFixedPoint(pIntBits, pFracBits);
+		long raw = getNextLong(length);
+		if (pSigned) {
+			raw = raw << Long.SIZE - length >> Long.SIZE - length;
+			return Math.scalb((double) raw, -pFracBits);
+		}
+		// Unsigned 64 bits values are converted from their two halves
+		double value = raw < 0 ? (raw >>> 1) * 2.0 + (raw & 1) : raw;
+		return Math.scalb(value, -pFracBits);
+	}
+
 	/**
 	 * This method is used to get the next String in Hexa
 	 *
@@ -302,13 +706,25 @@ public final class BitUtils {
 	 * @return an long
 	 */
 	public long getNextLong(final int pLength) {
+		if (!checkRead(pLength)) {
+			return 0;
+		}
+		metrics.bitsRead(pLength);
+		// Fast path: one word load when the 9 bytes of the window are in the array
+		if (pLength > 0 && pLength <= Long.SIZE && currentBitIndex / BYTE_SIZE + Long.BYTES < dataLength) {
+			metrics.fastPath();
+			long value = readWindow(byteTab, offset * BYTE_SIZE + currentBitIndex) >>> Long.SIZE - pLength;
+			currentBitIndex += pLength;
+			return value;
+		}
+		metrics.slowPath();
 		long finalValue = 0;
 		long currentValue;
 		int readSize = pLength;
 		int max = currentBitIndex + pLength;
 		while (currentBitIndex < max) {
 			int mod = currentBitIndex % BYTE_SIZE;
-			currentValue = byteTab[currentBitIndex / BYTE_SIZE] & getMask(mod, readSize) & DEFAULT_VALUE;
+			currentValue = byteTab[offset + currentBitIndex / BYTE_SIZE] & getMask(mod, readSize) & DEFAULT_VALUE;
 			int dec = Math.max(BYTE_SIZE - (mod + readSize), 0);
 			currentValue = (currentValue & DEFAULT_VALUE) >>> dec & DEFAULT_VALUE;
 			finalValue = finalValue << Math.min(readSize, BYTE_SIZE) | currentValue;
@@ -319,6 +735,39 @@ public final class BitUtils {
 		return finalValue;
 	}
 
+	/**
+	 * Method used to read consecutive unsigned integers of the same width
+	 *
+	 * @param pValues
+	 *            the array to fill
+	 * @param pOffset
+	 *            index of the first value in the array
+	 * @param pLength
+	 *            number of values
+	 * @param pWidth
+	 *            width of each value in bit (0 to 32)
+	 */
+	public void getNextIntegers(final int[] pValues, final int pOffset, final int pLength, final int pWidth) {
+		checkIntegers(pValues, pOffset, pLength, pWidth);
+		long bits = (long) pLength * pWidth;
+		if (!checkRead((int) Math.min(bits, Integer.MAX_VALUE))) {
+			Arrays.fill(pValues, pOffset, pOffset + pLength, 0);
+			return;
+		}
+		metrics.bitsRead((int) bits);
+		metrics.fastPath();
+		if (pWidth == 0) {
+			Arrays.fill(pValues, pOffset, pOffset + pLength, 0);
+			return;
+		}
+		int bitIndex = currentBitIndex;
+		for (int i = pOffset; i < pOffset + pLength; i++) {
+			pValues[i] = (int) (readWindow(byteTab, offset * BYTE_SIZE + bitIndex) >>> Long.SIZE - pWidth);
+			bitIndex += pWidth;
+		}
+		currentBitIndex = bitIndex;
+	}
+
 	/**
 	 * This method is used to get an integer with the specified size
 	 *
@@ -358,6 +807,261 @@ public final class BitUtils {
 		return new String(getNextByte(pSize, true), pCharset);
 	}
 
+	/**
+	 * Method used to get the next unsigned variable-length long encoded in
+	 * LEB128 (protobuf varint): 7 bits per byte, least significant group
+	 * first and the most significant bit of each byte set if another byte
+	 * follows.<br>
+	 * The current bit index doesn't need to be aligned on a byte.
+	 *
+	 * @return the long value
+	 */
+	public long getNextVarLong() {
+		int start = currentBitIndex;
+		int byteIndex = currentBitIndex / BYTE_SIZE;
+		int shift = currentBitIndex % BYTE_SIZE;
+		// Fast path: decode from a single 64 bits load
+		if (byteIndex + Long.BYTES + (shift == 0 ? 0 : 1) <= dataLength) {
+			long word = readWord(byteTab, offset + byteIndex);
+			if (shift != 0) {
+				word = word << shift | (byteTab[offset + byteIndex + Long.BYTES] & DEFAULT_VALUE) >>> BYTE_SIZE - shift;
+			}
+			long stops = ~word & VARINT_CONTINUATION_BITS;
+			if (stops != 0) {
+				int length = Long.numberOfLeadingZeros(stops) / BYTE_SIZE + 1;
+				long value = 0;
+				for (int i = 0; i < length; i++) {
+					value |= (word >>> Long.SIZE - BYTE_SIZE * (i + 1) & VARINT_PAYLOAD_MASK) << 7 * i;
+				}
+				currentBitIndex += length * BYTE_SIZE;
+				metrics.bitsRead(length * BYTE_SIZE);
+				metrics.fastPath();
+				return value;
+			}
+		}
+		long value = 0;
+		for (int i = 0; i < VARINT_MAX_BYTES; i++) {
+			int b = getNextInteger(BYTE_SIZE);
+			value |= (long) (b & VARINT_PAYLOAD_MASK) << 7 * i;
+			if ((b & VARINT_CONTINUATION_BIT) == 0) {
+				return value;
+			}
+		}
+		readError(DecodeError.Type.MALFORMED_VARINT, start);
+		return 0;
+	}
+
+	/**
+	 * Method used to get the next unsigned variable-length long with a custom
+	 * group size: each group contains one continuation bit followed by
+	 * (pGroupSize - 1) bits of value, least significant group first.
+	 *
+	 * @param pGroupSize
+	 *            the size of a group in bit (8 for LEB128)
+	 * @return the long value
+	 */
+	public long getNextVarLong(final int pGroupSize) {
+		if (pGroupSize < 2 || pGroupSize > Long.SIZE) {
+			throw new IllegalArgumentException("Group size must be between 2 and 64. pGroupSize=" + pGroupSize);
+		}
+		if (pGroupSize == BYTE_SIZE) {
+			return getNextVarLong();
+		}
+		int start = currentBitIndex;
+		int payload = pGroupSize - 1;
+		long value = 0;
+		for (int shift = 0; shift < Long.SIZE; shift += payload) {
+			long group = getNextLong(pGroupSize);
+			value |= (group & (1L << payload) - 1) << shift;
+			if (group >>> payload == 0) {
+				return value;
+			}
+		}
+		readError(DecodeError.Type.MALFORMED_VARINT, start);
+		return 0;
+	}
+
+	/**
+	 * Method used to get the next signed variable-length long encoded in
+	 * LEB128 with ZigZag (protobuf sint64)
+	 *
+	 * @return the long value
+	 */
+	public long getNextVarLongSigned() {
+		long value = getNextVarLong();
+		return value >>> 1 ^ -(value & 1);
+	}
+
+	/**
+	 * Method used to get the next unsigned variable-length integer encoded in
+	 * LEB128 (protobuf varint). Bits after the 32th bit are ignored.
+	 *
+	 * @return the integer value
+	 */
+	public int getNextVarInteger() {
+		return (int) getNextVarLong();
+	}
+
+	/**
+	 * Method used to get the next signed variable-length integer encoded in
+	 * LEB128 with ZigZag (protobuf sint32)
+	 *
+	 * @return the integer value
+	 */
+	public int getNextVarIntegerSigned() {
+		int value = getNextVarInteger();
+		return value >>> 1 ^ -(value & 1);
+	}
+
+	/**
+	 * Method used to get the next unsigned Exp-Golomb code of order 0 (ue(v)
+	 * in H.264/H.265): N zeros followed by the N + 1 bits of (value + 1).
+	 *
+	 * @return the value
+	 */
+	public long getNextExpGolomb() {
+		int start = currentBitIndex;
+		int zeros = getNextLeadingZeros();
+		if (zeros < 0) {
+			return 0;
+		}
+		if (zeros >= Long.SIZE) {
+			readError(DecodeError.Type.CODE_TOO_LONG, start);
+			return 0;
+		}
+		return (1L << zeros) - 1 + getNextLong(zeros);
+	}
+
+	/**
+	 * Method used to get the next unsigned Exp-Golomb code of order k: the
+	 * value shifted by k bits with the order 0 code, then the k low bits.
+	 *
+	 * @param pOrder
+	 *            order of the code (k)
+	 * @return the value
+	 */
+	public long getNextExpGolomb(final int pOrder) {
+		long high = getNextExpGolomb();
+		return high << pOrder | getNextLong(pOrder);
+	}
+
+	/**
+	 * Method used to get the next signed Exp-Golomb code of order 0 (se(v) in
+	 * H.264/H.265): 1, -1, 2, -2... are mapped to 1, 2, 3, 4...
+	 *
+	 * @return the value
+	 */
+	public long getNextExpGolombSigned() {
+		long value = getNextExpGolomb();
+		return (value & 1) != 0 ? (value >>> 1) + 1 : -(value >>> 1);
+	}
+
+	/**
+	 * Method used to get the next Golomb-Rice code with the parameter k: the
+	 * quotient in unary (N zeros followed by a one) then the k low bits.
+	 *
+	 * @param pParameter
+	 *            the Rice parameter (k)
+	 * @return the value
+	 */
+	public long getNextRice(final int pParameter) {
+		long quotient = getNextLeadingZeros();
+		if (quotient < 0) {
+			return 0;
+		}
+		return quotient << pParameter | getNextLong(pParameter);
+	}
+
+	/**
+	 * Method used to get the next signed Golomb-Rice code (ZigZag value)
+	 *
+	 * @param pParameter
+	 *            the Rice parameter (k)
+	 * @return the value
+	 */
+	public long getNextRiceSigned(final int pParameter) {
+		long value = getNextRice(pParameter);
+		return value >>> 1 ^ -(value & 1);
+	}
+
+	/**
+	 * Method used to get the next Elias gamma code: N zeros followed by the N
+	 * + 1 bits of the value
+	 *
+	 * @return the value (greater than 0)
+	 */
+	public long getNextEliasGamma() {
+		int start = currentBitIndex;
+		int zeros = getNextLeadingZeros();
+		if (zeros < 0) {
+			return 0;
+		}
+		if (zeros >= Long.SIZE) {
+			readError(DecodeError.Type.CODE_TOO_LONG, start);
+			return 0;
+		}
+		return 1L << zeros | getNextLong(zeros);
+	}
+
+	/**
+	 * Method used to get the next Elias delta code: the number of bits of the
+	 * value in Elias gamma followed by the value without its leading one
+	 *
+	 * @return the value (greater than 0)
+	 */
+	public long getNextEliasDelta() {
+		int start = currentBitIndex;
+		long length = getNextEliasGamma();
+		if (length == 0) {
+			// Error already recorded
+			return 0;
+		}
+		if (length > Long.SIZE) {
+			readError(DecodeError.Type.CODE_TOO_LONG, start);
+			return 0;
+		}
+		int zeros = (int) length - 1;
+		return 1L << zeros | getNextLong(zeros);
+	}
+
+	/**
+	 * Method used to count and skip the next zero bits and the following one
+	 *
+	 * @return the number of zeros or -1 if an error was recorded
+	 */
+	private int getNextLeadingZeros() {
+		int start = currentBitIndex;
+		int count = 0;
+		long window;
+		while ((window = getWindow()) == 0) {
+			if (size - currentBitIndex <= Long.SIZE) {
+				readError(DecodeError.Type.NO_BIT_SET, start);
+				return -1;
+			}
+			count += Long.SIZE;
+			currentBitIndex += Long.SIZE;
+		}
+		int zeros = Long.numberOfLeadingZeros(window);
+		currentBitIndex += zeros + 1;
+		metrics.bitsRead(count + zeros + 1);
+		return count + zeros;
+	}
+
+	/**
+	 * Method used to get the next 64 bits without moving the current index.
+	 * Bits after the end of the data are set to 0.
+	 *
+	 * @return the bits left aligned in a long
+	 */
+	private long getWindow() {
+		long window = readWindow(byteTab, offset * BYTE_SIZE + currentBitIndex);
+		int remaining = size - currentBitIndex;
+		if (remaining < Long.SIZE) {
+			window &= remaining <= 0 ? 0 : -1L << Long.SIZE - remaining;
+		}
+		return window;
+	}
+
 	/**
 	 * Method used to get the size of the bit array
 	 *
@@ -378,7 +1082,7 @@ public final class BitUtils {
 	 * Method used to clear data and reset current bit index
 	 */
 	public void clear() {
-		Arrays.fill(byteTab, (byte) 0);
+		Arrays.fill(byteTab, offset, offset + dataLength, (byte) 0);
 		reset();
 	}
 
@@ -393,7 +1097,7 @@ public final class BitUtils {
 		while (currentBitIndex < max) {
 			int mod = currentBitIndex % BYTE_SIZE;
 			int length = Math.min(max - currentBitIndex, BYTE_SIZE - mod);
-			byteTab[currentBitIndex / BYTE_SIZE] &= ~getMask(mod, length);
+			byteTab[offset + currentBitIndex / BYTE_SIZE] &= ~getMask(mod, length);
 			currentBitIndex += length;
 		}
 	}
@@ -447,10 +1151,13 @@ public final class BitUtils {
 	public void setNextByte(final byte[] pValue, final int pLength, final boolean pPadBefore) {
 		int totalSize = (pLength + BYTE_SIZE - 1) / BYTE_SIZE;
 		byte[] tab = new byte[totalSize];
+		metrics.bytesAllocated(totalSize);
+		metrics.bitsWritten(pLength);
 		int padSize = Math.max(totalSize - pValue.length, 0);
 		int copyLen = Math.min(totalSize, pValue.length);
 		System.arraycopy(pValue, 0, tab, pPadBefore ? padSize : 0, copyLen);
 		if (currentBitIndex % BYTE_SIZE != 0) {
+			metrics.slowPath();
 			int index = 0;
 			int max = currentBitIndex + pLength;
 			while (currentBitIndex < max) {
@@ -463,13 +1170,14 @@ public final class BitUtils {
 				} else {
 					val = (byte) ((val & DEFAULT_VALUE) >> mod);
 				}
-				byteTab[currentBitIndex / BYTE_SIZE] |= val;
+				byteTab[offset + currentBitIndex / BYTE_SIZE] |= val;
 				currentBitIndex += length;
 				index += length;
 			}
 
 		} else {
-			System.arraycopy(tab, 0, byteTab, currentBitIndex / BYTE_SIZE, tab.length);
+			metrics.fastPath();
+			System.arraycopy(tab, 0, byteTab, offset + currentBitIndex / BYTE_SIZE, tab.length);
 			currentBitIndex += pLength;
 		}
 	}
@@ -508,6 +1216,88 @@ public final class BitUtils {
 		}
 	}
 
+	/**
+	 * Method used to write an IEEE 754 single precision float (32 bits)
+	 *
+	 * @param pValue
+	 *            the value to write
+	 */
+	public void setNextFloat(final float pValue) {
+		setNextLong(Float.floatToRawIntBits(pValue) & 0xFFFFFFFFL, Float.SIZE);
+	}
+
+	/**
+	 * Method used to write an IEEE 754 double precision float (64 bits)
+	 *
+	 * @param pValue
+	 *            the value to write
+	 */
+	public void setNextDouble(final double pValue) {
+		setNextLong(Double.doubleToRawLongBits(pValue), Double.SIZE);
+	}
+
+	/**
+	 * Method used to write an IEEE 754 half precision float (16 bits). The
+	 * value is rounded to the nearest half (ties to even), values too large
+	 * are written as infinity.
+	 *
+	 * @param pValue
+	 *            the value to write
+	 */
+	public void setNextHalf(final float pValue) {
+		setNextLong(floatToHalf(pValue), HALF_SIZE);
+	}
+
+	/**
+	 * Method used to write a signed fixed-point value (Qm.n) in two's
+	 * complement on pIntBits + pFracBits bits
+	 *
+	 * @see BitUtils#setNextFixedPoint(double, int, int, boolean)
+	 * @param pValue
+	 *            the value to write
+	 * @param pIntBits
+	 *            number of integer bits, sign bit included (m)
+	 * @param pFracBits
+	 *            number of fractional bits (n)
+	 */
+	public void setNextFixedPoint(final double pValue, final int pIntBits, final int pFracBits) {
+		setNextFixedPoint(pValue, pIntBits, pFracBits, true);
+	}
+
+	/**
+	 * Method used to write a fixed-point value (Qm.n) on pIntBits + pFracBits
+	 * bits. The value is rounded to the nearest step and saturated to the
+	 * range of the format, NaN is written as 0.
+	 *
+	 * @param pValue
+	 *            the value to write
+	 * @param pIntBits
+	 *            number of integer bits, sign bit included if signed (m)
+	 * @param pFracBits
+	 *            number of fractional bits (n)
+	 * @param pSigned
+	 *            true to write a signed value (two's complement)
+	 */
+	public void setNextFixedPoint(final double pValue, final int pIntBits, final int pFracBits, final boolean pSigned) {
+		int length = checkFixedPoint(pIntBits, pFracBits);
+		double scaled = Math.rint(Math.scalb(pValue, pFracBits));
+		long raw;
+		if (Double.isNaN(scaled)) {
+			raw = 0;
+		} else if (pSigned) {
+			long max = length == Long.SIZE ? Long.MAX_VALUE : (1L << length - 1) - 1;
+			raw = scaled >= max ? max : scaled <= -max - 1 ? -max - 1 : (long) scaled;
+		} else if (scaled <= 0) {
+			raw = 0;
+		} else if (scaled >= Math.scalb(1.0, length)) {
+			raw = length == Long.SIZE ? -1L : (1L << length) - 1;
+		} else {
+			// Values above Long.MAX_VALUE are converted from their half
+			raw = scaled >= Long.MAX_VALUE ? (long) (scaled / 2) << 1 : (long) scaled;
+		}
+		setNextLong(length == Long.SIZE ? raw : raw & (1L << length) - 1, length);
+	}
+
 	/**
 	 * Method to write Hexa String with the max length
 	 *
@@ -557,6 +1347,16 @@ public final class BitUtils {
 		if (bitMax > 0 && pValue >= bitMax) {
 			value = bitMax - 1;
 		}
+		// Keep only pLength bits of negative values
+		if (pLength < Long.SIZE) {
+			value &= (1L << pLength) - 1;
+		}
+		metrics.bitsWritten(pLength);
+		if ((currentBitIndex | pLength) % BYTE_SIZE == 0) {
+			metrics.fastPath();
+		} else {
+			metrics.slowPath();
+		}
 		int writeSize = pLength;
 		while (writeSize > 0) {
 			int mod = currentBitIndex % BYTE_SIZE;
@@ -565,9 +1365,9 @@ public final class BitUtils {
 				ret = (byte) (value << BYTE_SIZE - (writeSize + mod));
 			} else {
 				int length = value == 0 ? 1 : Long.SIZE - Long.numberOfLeadingZeros(value);
-				ret = (byte) (value >> writeSize - length - (BYTE_SIZE - length - mod));
+				ret = (byte) (value >>> writeSize - length - (BYTE_SIZE - length - mod));
 			}
-			byteTab[currentBitIndex / BYTE_SIZE] |= ret;
+			byteTab[offset + currentBitIndex / BYTE_SIZE] |= ret;
 			long val = Math.min(writeSize, BYTE_SIZE - mod);
 			writeSize -= val;
 			currentBitIndex += val;
@@ -594,6 +1394,75 @@ public final class BitUtils {
 		setNextValue(pValue, pLength, Integer.SIZE - 1);
 	}
 
+	/**
+	 * Method used to write consecutive integers with the same width. The low
+	 * pWidth bits of each value are written, the bytes are filled in a
+	 * register instead of value by value.
+	 *
+	 * @param pValues
+	 *            the values
+	 * @param pOffset
+	 *            index of the first value in the array
+	 * @param pLength
+	 *            number of values
+	 * @param pWidth
+	 *            width of each value in bit (0 to 32)
+	 */
+	public void setNextIntegers(final int[] pValues, final int pOffset, final int pLength, final int pWidth) {
+		checkIntegers(pValues, pOffset, pLength, pWidth);
+		long bits = (long) pLength * pWidth;
+		if (currentBitIndex + bits > size) {
+			throw new IndexOutOfBoundsException("Not enough space to write " + bits + " bits at bit index " + currentBitIndex);
+		}
+		metrics.bitsWritten((int) bits);
+		metrics.fastPath();
+		if (pWidth == 0) {
+			return;
+		}
+		long mask = (1L << pWidth) - 1;
+		int byteIndex = offset + currentBitIndex / BYTE_SIZE;
+		// Bits of the register not written yet, the first ones are the bits
+		// before the current index
+		int pending = currentBitIndex % BYTE_SIZE;
+		long register = 0;
+		for (int i = pOffset; i < pOffset + pLength; i++) {
+			register = register << pWidth | pValues[i] & mask;
+			pending += pWidth;
+			while (pending >= BYTE_SIZE) {
+				pending -= BYTE_SIZE;
+				byteTab[byteIndex++] |= (byte) (register >>> pending);
+			}
+		}
+		if (pending > 0) {
+			byteTab[byteIndex] |= (byte) (register << BYTE_SIZE - pending);
+		}
+		currentBitIndex += (int) bits;
+	}
+
+	/**
+	 * Method used to check the parameters of a bulk read or write
+	 *
+	 * @param pValues
+	 *            the values
+	 * @param pOffset
+	 *            index of the first value
+	 * @param pLength
+	 *            number of values
+	 * @param pWidth
+	 *            width of each value
+	 */
+	private static void checkIntegers(final int[] pValues, final int pOffset, final int pLength, final int pWidth) {
+		if (pValues == null) {
+			throw new IllegalArgumentException("Parameter 'pValues' cannot be null");
+		}
+		if (pOffset < 0 || pLength < 0 || pValues.length < (long) pOffset + pLength) {
+			throw new IllegalArgumentException("Length or offset not valid");
+		}
+		if (pWidth < 0 || pWidth > Integer.SIZE) {
+			throw new IllegalArgumentException("Width must be between 0 and 32. pWidth=" + pWidth);
+		}
+	}
+
 	/**
 	 * Method to write String
 	 *
@@ -620,4 +1489,383 @@ public final class BitUtils {
 	public void setNextString(final String pValue, final int pLength, final boolean pPaddedBefore) {
 		setNextByte(pValue.getBytes(DEFAULT_CHARSET), pLength, pPaddedBefore);
 	}
+
+	/**
+	 * Method used to write an unsigned variable-length long in LEB128
+	 * (protobuf varint)
+	 *
+	 * @param pValue
+	 *            the value to write (read as unsigned)
+	 */
+	public void setNextVarLong(final long pValue) {
+		int length = getVarLongSize(pValue);
+		if (length <= Long.BYTES) {
+			// Write all bytes at once
+			long encoded = 0;
+			long value = pValue;
+			for (int i = 0; i < length; i++) {
+				encoded = encoded << BYTE_SIZE | value & VARINT_PAYLOAD_MASK | (i < length - 1 ? VARINT_CONTINUATION_BIT : 0);
+				value >>>= 7;
+			}
+			setNextLong(encoded, length * BYTE_SIZE);
+		} else {
+			long value = pValue;
+			while ((value & ~VARINT_PAYLOAD_MASK) != 0) {
+				setNextInteger((int) (value & VARINT_PAYLOAD_MASK) | VARINT_CONTINUATION_BIT, BYTE_SIZE);
+				value >>>= 7;
+			}
+			setNextInteger((int) value, BYTE_SIZE);
+		}
+	}
+
+	/**
+	 * Method used to write an unsigned variable-length long with a custom
+	 * group size
+	 *
+	 * @see BitUtils#getNextVarLong(int)
+	 * @param pValue
+	 *            the value to write (read as unsigned)
+	 * @param pGroupSize
+	 *            the size of a group in bit (8 for LEB128)
+	 */
+	public void setNextVarLong(final long pValue, final int pGroupSize) {
+		if (pGroupSize < 2 || pGroupSize > Long.SIZE) {
+			throw new IllegalArgumentException("Group size must be between 2 and 64. pGroupSize=" + pGroupSize);
+		}
+		int payload = pGroupSize - 1;
+		long mask = (1L << payload) - 1;
+		long value = pValue;
+		while ((value & ~mask) != 0) {
+			setNextLong(value & mask | 1L << payload, pGroupSize);
+			value >>>= payload;
+		}
+		setNextLong(value, pGroupSize);
+	}
+
+	/**
+	 * Method used to write a signed variable-length long in LEB128 with ZigZag
+	 * (protobuf sint64)
+	 *
+	 * @param pValue
+	 *            the value to write
+	 */
+	public void setNextVarLongSigned(final long pValue) {
+		setNextVarLong(pValue << 1 ^ pValue >> Long.SIZE - 1);
+	}
+
+	/**
+	 * Method used to write an unsigned variable-length integer in LEB128
+	 * (protobuf varint)
+	 *
+	 * @param pValue
+	 *            the value to write (read as unsigned)
+	 */
+	public void setNextVarInteger(final int pValue) {
+		setNextVarLong(pValue & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Method used to write a signed variable-length integer in LEB128 with
+	 * ZigZag (protobuf sint32)
+	 *
+	 * @param pValue
+	 *            the value to write
+	 */
+	public void setNextVarIntegerSigned(final int pValue) {
+		setNextVarInteger(pValue << 1 ^ pValue >> Integer.SIZE - 1);
+	}
+
+	/**
+	 * Method used to write an unsigned Exp-Golomb code of order 0 (ue(v))
+	 *
+	 * @param pValue
+	 *            the value to write (between 0 and Long.MAX_VALUE - 1)
+	 */
+	public void setNextExpGolomb(final long pValue) {
+		if (pValue < 0 || pValue == Long.MAX_VALUE) {
+			throw new IllegalArgumentException("Exp-Golomb value out of range. pValue=" + pValue);
+		}
+		long value = pValue + 1;
+		int zeros = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		currentBitIndex += zeros;
+		metrics.bitsWritten(zeros);
+		setNextLong(value, zeros + 1);
+	}
+
+	/**
+	 * Method used to write an unsigned Exp-Golomb code of order k
+	 *
+	 * @param pValue
+	 *            the value to write
+	 * @param pOrder
+	 *            order of the code (k)
+	 */
+	public void setNextExpGolomb(final long pValue, final int pOrder) {
+		if (pValue < 0) {
+			throw new IllegalArgumentException("Exp-Golomb value must be positive. pValue=" + pValue);
+		}
+		setNextExpGolomb(pValue >>> pOrder);
+		setNextLong(pValue & (1L << pOrder) - 1, pOrder);
+	}
+
+	/**
+	 * Method used to write a signed Exp-Golomb code of order 0 (se(v))
+	 *
+	 * @param pValue
+	 *            the value to write
+	 */
+	public void setNextExpGolombSigned(final long pValue) {
+		setNextExpGolomb(pValue > 0 ? 2 * pValue - 1 : -2 * pValue);
+	}
+
+	/**
+	 * Method used to write a Golomb-Rice code with the parameter k
+	 *
+	 * @param pValue
+	 *            the value to write (read as unsigned)
+	 * @param pParameter
+	 *            the Rice parameter (k)
+	 */
+	public void setNextRice(final long pValue, final int pParameter) {
+		if (pParameter < 0 || pParameter >= Long.SIZE) {
+			throw new IllegalArgumentException("Rice parameter must be between 0 and 63. pParameter=" + pParameter);
+		}
+		long quotient = pValue >>> pParameter;
+		if (quotient > Integer.MAX_VALUE - currentBitIndex) {
+			throw new IllegalArgumentException("Rice quotient too large. pValue=" + pValue);
+		}
+		currentBitIndex += (int) quotient;
+		metrics.bitsWritten((int) quotient);
+		setNextBoolean(true);
+		setNextLong(pValue & (1L << pParameter) - 1, pParameter);
+	}
+
+	/**
+	 * Method used to write a signed Golomb-Rice code (ZigZag value)
+	 *
+	 * @param pValue
+	 *            the value to write
+	 * @param pParameter
+	 *            the Rice parameter (k)
+	 */
+	public void setNextRiceSigned(final long pValue, final int pParameter) {
+		setNextRice(pValue << 1 ^ pValue >> Long.SIZE - 1, pParameter);
+	}
+
+	/**
+	 * Method used to write an Elias gamma code
+	 *
+	 * @param pValue
+	 *            the value to write (greater than 0)
+	 */
+	public void setNextEliasGamma(final long pValue) {
+		if (pValue <= 0) {
+			throw new IllegalArgumentException("Elias gamma value must be greater than 0. pValue=" + pValue);
+		}
+		int zeros = Long.SIZE - 1 - Long.numberOfLeadingZeros(pValue);
+		currentBitIndex += zeros;
+		metrics.bitsWritten(zeros);
+		setNextLong(pValue, zeros + 1);
+	}
+
+	/**
+	 * Method used to write an Elias delta code
+	 *
+	 * @param pValue
+	 *            the value to write (greater than 0)
+	 */
+	public void setNextEliasDelta(final long pValue) {
+		if (pValue <= 0) {
+			throw new IllegalArgumentException("Elias delta value must be greater than 0. pValue=" + pValue);
+		}
+		int zeros = Long.SIZE - 1 - Long.numberOfLeadingZeros(pValue);
+		setNextEliasGamma(zeros + 1);
+		setNextLong(pValue & (1L << zeros) - 1, zeros);
+	}
+
+	/**
+	 * Method used to get the number of bytes of an unsigned LEB128 value
+	 *
+	 * @param pValue
+	 *            the value (read as unsigned)
+	 * @return the encoded size in bytes
+	 */
+	public static int getVarLongSize(final long pValue) {
+		return Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(pValue) + 6) / 7);
+	}
+
+	/**
+	 * Method used to check a fixed-point format
+	 *
+	 * @param pIntBits
+	 *            number of integer bits
+	 * @param pFracBits
+	 *            number of fractional bits
+	 * @return the number of bits of the format
+	 */
+	private static int checkFixedPoint(final int pIntBits, final int pFracBits) {
+		if (pIntBits < 0 || pFracBits < 0 || pIntBits + pFracBits < 1 || pIntBits + pFracBits > Long.SIZE) {
+			throw new IllegalArgumentException("Invalid fixed-point format Q" + pIntBits + "." + pFracBits);
+		}
+		return pIntBits + pFracBits;
+	}
+
+	/**
+	 * Method used to convert an IEEE 754 half precision float to a float
+	 *
+	 * @param pHalf
+	 *            the 16 bits of the half
+	 * @return the float value
+	 */
+	static float halfToFloat(final int pHalf) {
+		int sign = (pHalf & 0x8000) << 16;
+		int exponent = pHalf >>> 10 & 0x1F;
+		int mantissa = pHalf & 0x3FF;
+		if (exponent == 0x1F) {
+			// Infinity or NaN
+			return Float.intBitsToFloat(sign | 0x7F800000 | mantissa << 13);
+		}
+		if (exponent == 0) {
+			// Zero or subnormal: mantissa * 2^-24
+			float value = Math.scalb((float) mantissa, -24);
+			return sign == 0 ? value : -value;
+		}
+		return Float.intBitsToFloat(sign | exponent + 112 << 23 | mantissa << 13);
+	}
+
+	/**
+	 * Method used to convert a float to an IEEE 754 half precision float,
+	 * rounded to the nearest value (ties to even)
+	 *
+	 * @param pValue
+	 *            the float value
+	 * @return the 16 bits of the half
+	 */
+	static int floatToHalf(final float pValue) {
+		int bits = Float.floatToRawIntBits(pValue);
+		int sign = bits >>> 16 & 0x8000;
+		int exponent = (bits >>> 23 & 0xFF) - 112;
+		int mantissa = bits & 0x7FFFFF;
+		if (exponent == 0xFF - 112) {
+			// Infinity or NaN (keep a mantissa bit for NaN)
+			return sign | 0x7C00 | (mantissa == 0 ? 0 : 0x200 | mantissa >>> 13);
+		}
+		if (exponent >= 0x1F) {
+			return sign | 0x7C00;
+		}
+		if (exponent <= 0) {
+			if (exponent < -10) {
+				return sign;
+			}
+			// Subnormal half, the result can round up to the smallest normal
+			return sign | roundShift(mantissa | 0x800000, 14 - exponent);
+		}
+		// A carry of the rounding goes to the exponent (up to infinity)
+		return sign | roundShift(exponent << 23 | mantissa, 13);
+	}
+
+	/**
+	 * Method used to shift a value to the right with a rounding to the nearest
+	 * (ties to even)
+	 *
+	 * @param pValue
+	 *            the positive value
+	 * @param pShift
+	 *            the shift (greater than 0)
+	 * @return the rounded value
+	 */
+	private static int roundShift(final int pValue, final int pShift) {
+		int ret = pValue >>> pShift;
+		int rest = pValue & (1 << pShift) - 1;
+		int half = 1 << pShift - 1;
+		if (rest > half || rest == half && (ret & 1) != 0) {
+			ret++;
+		}
+		return ret;
+	}
+
+	/**
+	 * Method used to read the 64 bits starting at any bit index of a byte
+	 * array. Bits after the end of the array are read as 0.
+	 *
+	 * @param pData
+	 *            the byte array
+	 * @param pBitIndex
+	 *            index of the first bit
+	 * @return the bits left aligned in a long
+	 */
+	static long readWindow(final byte[] pData, final int pBitIndex) {
+		int index = pBitIndex / BYTE_SIZE;
+		int shift = pBitIndex % BYTE_SIZE;
+		long window;
+		if (index + Long.BYTES < pData.length) {
+			window = readWord(pData, index) << shift | (pData[index + Long.BYTES] & DEFAULT_VALUE) >>> BYTE_SIZE - shift;
+		} else {
+			window = 0;
+			for (int i = 0; i <= Long.BYTES; i++) {
+				long value = index + i < pData.length ? pData[index + i] & 0xFFL : 0;
+				window = i < Long.BYTES ? window << BYTE_SIZE | value : window << shift | value >>> BYTE_SIZE - shift;
+			}
+		}
+		return window;
+	}
+
+	/**
+	 * Method used to read bits at any index of a byte array. Bits after the
+	 * end of the array are read as 0.
+	 *
+	 * @param pData
+	 *            the byte array
+	 * @param pBitIndex
+	 *            index of the first bit
+	 * @param pLength
+	 *            number of bits to read (between 0 and 64)
+	 * @return the bits right aligned in a long
+	 */
+	static long readBits(final byte[] pData, final int pBitIndex, final int pLength) {
+		return pLength == 0 ? 0 : readWindow(pData, pBitIndex) >>> Long.SIZE - pLength;
+	}
+
+	/**
+	 * Method used to read 8 bytes in big endian.<br>
+	 * The array must contain at least 8 bytes after pIndex.
+	 *
+	 * @param pData
+	 *            the byte array
+	 * @param pIndex
+	 *            index of the first byte
+	 * @return the long value
+	 */
+	static long readWord(final byte[] pData, final int pIndex) {
+		return (pData[pIndex] & 0xFFL) << 56 //
+				| (pData[pIndex + 1] & 0xFFL) << 48 //
+				| (pData[pIndex + 2] & 0xFFL) << 40 //
+				| (pData[pIndex + 3] & 0xFFL) << 32 //
+				| (pData[pIndex + 4] & 0xFFL) << 24 //
+				| (pData[pIndex + 5] & 0xFFL) << 16 //
+				| (pData[pIndex + 6] & 0xFFL) << 8 //
+				| pData[pIndex + 7] & 0xFFL;
+	}
+
+	/**
+	 * Method used to write 8 bytes in big endian.<br>
+	 * The array must contain at least 8 bytes after pIndex.
+	 *
+	 * @param pData
+	 *            the byte array
+	 * @param pIndex
+	 *            index of the first byte
+	 * @param pValue
+	 *            the long value
+	 */
+	static void writeWord(final byte[] pData, final int pIndex, final long pValue) {
+		pData[pIndex] = (byte) (pValue >>> 56);
+		pData[pIndex + 1] = (byte) (pValue >>> 48);
+		pData[pIndex + 2] = (byte) (pValue >>> 40);
+		pData[pIndex + 3] = (byte) (pValue >>> 32);
+		pData[pIndex + 4] = (byte) (pValue >>> 24);
+		pData[pIndex + 5] = (byte) (pValue >>> 16);
+		pData[pIndex + 6] = (byte) (pValue >>> 8);
+		pData[pIndex + 7] = (byte) pValue;
+	}
 }
@@ -1,5 +1,8 @@
 package fr.devnied.bitlib;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 /**
  * Class used to manage String/byte/int converter
  *
@@ -55,6 +58,20 @@ public final class BytesUtils {
 	 */
 	private static final char CHAR_SPACE = (char) 0x20;
 
+	/**
+	 * Binary representation of each byte value: the 8 chars of the byte b
+	 * start at index b * 8
+	 */
+	private static final char[] BINARY = new char[256 * BitUtils.BYTE_SIZE];
+
+	static {
+		for (int i = 0; i < 256; i++) {
+			for (int j = 0; j < BitUtils.BYTE_SIZE; j++) {
+				BINARY[i * BitUtils.BYTE_SIZE + j] = (i & 0x80 >> j) != 0 ? '1' : '0';
+			}
+		}
+	}
+
 	/**
 	 * Method used to convert byte array to int
 	 *
@@ -184,6 +201,7 @@ public final class BytesUtils {
 			if (i < pByte.length) {
 				int sizeMultiplier = pSpace ? 3 : 2;
 				char[] c = new char[(pByte.length - i) * sizeMultiplier];
+				BitMetrics.getDefault().bytesAllocated(c.length * Character.BYTES);
 				byte b;
 				for (int j = 0; i < pByte.length; i++, j++) {
 					b = (byte) ((pByte[i] & LEFT_MASK) >> 4);
@@ -222,9 +240,11 @@ public final class BytesUtils {
 		}
 		sb.delete(j, sb.length());
 		if (sb.length() % 2 != 0) {
+			BitMetrics.getDefault().decodeError();
 			throw new IllegalArgumentException("Hex binary needs to be even-length :" + pData);
 		}
 		byte[] result = new byte[sb.length() / 2];
+		BitMetrics.getDefault().bytesAllocated(result.length);
 		j = 0;
 		for (int i = 0; i < sb.length(); i += 2) {
 			result[j++] = (byte) ((Character.digit(sb.charAt(i), 16) << 4) + Character.digit(sb.charAt(i + 1), 16));
@@ -283,15 +303,204 @@ public final class BytesUtils {
 	public static String toBinary(final byte[] pBytes) {
 		String ret = null;
 		if (pBytes != null && pBytes.length > 0) {
-			StringBuilder build = new StringBuilder(pBytes.length * BitUtils.BYTE_SIZE);
-			for (byte b : pBytes) {
-				for (int i = 7; i >= 0; i--) {
-					build.append((b >> i) & 1);
+			char[] c = new char[pBytes.length * BitUtils.BYTE_SIZE];
+			BitMetrics.getDefault().bytesAllocated(c.length * Character.BYTES);
+			toBinary(pBytes, 0, c.length, 0, c, 0);
+			ret = new String(c);
+		}
+		return ret;
+	}
+
+	/**
+	 * Convert a range of bits to binary String
+	 *
+	 * @param pBytes
+	 *            byte array to convert
+	 * @param pBitOffset
+	 *            index of the first bit
+	 * @param pBitCount
+	 *            number of bits
+	 * @param pGroup
+	 *            number of bits between two spaces, 0 for no space
+	 * @return a binary representation of the bits
+	 */
+	public static String toBinary(final byte[] pBytes, final int pBitOffset, final int pBitCount, final int pGroup) {
+		char[] c = new char[getBinaryLength(pBytes, pBitOffset, pBitCount, pGroup)];
+		BitMetrics.getDefault().bytesAllocated(c.length * Character.BYTES);
+		toBinary(pBytes, pBitOffset, pBitCount, pGroup, c, 0);
+		return new String(c);
+	}
+
+	/**
+	 * Method used to write a range of bits in binary to an Appendable, by
+	 * chunks
+	 *
+	 * @param pBytes
+	 *            byte array to convert
+	 * @param pBitOffset
+	 *            index of the first bit
+	 * @param pBitCount
+	 *            number of bits
+	 * @param pGroup
+	 *            number of bits between two spaces, 0 for no space
+	 * @param pOut
+	 *            the output
+	 * @throws IOException
+	 *             if the output fails
+	 */
+	public static void toBinary(final byte[] pBytes, final int pBitOffset, final int pBitCount, final int pGroup,
+			final Appendable pOut) throws IOException {
+		int length = getBinaryLength(pBytes, pBitOffset, pBitCount, pGroup);
+		char[] chunk = new char[Math.max(Math.min(length, AppendableUtils.CHUNK_SIZE), pGroup)];
+		// Whole groups per chunk, so the spaces stay between the groups
+		int bitsPerChunk = pGroup > 0 ? Math.max(1, (chunk.length + 1) / (pGroup + 1)) * pGroup : chunk.length;
+		for (int done = 0; done < pBitCount; done += bitsPerChunk) {
+			if (done > 0 && pGroup > 0) {
+				pOut.append(CHAR_SPACE);
+			}
+			int bits = Math.min(bitsPerChunk, pBitCount - done);
+			int end = toBinary(pBytes, pBitOffset + done, bits, pGroup, chunk, 0);
+			AppendableUtils.append(pOut, chunk, end);
+		}
+	}
+
+	/**
+	 * Method used to write a range of bits in binary to a char array
+	 *
+	 * @param pBytes
+	 *            byte array to convert
+	 * @param pBitOffset
+	 *            index of the first bit
+	 * @param pBitCount
+	 *            number of bits
+	 * @param pGroup
+	 *            number of bits between two spaces, 0 for no space
+	 * @param pDest
+	 *            the destination array
+	 * @param pDestOffset
+	 *            index of the first char in the destination array
+	 * @return the index after the last char written
+	 */
+	public static int toBinary(final byte[] pBytes, final int pBitOffset, final int pBitCount, final int pGroup,
+			final char[] pDest, final int pDestOffset) {
+		int length = getBinaryLength(pBytes, pBitOffset, pBitCount, pGroup);
+		if (pDest == null || pDestOffset < 0 || pDest.length < (long) pDestOffset + length) {
+			throw new IllegalArgumentException("Destination too small for " + length + " chars");
+		}
+		int position = pDestOffset;
+		int bit = pBitOffset;
+		int end = pBitOffset + pBitCount;
+		while (bit < end) {
+			int from = bit & 7;
+			int count = Math.min(BitUtils.BYTE_SIZE - from, end - bit);
+			int index = (pBytes[bit >>> 3] & 0xFF) * BitUtils.BYTE_SIZE + from;
+			if (pGroup == 0) {
+				System.arraycopy(BINARY, index, pDest, position, count);
+				position += count;
+			} else {
+				for (int i = 0; i < count; i++) {
+					int written = bit - pBitOffset + i;
+					if (written > 0 && written % pGroup == 0) {
+						pDest[position++] = CHAR_SPACE;
+					}
+					pDest[position++] = BINARY[index + i];
 				}
 			}
-			ret = build.toString();
+			bit += count;
 		}
-		return ret;
+		return position;
+	}
+
+	/**
+	 * Method used to check a range of bits and get the length of its binary
+	 * representation
+	 *
+	 * @param pBytes
+	 *            byte array to convert
+	 * @param pBitOffset
+	 *            index of the first bit
+	 * @param pBitCount
+	 *            number of bits
+	 * @param pGroup
+	 *            number of bits between two spaces, 0 for no space
+	 * @return the number of chars
+	 */
+	private static int getBinaryLength(final byte[] pBytes, final int pBitOffset, final int pBitCount, final int pGroup) {
+		if (pBytes == null) {
+			throw new IllegalArgumentException("Parameter 'pBytes' cannot be null");
+		}
+		if (pBitOffset < 0 || pBitCount < 0 || (long) pBytes.length * BitUtils.BYTE_SIZE < (long) pBitOffset + pBitCount) {
+			throw new IllegalArgumentException("Bit count or bit offset not valid");
+		}
+		if (pGroup < 0) {
+			throw new IllegalArgumentException("Group must be positive. pGroup=" + pGroup);
+		}
+		long ret = pBitCount;
+		if (pGroup > 0 && pBitCount > 0) {
+			ret += (pBitCount - 1) / pGroup;
+		}
+		if (ret > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Binary representation too long: " + ret);
+		}
+		return (int) ret;
+	}
+
+	/**
+	 * Method to get bytes from a binary string. The whitespaces are ignored
+	 * and the last byte is padded with 0 on the right if the number of bits is
+	 * not a multiple of 8.
+	 *
+	 * @param pData
+	 *            the '0' and '1' chars to parse
+	 * @return the bytes
+	 */
+	public static byte[] fromBinary(final CharSequence pData) {
+		if (pData == null) {
+			throw new IllegalArgumentException("Argument can't be null");
+		}
+		int length = pData.length();
+		byte[] result = new byte[(length + 7) / BitUtils.BYTE_SIZE];
+		int bits = 0;
+		int current = 0;
+		int i = 0;
+		while (i < length) {
+			if ((bits & 7) == 0 && i + BitUtils.BYTE_SIZE <= length) {
+				// Fast path: 8 digits packed at once
+				int value = 0;
+				int invalid = 0;
+				for (int j = 0; j < BitUtils.BYTE_SIZE; j++) {
+					int digit = pData.charAt(i + j) - '0';
+					invalid |= digit;
+					value = value << 1 | digit & 1;
+				}
+				if ((invalid & ~1) == 0) {
+					result[bits >>> 3] = (byte) value;
+					bits += BitUtils.BYTE_SIZE;
+					i += BitUtils.BYTE_SIZE;
+					continue;
+				}
+			}
+			char c = pData.charAt(i++);
+			if (c == '0' || c == '1') {
+				current = current << 1 | c - '0';
+				if ((++bits & 7) == 0) {
+					result[(bits >>> 3) - 1] = (byte) current;
+					current = 0;
+				}
+			} else if (!Character.isWhitespace(c)) {
+				BitMetrics.getDefault().decodeError();
+				throw new IllegalArgumentException("Invalid binary char '" + c + "' at index " + (i - 1));
+			}
+		}
+		if ((bits & 7) != 0) {
+			result[bits >>> 3] = (byte) (current << BitUtils.BYTE_SIZE - (bits & 7));
+		}
+		int size = (bits + 7) / BitUtils.BYTE_SIZE;
+		if (size != result.length) {
+			result = Arrays.copyOf(result, size);
+		}
+		BitMetrics.getDefault().bytesAllocated(result.length);
+		return result;
 	}
 
 	/**
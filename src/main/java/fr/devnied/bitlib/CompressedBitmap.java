@@ -0,0 +1,1282 @@
+package fr.devnied.bitlib;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Class used to store a set of unsigned 32 bits integers with the Roaring
+ * layout.<br>
+ * The values are grouped by their 16 high bits. Each group is stored in a
+ * container chosen for its size: a sorted array for 4096 values or less, a
+ * bitmap of 65536 bits otherwise, and a list of runs after
+ * {@link #runOptimize()} when it is smaller. The intersection and the union
+ * work container by container and never expand the arrays or the runs into a
+ * bitmap when it is not needed.<br>
+ * Serialized format, readable with a {@link BitUtils}:
+ *
+ * <pre>
+ * containers count                32 bits
+ * for each container:
+ *   key (16 high bits)            16 bits
+ *   type                          8 bits (0 array, 1 bitmap, 2 runs)
+ *   count - 1                     16 bits (values for array and bitmap, runs)
+ *   array:  values                16 bits each
+ *   bitmap: 65536 bits, the bit i is set when the value i is present
+ *   runs:   start, length - 1     16 bits each
+ * </pre>
+ *
+ * @author Millau Julien
+ *
+ */
+public final class CompressedBitmap {
+
+	/**
+	 * Max number of values in an array container
+	 */
+	private static final int ARRAY_MAX = 4096;
+
+	/**
+	 * Number of longs in a bitmap container
+	 */
+	private static final int BITMAP_WORDS = 1024;
+
+	/**
+	 * Size in bytes of a bitmap container
+	 */
+	private static final int BITMAP_BYTES = BITMAP_WORDS * Long.BYTES;
+
+	/**
+	 * Number of values in a container
+	 */
+	private static final int CONTAINER_SIZE = 1 << 16;
+
+	/**
+	 * Size in bits of the serialized header of a container
+	 */
+	private static final int CONTAINER_HEADER_SIZE = 40;
+
+	/**
+	 * Array container type
+	 */
+	private static final int TYPE_ARRAY = 0;
+
+	/**
+	 * Bitmap container type
+	 */
+	private static final int TYPE_BITMAP = 1;
+
+	/**
+	 * Run container type
+	 */
+	private static final int TYPE_RUN = 2;
+
+	/**
+	 * Sorted keys of the containers
+	 */
+	private char[] keys = new char[4];
+
+	/**
+	 * Containers
+	 */
+	private Container[] containers = new Container[4];
+
+	/**
+	 * Number of containers
+	 */
+	private int size;
+
+	/**
+	 * Method used to create a bitmap with values
+	 *
+	 * @param pValues
+	 *            the values
+	 * @return the bitmap
+	 */
+	public static CompressedBitmap of(final int... pValues) {
+		if (pValues == null) {
+			throw new IllegalArgumentException("Parameter 'pValues' cannot be null");
+		}
+		CompressedBitmap ret = new CompressedBitmap();
+		for (int value : pValues) {
+			ret.add(value);
+		}
+		return ret;
+	}
+
+	/**
+	 * Method used to add a value
+	 *
+	 * @param pValue
+	 *            the value (unsigned)
+	 */
+	public void add(final int pValue) {
+		int key = pValue >>> Character.SIZE;
+		int index = getIndex(key);
+		if (index < 0) {
+			index = -index - 1;
+			insert(index, key, new ArrayContainer(new char[4], 0));
+		}
+		containers[index] = containers[index].add(pValue & 0xFFFF);
+	}
+
+	/**
+	 * Method used to test a value
+	 *
+	 * @param pValue
+	 *            the value (unsigned)
+	 * @return true if the value is in the bitmap
+	 */
+	public boolean contains(final int pValue) {
+		int index = getIndex(pValue >>> Character.SIZE);
+		return index >= 0 && containers[index].contains(pValue & 0xFFFF);
+	}
+
+	/**
+	 * Method used to get the number of values
+	 *
+	 * @return the number of values
+	 */
+	public long cardinality() {
+		long ret = 0;
+		for (int i = 0; i < size; i++) {
+			ret += containers[i].getCardinality();
+		}
+		return ret;
+	}
+
+	/**
+	 * Method used to test if the bitmap is empty
+	 *
+	 * @return true if the bitmap has no value
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Method used to compute the intersection with an other bitmap
+	 *
+	 * @param pOther
+	 *            the other bitmap
+	 * @return a new bitmap with the values present in both bitmaps
+	 */
+	public CompressedBitmap and(final CompressedBitmap pOther) {
+		if (pOther == null) {
+			throw new IllegalArgumentException("Parameter 'pOther' cannot be null");
+		}
+		CompressedBitmap ret = new CompressedBitmap();
+		int i = 0;
+		int j = 0;
+		while (i < size && j < pOther.size) {
+			if (keys[i] < pOther.keys[j]) {
+				i++;
+			} else if (keys[i] > pOther.keys[j]) {
+				j++;
+			} else {
+				Container container = and(containers[i], pOther.containers[j]);
+				if (container != null) {
+					ret.insert(ret.size, keys[i], container);
+				}
+				i++;
+				j++;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Method used to compute the union with an other bitmap
+	 *
+	 * @param pOther
+	 *            the other bitmap
+	 * @return a new bitmap with the values present in one of the bitmaps
+	 */
+	public CompressedBitmap or(final CompressedBitmap pOther) {
+		if (pOther == null) {
+			throw new IllegalArgumentException("Parameter 'pOther' cannot be null");
+		}
+		CompressedBitmap ret = new CompressedBitmap();
+		int i = 0;
+		int j = 0;
+		while (i < size || j < pOther.size) {
+			if (j == pOther.size || i < size && keys[i] < pOther.keys[j]) {
+				ret.insert(ret.size, keys[i], containers[i].copy());
+				i++;
+			} else if (i == size || keys[i] > pOther.keys[j]) {
+				ret.insert(ret.size, pOther.keys[j], pOther.containers[j].copy());
+				j++;
+			} else {
+				ret.insert(ret.size, keys[i], or(containers[i], pOther.containers[j]));
+				i++;
+				j++;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Method used to convert each container in the smallest type, using runs
+	 * when the values are contiguous
+	 *
+	 * @return true if the bitmap contains run containers
+	 */
+	public boolean runOptimize() {
+		boolean ret = false;
+		for (int i = 0; i < size; i++) {
+			containers[i] = containers[i].optimize();
+			ret |= containers[i] instanceof RunContainer;
+		}
+		return ret;
+	}
+
+	/**
+	 * Method used to get the values in an array
+	 *
+	 * @return the values sorted as unsigned integers
+	 */
+	public int[] toArray() {
+		long cardinality = cardinality();
+		if (cardinality > Integer.MAX_VALUE - 8) {
+			throw new IllegalStateException("Too many values for an array: " + cardinality);
+		}
+		int[] ret = new int[(int) cardinality];
+		int offset = 0;
+		for (int i = 0; i < size; i++) {
+			offset = containers[i].fill(ret, offset, keys[i] << Character.SIZE);
+		}
+		return ret;
+	}
+
+	/**
+	 * Method used to iterate over the values
+	 *
+	 * @return an iterator over the values sorted as unsigned integers
+	 */
+	public PrimitiveIterator.OfInt iterator() {
+		return new PrimitiveIterator.OfInt() {
+
+			/**
+			 * Index of the current container
+			 */
+			private int index;
+
+			/**
+			 * Next low 16 bits in the current container, -1 at the end
+			 */
+			private int next = size == 0 ? -1 : containers[0].next(0);
+
+			@Override
+			public boolean hasNext() {
+				return next >= 0;
+			}
+
+			@Override
+			public int nextInt() {
+				if (next < 0) {
+					throw new NoSuchElementException();
+				}
+				int ret = keys[index] << Character.SIZE | next;
+				next = containers[index].next(next + 1);
+				if (next < 0 && ++index < size) {
+					next = containers[index].next(0);
+				}
+				return ret;
+			}
+		};
+	}
+
+	/**
+	 * Method used to get the size of the serialized bitmap
+	 *
+	 * @return the number of bits written by {@link #write(BitUtils)}
+	 */
+	public long getSerializedBits() {
+		long ret = Integer.SIZE;
+		for (int i = 0; i < size; i++) {
+			ret += CONTAINER_HEADER_SIZE + containers[i].getDataBits();
+		}
+		return ret;
+	}
+
+	/**
+	 * Method used to serialize the bitmap
+	 *
+	 * @param pOut
+	 *            the bit utils to write to
+	 */
+	public void write(final BitUtils pOut) {
+		pOut.setNextLong(size, Integer.SIZE);
+		for (int i = 0; i < size; i++) {
+			pOut.setNextInteger(keys[i], Character.SIZE);
+			pOut.setNextInteger(containers[i].getType(), BitUtils.BYTE_SIZE);
+			pOut.setNextInteger(containers[i].getCount() - 1, Character.SIZE);
+			containers[i].write(pOut);
+		}
+	}
+
+	/**
+	 * Method used to serialize the bitmap in a new array
+	 *
+	 * @return the serialized bitmap
+	 */
+	public byte[] toByteArray() {
+		long bits = getSerializedBits();
+		if (bits > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Bitmap too large for an array: " + bits + " bits");
+		}
+		BitUtils bit = new BitUtils((int) bits);
+		write(bit);
+		return bit.getByteTab();
+	}
+
+	/**
+	 * Method used to read a serialized bitmap
+	 *
+	 * @param pIn
+	 *            the bit utils to read from
+	 * @return the bitmap
+	 */
+	public static CompressedBitmap read(final BitUtils pIn) {
+		long count = pIn.getNextLong(Integer.SIZE);
+		if (count > CONTAINER_SIZE) {
+			throw new IllegalArgumentException("Invalid number of containers: " + count);
+		}
+		CompressedBitmap ret = new CompressedBitmap();
+		int previous = -1;
+		for (int i = 0; i < count; i++) {
+			int key = pIn.getNextInteger(Character.SIZE);
+			if (key <= previous) {
+				throw new IllegalArgumentException("Container keys not sorted: " + key);
+			}
+			previous = key;
+			int type = pIn.getNextInteger(BitUtils.BYTE_SIZE);
+			if (type > TYPE_RUN) {
+				throw new IllegalArgumentException("Invalid container type: " + type);
+			}
+			int length = pIn.getNextInteger(Character.SIZE) + 1;
+			Container container;
+			if (type == TYPE_ARRAY) {
+				container = ArrayContainer.read(pIn, length);
+			} else if (type == TYPE_BITMAP) {
+				container = BitmapContainer.read(pIn, length);
+			} else {
+				container = RunContainer.read(pIn, length);
+			}
+			ret.insert(ret.size, key, container);
+		}
+		return ret;
+	}
+
+	/**
+	 * Method used to find a container
+	 *
+	 * @param pKey
+	 *            the key of the container
+	 * @return the index of the container or (-(insertion point) - 1)
+	 */
+	private int getIndex(final int pKey) {
+		// Values are often added in order: check the last container first
+		if (size > 0 && keys[size - 1] == pKey) {
+			return size - 1;
+		}
+		return Arrays.binarySearch(keys, 0, size, (char) pKey);
+	}
+
+	/**
+	 * Method used to insert a container
+	 *
+	 * @param pIndex
+	 *            index of the container
+	 * @param pKey
+	 *            key of the container
+	 * @param pContainer
+	 *            the container
+	 */
+	private void insert(final int pIndex, final int pKey, final Container pContainer) {
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, size * 2);
+			containers = Arrays.copyOf(containers, size * 2);
+		}
+		System.arraycopy(keys, pIndex, keys, pIndex + 1, size - pIndex);
+		System.arraycopy(containers, pIndex, containers, pIndex + 1, size - pIndex);
+		keys[pIndex] = (char) pKey;
+		containers[pIndex] = pContainer;
+		size++;
+	}
+
+	/**
+	 * Method used to intersect two containers
+	 *
+	 * @param pFirst
+	 *            first container
+	 * @param pSecond
+	 *            second container
+	 * @return the intersection or null if it is empty
+	 */
+	private static Container and(final Container pFirst, final Container pSecond) {
+		Container ret;
+		if (pFirst instanceof ArrayContainer) {
+			ret = ((ArrayContainer) pFirst).and(pSecond);
+		} else if (pSecond instanceof ArrayContainer) {
+			ret = ((ArrayContainer) pSecond).and(pFirst);
+		} else if (pFirst instanceof RunContainer && pSecond instanceof RunContainer) {
+			ret = ((RunContainer) pFirst).and((RunContainer) pSecond);
+		} else {
+			BitmapContainer bitmap = pFirst.toBitmap();
+			bitmap.and(pSecond instanceof BitmapContainer ? (BitmapContainer) pSecond : pSecond.toBitmap());
+			ret = bitmap.getCardinality() <= ARRAY_MAX ? bitmap.toArrayContainer() : bitmap;
+		}
+		return ret.getCardinality() == 0 ? null : ret;
+	}
+
+	/**
+	 * Method used to merge two containers
+	 *
+	 * @param pFirst
+	 *            first container
+	 * @param pSecond
+	 *            second container
+	 * @return the union
+	 */
+	private static Container or(final Container pFirst, final Container pSecond) {
+		if (pFirst instanceof ArrayContainer && pSecond instanceof ArrayContainer) {
+			return ((ArrayContainer) pFirst).or((ArrayContainer) pSecond);
+		}
+		if (pFirst instanceof RunContainer && pSecond instanceof RunContainer) {
+			return ((RunContainer) pFirst).or((RunContainer) pSecond);
+		}
+		BitmapContainer bitmap = pFirst.toBitmap();
+		pSecond.setIn(bitmap);
+		bitmap.computeCardinality();
+		return bitmap.getCardinality() <= ARRAY_MAX ? bitmap.toArrayContainer() : bitmap;
+	}
+
+	/**
+	 * Values of a container (16 low bits)
+	 */
+	private abstract static class Container {
+
+		/**
+		 * Method used to add a value
+		 *
+		 * @param pValue
+		 *            the value
+		 * @return the container storing the values
+		 */
+		abstract Container add(int pValue);
+
+		/**
+		 * Method used to test a value
+		 *
+		 * @param pValue
+		 *            the value
+		 * @return true if the value is present
+		 */
+		abstract boolean contains(int pValue);
+
+		/**
+		 * Method used to get the next value
+		 *
+		 * @param pFrom
+		 *            the first value to test
+		 * @return the first value greater or equal or -1
+		 */
+		abstract int next(int pFrom);
+
+		/**
+		 * Method used to get the number of values
+		 *
+		 * @return the number of values
+		 */
+		abstract int getCardinality();
+
+		/**
+		 * Method used to count the runs of contiguous values
+		 *
+		 * @return the number of runs
+		 */
+		abstract int countRuns();
+
+		/**
+		 * Method used to set the values in a bitmap container, without updating
+		 * its cardinality
+		 *
+		 * @param pBitmap
+		 *            the bitmap container
+		 */
+		abstract void setIn(BitmapContainer pBitmap);
+
+		/**
+		 * Method used to copy the values in an array
+		 *
+		 * @param pValues
+		 *            the array
+		 * @param pOffset
+		 *            index of the first value
+		 * @param pHigh
+		 *            high bits of the values
+		 * @return the index after the last value
+		 */
+		abstract int fill(int[] pValues, int pOffset, int pHigh);
+
+		/**
+		 * Method used to copy the container
+		 *
+		 * @return the copy
+		 */
+		abstract Container copy();
+
+		/**
+		 * Method used to get the serialized type
+		 *
+		 * @return the type
+		 */
+		abstract int getType();
+
+		/**
+		 * Method used to get the serialized count
+		 *
+		 * @return the number of values or runs
+		 */
+		abstract int getCount();
+
+		/**
+		 * Method used to get the size of the serialized data
+		 *
+		 * @return the number of bits
+		 */
+		abstract int getDataBits();
+
+		/**
+		 * Method used to serialize the data
+		 *
+		 * @param pOut
+		 *            the bit utils to write to
+		 */
+		abstract void write(BitUtils pOut);
+
+		/**
+		 * Method used to convert the container in a bitmap
+		 *
+		 * @return a new bitmap container
+		 */
+		BitmapContainer toBitmap() {
+			BitmapContainer ret = new BitmapContainer(new long[BITMAP_WORDS], 0);
+			setIn(ret);
+			ret.computeCardinality();
+			return ret;
+		}
+
+		/**
+		 * Method used to convert the container in an array
+		 *
+		 * @return a new array container
+		 */
+		ArrayContainer toArrayContainer() {
+			int cardinality = getCardinality();
+			char[] values = new char[cardinality];
+			int index = 0;
+			for (int value = next(0); value >= 0; value = next(value + 1)) {
+				values[index++] = (char) value;
+			}
+			return new ArrayContainer(values, cardinality);
+		}
+
+		/**
+		 * Method used to convert the container in runs
+		 *
+		 * @param pRuns
+		 *            number of runs
+		 * @return a new run container
+		 */
+		RunContainer toRuns(final int pRuns) {
+			char[] runs = new char[pRuns * 2];
+			int index = -1;
+			int end = -2;
+			for (int value = next(0); value >= 0; value = next(value + 1)) {
+				if (value != end + 1) {
+					index++;
+					runs[index * 2] = (char) value;
+				}
+				runs[index * 2 + 1] = (char) (value - runs[index * 2]);
+				end = value;
+			}
+			return new RunContainer(runs, pRuns);
+		}
+
+		/**
+		 * Method used to convert the container in its smallest type
+		 *
+		 * @return the smallest container
+		 */
+		Container optimize() {
+			int cardinality = getCardinality();
+			int runs = countRuns();
+			int arrayBytes = cardinality <= ARRAY_MAX ? cardinality * Character.BYTES : Integer.MAX_VALUE;
+			int runBytes = runs * 2 * Character.BYTES;
+			if (runBytes < Math.min(arrayBytes, BITMAP_BYTES)) {
+				return this instanceof RunContainer ? this : toRuns(runs);
+			}
+			if (arrayBytes <= BITMAP_BYTES) {
+				return this instanceof ArrayContainer ? this : toArrayContainer();
+			}
+			return this instanceof BitmapContainer ? this : toBitmap();
+		}
+	}
+
+	/**
+	 * Sorted array of at most 4096 values
+	 */
+	private static final class ArrayContainer extends Container {
+
+		/**
+		 * Sorted values
+		 */
+		private char[] values;
+
+		/**
+		 * Number of values
+		 */
+		private int cardinality;
+
+		/**
+		 * Constructor of the class
+		 *
+		 * @param pValues
+		 *            sorted values
+		 * @param pCardinality
+		 *            number of values
+		 */
+		ArrayContainer(final char[] pValues, final int pCardinality) {
+			values = pValues;
+			cardinality = pCardinality;
+		}
+
+		/**
+		 * Method used to read an array container
+		 *
+		 * @param pIn
+		 *            the bit utils to read from
+		 * @param pCount
+		 *            number of values
+		 * @return the container
+		 */
+		static ArrayContainer read(final BitUtils pIn, final int pCount) {
+			if (pCount > ARRAY_MAX) {
+				throw new IllegalArgumentException("Too many values in an array container: " + pCount);
+			}
+			char[] values = new char[pCount];
+			int previous = -1;
+			for (int i = 0; i < pCount; i++) {
+				int value = pIn.getNextInteger(Character.SIZE);
+				if (value <= previous) {
+					throw new IllegalArgumentException("Array container not sorted: " + value);
+				}
+				values[i] = (char) value;
+				previous = value;
+			}
+			return new ArrayContainer(values, pCount);
+		}
+
+		@Override
+		Container add(final int pValue) {
+			int index = Arrays.binarySearch(values, 0, cardinality, (char) pValue);
+			if (index >= 0) {
+				return this;
+			}
+			if (cardinality == ARRAY_MAX) {
+				BitmapContainer ret = toBitmap();
+				ret.add(pValue);
+				return ret;
+			}
+			index = -index - 1;
+			if (cardinality == values.length) {
+				values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, cardinality * 2)));
+			}
+			System.arraycopy(values, index, values, index + 1, cardinality - index);
+			values[index] = (char) pValue;
+			cardinality++;
+			return this;
+		}
+
+		@Override
+		boolean contains(final int pValue) {
+			return Arrays.binarySearch(values, 0, cardinality, (char) pValue) >= 0;
+		}
+
+		@Override
+		int next(final int pFrom) {
+			if (pFrom >= CONTAINER_SIZE) {
+				return -1;
+			}
+			int index = Arrays.binarySearch(values, 0, cardinality, (char) pFrom);
+			if (index >= 0) {
+				return pFrom;
+			}
+			index = -index - 1;
+			return index < cardinality ? values[index] : -1;
+		}
+
+		@Override
+		int getCardinality() {
+			return cardinality;
+		}
+
+		@Override
+		int countRuns() {
+			int ret = 0;
+			for (int i = 0; i < cardinality; i++) {
+				if (i == 0 || values[i] != values[i - 1] + 1) {
+					ret++;
+				}
+			}
+			return ret;
+		}
+
+		@Override
+		void setIn(final BitmapContainer pBitmap) {
+			for (int i = 0; i < cardinality; i++) {
+				pBitmap.words[values[i] >>> 6] |= Long.MIN_VALUE >>> values[i];
+			}
+		}
+
+		@Override
+		int fill(final int[] pValues, final int pOffset, final int pHigh) {
+			for (int i = 0; i < cardinality; i++) {
+				pValues[pOffset + i] = pHigh | values[i];
+			}
+			return pOffset + cardinality;
+		}
+
+		@Override
+		Container copy() {
+			return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+		}
+
+		@Override
+		int getType() {
+			return TYPE_ARRAY;
+		}
+
+		@Override
+		int getCount() {
+			return cardinality;
+		}
+
+		@Override
+		int getDataBits() {
+			return cardinality * Character.SIZE;
+		}
+
+		@Override
+		void write(final BitUtils pOut) {
+			for (int i = 0; i < cardinality; i++) {
+				pOut.setNextInteger(values[i], Character.SIZE);
+			}
+		}
+
+		/**
+		 * Method used to intersect with an other container
+		 *
+		 * @param pOther
+		 *            the other container
+		 * @return the intersection
+		 */
+		ArrayContainer and(final Container pOther) {
+			char[] ret = new char[cardinality];
+			int count = 0;
+			if (pOther instanceof ArrayContainer) {
+				ArrayContainer other = (ArrayContainer) pOther;
+				int i = 0;
+				int j = 0;
+				while (i < cardinality && j < other.cardinality) {
+					if (values[i] < other.values[j]) {
+						i++;
+					} else if (values[i] > other.values[j]) {
+						j++;
+					} else {
+						ret[count++] = values[i];
+						i++;
+						j++;
+					}
+				}
+			} else {
+				for (int i = 0; i < cardinality; i++) {
+					if (pOther.contains(values[i])) {
+						ret[count++] = values[i];
+					}
+				}
+			}
+			return new ArrayContainer(ret, count);
+		}
+
+		/**
+		 * Method used to merge with an other array container
+		 *
+		 * @param pOther
+		 *            the other container
+		 * @return the union
+		 */
+		Container or(final ArrayContainer pOther) {
+			if (cardinality + pOther.cardinality > ARRAY_MAX) {
+				BitmapContainer ret = toBitmap();
+				pOther.setIn(ret);
+				ret.computeCardinality();
+				return ret.getCardinality() <= ARRAY_MAX ? ret.toArrayContainer() : ret;
+			}
+			char[] ret = new char[cardinality + pOther.cardinality];
+			int count = 0;
+			int i = 0;
+			int j = 0;
+			while (i < cardinality || j < pOther.cardinality) {
+				if (j == pOther.cardinality || i < cardinality && values[i] < pOther.values[j]) {
+					ret[count++] = values[i++];
+				} else if (i == cardinality || values[i] > pOther.values[j]) {
+					ret[count++] = pOther.values[j++];
+				} else {
+					ret[count++] = values[i];
+					i++;
+					j++;
+				}
+			}
+			return new ArrayContainer(ret, count);
+		}
+	}
+
+	/**
+	 * Bitmap of 65536 bits, the most significant bit of the first word is the
+	 * value 0
+	 */
+	private static final class BitmapContainer extends Container {
+
+		/**
+		 * Words of the bitmap
+		 */
+		private final long[] words;
+
+		/**
+		 * Number of values
+		 */
+		private int cardinality;
+
+		/**
+		 * Constructor of the class
+		 *
+		 * @param pWords
+		 *            words of the bitmap
+		 * @param pCardinality
+		 *            number of values
+		 */
+		BitmapContainer(final long[] pWords, final int pCardinality) {
+			words = pWords;
+			cardinality = pCardinality;
+		}
+
+		/**
+		 * Method used to read a bitmap container
+		 *
+		 * @param pIn
+		 *            the bit utils to read from
+		 * @param pCount
+		 *            number of values
+		 * @return the container
+		 */
+		static BitmapContainer read(final BitUtils pIn, final int pCount) {
+			BitmapContainer ret = new BitmapContainer(new long[BITMAP_WORDS], 0);
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				ret.words[i] = pIn.getNextLong(Long.SIZE);
+			}
+			ret.computeCardinality();
+			if (ret.cardinality != pCount) {
+				throw new IllegalArgumentException("Invalid bitmap container cardinality: " + pCount + " expected " + ret.cardinality);
+			}
+			return ret;
+		}
+
+		@Override
+		Container add(final int pValue) {
+			long bit = Long.MIN_VALUE >>> pValue;
+			if ((words[pValue >>> 6] & bit) == 0) {
+				words[pValue >>> 6] |= bit;
+				cardinality++;
+			}
+			return this;
+		}
+
+		@Override
+		boolean contains(final int pValue) {
+			return (words[pValue >>> 6] & Long.MIN_VALUE >>> pValue) != 0;
+		}
+
+		@Override
+		int next(final int pFrom) {
+			if (pFrom >= CONTAINER_SIZE) {
+				return -1;
+			}
+			int index = pFrom >>> 6;
+			long word = words[index] & -1L >>> pFrom;
+			while (word == 0) {
+				if (++index == BITMAP_WORDS) {
+					return -1;
+				}
+				word = words[index];
+			}
+			return index * Long.SIZE + Long.numberOfLeadingZeros(word);
+		}
+
+		@Override
+		int getCardinality() {
+			return cardinality;
+		}
+
+		@Override
+		int countRuns() {
+			int ret = 0;
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				long next = i + 1 < BITMAP_WORDS ? words[i + 1] >>> 63 : 0;
+				// Last bit of each run: set and followed by a clear bit
+				ret += Long.bitCount(words[i] & ~(words[i] << 1 | next));
+			}
+			return ret;
+		}
+
+		@Override
+		void setIn(final BitmapContainer pBitmap) {
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				pBitmap.words[i] |= words[i];
+			}
+		}
+
+		@Override
+		int fill(final int[] pValues, final int pOffset, final int pHigh) {
+			int offset = pOffset;
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				long word = words[i];
+				while (word != 0) {
+					int bit = Long.numberOfLeadingZeros(word);
+					pValues[offset++] = pHigh | i * Long.SIZE + bit;
+					word &= ~(Long.MIN_VALUE >>> bit);
+				}
+			}
+			return offset;
+		}
+
+		@Override
+		Container copy() {
+			return new BitmapContainer(words.clone(), cardinality);
+		}
+
+		@Override
+		BitmapContainer toBitmap() {
+			return new BitmapContainer(words.clone(), cardinality);
+		}
+
+		@Override
+		int getType() {
+			return TYPE_BITMAP;
+		}
+
+		@Override
+		int getCount() {
+			return cardinality;
+		}
+
+		@Override
+		int getDataBits() {
+			return CONTAINER_SIZE;
+		}
+
+		@Override
+		void write(final BitUtils pOut) {
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				pOut.setNextLong(words[i], Long.SIZE);
+			}
+		}
+
+		/**
+		 * Method used to keep only the values of an other bitmap
+		 *
+		 * @param pOther
+		 *            the other bitmap
+		 */
+		void and(final BitmapContainer pOther) {
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				words[i] &= pOther.words[i];
+			}
+			computeCardinality();
+		}
+
+		/**
+		 * Method used to set a range of values
+		 *
+		 * @param pStart
+		 *            first value
+		 * @param pEnd
+		 *            last value (inclusive)
+		 */
+		void setRange(final int pStart, final int pEnd) {
+			int first = pStart >>> 6;
+			int last = pEnd >>> 6;
+			long startMask = -1L >>> pStart;
+			long endMask = -1L << 63 - (pEnd & 63);
+			if (first == last) {
+				words[first] |= startMask & endMask;
+			} else {
+				words[first] |= startMask;
+				Arrays.fill(words, first + 1, last, -1L);
+				words[last] |= endMask;
+			}
+		}
+
+		/**
+		 * Method used to compute the number of values
+		 */
+		void computeCardinality() {
+			int ret = 0;
+			for (long word : words) {
+				ret += Long.bitCount(word);
+			}
+			cardinality = ret;
+		}
+	}
+
+	/**
+	 * Sorted runs of contiguous values
+	 */
+	private static final class RunContainer extends Container {
+
+		/**
+		 * Start and length - 1 of each run
+		 */
+		private final char[] runs;
+
+		/**
+		 * Number of runs
+		 */
+		private final int count;
+
+		/**
+		 * Number of values
+		 */
+		private final int cardinality;
+
+		/**
+		 * Constructor of the class
+		 *
+		 * @param pRuns
+		 *            start and length - 1 of each run
+		 * @param pCount
+		 *            number of runs
+		 */
+		RunContainer(final char[] pRuns, final int pCount) {
+			runs = pRuns;
+			count = pCount;
+			int total = 0;
+			for (int i = 0; i < pCount; i++) {
+				total += runs[i * 2 + 1] + 1;
+			}
+			cardinality = total;
+		}
+
+		/**
+		 * Method used to read a run container
+		 *
+		 * @param pIn
+		 *            the bit utils to read from
+		 * @param pCount
+		 *            number of runs
+		 * @return the container
+		 */
+		static RunContainer read(final BitUtils pIn, final int pCount) {
+			char[] runs = new char[pCount * 2];
+			int previous = -1;
+			for (int i = 0; i < pCount; i++) {
+				int start = pIn.getNextInteger(Character.SIZE);
+				int length = pIn.getNextInteger(Character.SIZE);
+				if (start <= previous || start + length >= CONTAINER_SIZE) {
+					throw new IllegalArgumentException("Invalid run: start=" + start + " length=" + (length + 1));
+				}
+				runs[i * 2] = (char) start;
+				runs[i * 2 + 1] = (char) length;
+				previous = start + length;
+			}
+			return new RunContainer(runs, pCount);
+		}
+
+		@Override
+		Container add(final int pValue) {
+			if (contains(pValue)) {
+				return this;
+			}
+			Container ret = cardinality < ARRAY_MAX ? toArrayContainer() : toBitmap();
+			return ret.add(pValue);
+		}
+
+		@Override
+		boolean contains(final int pValue) {
+			int index = floor(pValue);
+			return index >= 0 && pValue <= runs[index * 2] + runs[index * 2 + 1];
+		}
+
+		@Override
+		int next(final int pFrom) {
+			if (pFrom >= CONTAINER_SIZE) {
+				return -1;
+			}
+			int index = floor(pFrom);
+			if (index >= 0 && pFrom <= runs[index * 2] + runs[index * 2 + 1]) {
+				return pFrom;
+			}
+			index++;
+			return index < count ? runs[index * 2] : -1;
+		}
+
+		@Override
+		int getCardinality() {
+			return cardinality;
+		}
+
+		@Override
+		int countRuns() {
+			return count;
+		}
+
+		@Override
+		void setIn(final BitmapContainer pBitmap) {
+			for (int i = 0; i < count; i++) {
+				pBitmap.setRange(runs[i * 2], runs[i * 2] + runs[i * 2 + 1]);
+			}
+		}
+
+		@Override
+		int fill(final int[] pValues, final int pOffset, final int pHigh) {
+			int offset = pOffset;
+			for (int i = 0; i < count; i++) {
+				int end = runs[i * 2] + runs[i * 2 + 1];
+				for (int value = runs[i * 2]; value <= end; value++) {
+					pValues[offset++] = pHigh | value;
+				}
+			}
+			return offset;
+		}
+
+		@Override
+		Container copy() {
+			return new RunContainer(Arrays.copyOf(runs, count * 2), count);
+		}
+
+		@Override
+		int getType() {
+			return TYPE_RUN;
+		}
+
+		@Override
+		int getCount() {
+			return count;
+		}
+
+		@Override
+		int getDataBits() {
+			return count * 2 * Character.SIZE;
+		}
+
+		@Override
+		void write(final BitUtils pOut) {
+			for (int i = 0; i < count * 2; i++) {
+				pOut.setNextInteger(runs[i], Character.SIZE);
+			}
+		}
+
+		/**
+		 * Method used to find the last run starting before a value
+		 *
+		 * @param pValue
+		 *            the value
+		 * @return the index of the run or -1
+		 */
+		private int floor(final int pValue) {
+			int low = 0;
+			int high = count - 1;
+			while (low <= high) {
+				int middle = low + high >>> 1;
+				if (runs[middle * 2] <= pValue) {
+					low = middle + 1;
+				} else {
+					high = middle - 1;
+				}
+			}
+			return high;
+		}
+
+		/**
+		 * Method used to intersect with an other run container
+		 *
+		 * @param pOther
+		 *            the other container
+		 * @return the intersection
+		 */
+		RunContainer and(final RunContainer pOther) {
+			char[] ret = new char[(count + pOther.count) * 2];
+			int size = 0;
+			int i = 0;
+			int j = 0;
+			while (i < count && j < pOther.count) {
+				int end = runs[i * 2] + runs[i * 2 + 1];
+				int otherEnd = pOther.runs[j * 2] + pOther.runs[j * 2 + 1];
+				int start = Math.max(runs[i * 2], pOther.runs[j * 2]);
+				int last = Math.min(end, otherEnd);
+				if (start <= last) {
+					ret[size * 2] = (char) start;
+					ret[size * 2 + 1] = (char) (last - start);
+					size++;
+				}
+				if (end < otherEnd) {
+					i++;
+				} else {
+					j++;
+				}
+			}
+			return new RunContainer(ret, size);
+		}
+
+		/**
+		 * Method used to merge with an other run container
+		 *
+		 * @param pOther
+		 *            the other container
+		 * @return the union
+		 */
+		RunContainer or(final RunContainer pOther) {
+			char[] ret = new char[(count + pOther.count) * 2];
+			int size = 0;
+			int end = -2;
+			int i = 0;
+			int j = 0;
+			while (i < count || j < pOther.count) {
+				char[] source;
+				int index;
+				if (j == pOther.count || i < count && runs[i * 2] <= pOther.runs[j * 2]) {
+					source = runs;
+					index = i++;
+				} else {
+					source = pOther.runs;
+					index = j++;
+				}
+				int start = source[index * 2];
+				int last = start + source[index * 2 + 1];
+				if (start <= end + 1) {
+					// Overlapping or adjacent: extend the current run
+					end = Math.max(end, last);
+					ret[size * 2 - 1] = (char) (end - ret[size * 2 - 2]);
+				} else {
+					ret[size * 2] = (char) start;
+					ret[size * 2 + 1] = (char) (last - start);
+					size++;
+					end = last;
+				}
+			}
+			return new RunContainer(ret, size);
+		}
+	}
+}
@@ -0,0 +1,466 @@
+package fr.devnied.bitlib;
+
+/**
+ * Class used to compute CRC with any width up to 64 bits.<br>
+ * The algorithm is described with the parameters of the CRC catalogue
+ * (width, poly, init, refin, refout, xorout). The data are processed 8 bytes
+ * at a time with slice-by-8 tables.<br>
+ * The computation is incremental: the state of the CRC is a long register
+ * returned by {@link #getInitialRegister()} and the update methods, and
+ * converted to the CRC value with {@link #getValue(long)}.
+ *
+ * <pre>
+ * long register = Crc.CRC32.getInitialRegister();
+ * register = Crc.CRC32.update(register, header, 0, header.length);
+ * register = Crc.CRC32.update(register, body, 0, body.length);
+ * long crc = Crc.CRC32.getValue(register);
+ * </pre>
+ *
+ * Bit ranges are read in the BitUtils order: each group of 8 bits is processed
+ * like a byte whose most significant bit is the first bit of the group, and a
+ * last group of less than 8 bits is processed like a short byte.
+ *
+ * @author Millau Julien
+ *
+ */
+public final class Crc {
+
+	/**
+	 * CRC-16 of ISO/IEC 14443-3 type A (CRC_A)
+	 */
+	public static final Crc CRC16_ISO14443_A = new Crc(16, 0x1021, 0xC6C6, true, true, 0);
+
+	/**
+	 * CRC-16 of ISO/IEC 14443-3 type B (CRC_B), also known as X-25
+	 */
+	public static final Crc CRC16_ISO14443_B = new Crc(16, 0x1021, 0xFFFF, true, true, 0xFFFF);
+
+	/**
+	 * CRC-16/CCITT-FALSE
+	 */
+	public static final Crc CRC16_CCITT_FALSE = new Crc(16, 0x1021, 0xFFFF, false, false, 0);
+
+	/**
+	 * CRC-32 (Ethernet, zip)
+	 */
+	public static final Crc CRC32 = new Crc(32, 0x04C11DB7, 0xFFFFFFFFL, true, true, 0xFFFFFFFFL);
+
+	/**
+	 * CRC-32C (Castagnoli)
+	 */
+	public static final Crc CRC32C = new Crc(32, 0x1EDC6F41, 0xFFFFFFFFL, true, true, 0xFFFFFFFFL);
+
+	/**
+	 * Number of slice tables
+	 */
+	private static final int SLICES = 8;
+
+	/**
+	 * Width of the CRC in bits
+	 */
+	private final int width;
+
+	/**
+	 * Input reflected
+	 */
+	private final boolean refIn;
+
+	/**
+	 * Output reflected
+	 */
+	private final boolean refOut;
+
+	/**
+	 * Value xored with the register to get the CRC
+	 */
+	private final long xorOut;
+
+	/**
+	 * Mask of the CRC value
+	 */
+	private final long mask;
+
+	/**
+	 * Polynomial in the register representation
+	 */
+	private final long poly;
+
+	/**
+	 * Initial register
+	 */
+	private final long initialRegister;
+
+	/**
+	 * Slice-by-8 tables, table[0] processes one byte
+	 */
+	private final long[][] tables = new long[SLICES][256];
+
+	/**
+	 * Operators adding 2^i zero bytes, created by the first combine
+	 */
+	private volatile long[][] zeroOperators;
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pWidth
+	 *            width of the CRC in bits (1 to 64)
+	 * @param pPoly
+	 *            polynomial without the highest bit
+	 * @param pInit
+	 *            initial value
+	 * @param pRefIn
+	 *            true if the bytes are processed from the least significant bit
+	 * @param pRefOut
+	 *            true if the register is reflected before the final xor
+	 * @param pXorOut
+	 *            final xor value
+	 */
+	public Crc(final int pWidth, final long pPoly, final long pInit, final boolean pRefIn, final boolean pRefOut, final long pXorOut) {
+		if (pWidth < 1 || pWidth > Long.SIZE) {
+			throw new IllegalArgumentException("Invalid CRC width: " + pWidth);
+		}
+		width = pWidth;
+		refIn = pRefIn;
+		refOut = pRefOut;
+		mask = pWidth == Long.SIZE ? -1L : (1L << pWidth) - 1;
+		xorOut = pXorOut & mask;
+		// Reflected registers are right aligned, the others are left aligned
+		poly = pRefIn ? reflect(pPoly & mask) : pPoly << Long.SIZE - pWidth;
+		initialRegister = pRefIn ? reflect(pInit & mask) : pInit << Long.SIZE - pWidth;
+
+		for (int i = 0; i < 256; i++) {
+			long register = pRefIn ? i : (long) i << Long.SIZE - BitUtils.BYTE_SIZE;
+			tables[0][i] = shiftBits(register, BitUtils.BYTE_SIZE);
+		}
+		for (int k = 1; k < SLICES; k++) {
+			for (int i = 0; i < 256; i++) {
+				tables[k][i] = updateByte(tables[k - 1][i], 0);
+			}
+		}
+	}
+
+	/**
+	 * Getter for the width
+	 *
+	 * @return the width of the CRC in bits
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Method used to get the register before any data
+	 *
+	 * @return the initial register
+	 */
+	public long getInitialRegister() {
+		return initialRegister;
+	}
+
+	/**
+	 * Method used to get the CRC value of a register
+	 *
+	 * @param pRegister
+	 *            the register
+	 * @return the CRC value
+	 */
+	public long getValue(final long pRegister) {
+		long value = refIn ? pRegister : pRegister >>> Long.SIZE - width;
+		if (refIn != refOut) {
+			value = reflect(value);
+		}
+		return (value ^ xorOut) & mask;
+	}
+
+	/**
+	 * Method used to compute the CRC of an array
+	 *
+	 * @param pData
+	 *            the data
+	 * @return the CRC value
+	 */
+	public long compute(final byte[] pData) {
+		if (pData == null) {
+			throw new IllegalArgumentException("Parameter 'pData' cannot be null");
+		}
+		return getValue(update(initialRegister, pData, 0, pData.length));
+	}
+
+	/**
+	 * Method used to compute the CRC of a part of an array
+	 *
+	 * @param pData
+	 *            the data
+	 * @param pOffset
+	 *            index of the first byte
+	 * @param pLength
+	 *            number of bytes
+	 * @return the CRC value
+	 */
+	public long compute(final byte[] pData, final int pOffset, final int pLength) {
+		return getValue(update(initialRegister, pData, pOffset, pLength));
+	}
+
+	/**
+	 * Method used to compute the CRC of a bit range
+	 *
+	 * @param pData
+	 *            the data
+	 * @param pBitIndex
+	 *            index of the first bit
+	 * @param pBitLength
+	 *            number of bits
+	 * @return the CRC value
+	 */
+	public long computeBits(final byte[] pData, final int pBitIndex, final int pBitLength) {
+		return getValue(updateBits(initialRegister, pData, pBitIndex, pBitLength));
+	}
+
+	/**
+	 * Method used to update a register with bytes
+	 *
+	 * @param pRegister
+	 *            the register
+	 * @param pData
+	 *            the data
+	 * @param pOffset
+	 *            index of the first byte
+	 * @param pLength
+	 *            number of bytes
+	 * @return the new register
+	 */
+	public long update(final long pRegister, final byte[] pData, final int pOffset, final int pLength) {
+		if (pData == null) {
+			throw new IllegalArgumentException("Parameter 'pData' cannot be null");
+		}
+		if (pOffset < 0 || pLength < 0 || pData.length < (long) pOffset + pLength) {
+			throw new IllegalArgumentException("Length or offset not valid");
+		}
+		long register = pRegister;
+		int index = pOffset;
+		int end = pOffset + pLength;
+		for (; index + Long.BYTES <= end; index += Long.BYTES) {
+			register = updateWord(register, BitUtils.readWord(pData, index));
+		}
+		for (; index < end; index++) {
+			register = updateByte(register, pData[index] & 0xFF);
+		}
+		return register;
+	}
+
+	/**
+	 * Method used to update a register with a bit range
+	 *
+	 * @param pRegister
+	 *            the register
+	 * @param pData
+	 *            the data
+	 * @param pBitIndex
+	 *            index of the first bit
+	 * @param pBitLength
+	 *            number of bits
+	 * @return the new register
+	 */
+	public long updateBits(final long pRegister, final byte[] pData, final int pBitIndex, final int pBitLength) {
+		if (pData == null) {
+			throw new IllegalArgumentException("Parameter 'pData' cannot be null");
+		}
+		if (pBitIndex < 0 || pBitLength < 0 || (long) pData.length * BitUtils.BYTE_SIZE < (long) pBitIndex + pBitLength) {
+			throw new IllegalArgumentException("Invalid bit range. index=" + pBitIndex + " length=" + pBitLength);
+		}
+		int bytes = pBitLength / BitUtils.BYTE_SIZE;
+		long register;
+		int index = pBitIndex + bytes * BitUtils.BYTE_SIZE;
+		if (pBitIndex % BitUtils.BYTE_SIZE == 0) {
+			register = update(pRegister, pData, pBitIndex / BitUtils.BYTE_SIZE, bytes);
+		} else {
+			register = pRegister;
+			int bitIndex = pBitIndex;
+			for (; bitIndex + Long.SIZE <= index; bitIndex += Long.SIZE) {
+				register = updateWord(register, BitUtils.readWindow(pData, bitIndex));
+			}
+			for (; bitIndex < index; bitIndex += BitUtils.BYTE_SIZE) {
+				register = updateByte(register, (int) BitUtils.readBits(pData, bitIndex, BitUtils.BYTE_SIZE));
+			}
+		}
+		int remaining = pBitLength % BitUtils.BYTE_SIZE;
+		if (remaining > 0) {
+			long value = BitUtils.readBits(pData, index, remaining);
+			register = shiftBits(refIn ? register ^ value : register ^ value << Long.SIZE - remaining, remaining);
+		}
+		return register;
+	}
+
+	/**
+	 * Method used to update a register with the bits written or read in a
+	 * BitUtils since a bit index
+	 *
+	 * @param pRegister
+	 *            the register
+	 * @param pBit
+	 *            the bit utils
+	 * @param pFromBitIndex
+	 *            index of the first bit, lower or equal to the current index
+	 * @return the new register
+	 */
+	public long update(final long pRegister, final BitUtils pBit, final int pFromBitIndex) {
+		return updateBits(pRegister, pBit.getByteTab(), pBit.getOffset() * BitUtils.BYTE_SIZE + pFromBitIndex,
+				pBit.getCurrentBitIndex() - pFromBitIndex);
+	}
+
+	/**
+	 * Method used to combine the CRC of two consecutive blocks
+	 *
+	 * @param pCrc1
+	 *            CRC value of the first block
+	 * @param pCrc2
+	 *            CRC value of the second block
+	 * @param pLength2
+	 *            number of bytes of the second block
+	 * @return the CRC value of the two blocks
+	 */
+	public long combine(final long pCrc1, final long pCrc2, final long pLength2) {
+		if (pLength2 < 0) {
+			throw new IllegalArgumentException("Invalid length: " + pLength2);
+		}
+		// update(r, B) = Z(r) ^ update(0, B) where Z adds len(B) zero bytes
+		long register = toRegister(pCrc1) ^ initialRegister;
+		long[][] operators = getZeroOperators();
+		for (int i = 0; pLength2 >>> i != 0; i++) {
+			if ((pLength2 >>> i & 1) != 0) {
+				register = multiply(operators[i], register);
+			}
+		}
+		return getValue(register ^ toRegister(pCrc2));
+	}
+
+	/**
+	 * Method used to get the register of a CRC value
+	 *
+	 * @param pCrc
+	 *            the CRC value
+	 * @return the register
+	 */
+	private long toRegister(final long pCrc) {
+		long value = (pCrc ^ xorOut) & mask;
+		if (refIn != refOut) {
+			value = reflect(value);
+		}
+		return refIn ? value : value << Long.SIZE - width;
+	}
+
+	/**
+	 * Method used to get the operators adding 2^i zero bytes
+	 *
+	 * @return the operators
+	 */
+	private long[][] getZeroOperators() {
+		long[][] ret = zeroOperators;
+		if (ret == null) {
+			ret = new long[Long.SIZE - 1][Long.SIZE];
+			for (int bit = 0; bit < Long.SIZE; bit++) {
+				ret[0][bit] = updateByte(1L << bit, 0);
+			}
+			for (int i = 1; i < ret.length; i++) {
+				for (int bit = 0; bit < Long.SIZE; bit++) {
+					ret[i][bit] = multiply(ret[i - 1], ret[i - 1][bit]);
+				}
+			}
+			zeroOperators = ret;
+		}
+		return ret;
+	}
+
+	/**
+	 * Method used to apply a GF(2) matrix to a vector
+	 *
+	 * @param pMatrix
+	 *            the matrix, one column per bit
+	 * @param pVector
+	 *            the vector
+	 * @return the product
+	 */
+	private static long multiply(final long[] pMatrix, final long pVector) {
+		long ret = 0;
+		long vector = pVector;
+		for (int bit = 0; vector != 0; bit++, vector >>>= 1) {
+			if ((vector & 1) != 0) {
+				ret ^= pMatrix[bit];
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Method used to update a register with 8 bytes
+	 *
+	 * @param pRegister
+	 *            the register
+	 * @param pWord
+	 *            the bytes in big endian
+	 * @return the new register
+	 */
+	private long updateWord(final long pRegister, final long pWord) {
+		if (refIn) {
+			long value = pRegister ^ Long.reverseBytes(pWord);
+			return tables[7][(int) value & 0xFF] ^ tables[6][(int) (value >>> 8) & 0xFF]
+					^ tables[5][(int) (value >>> 16) & 0xFF] ^ tables[4][(int) (value >>> 24) & 0xFF]
+					^ tables[3][(int) (value >>> 32) & 0xFF] ^ tables[2][(int) (value >>> 40) & 0xFF]
+					^ tables[1][(int) (value >>> 48) & 0xFF] ^ tables[0][(int) (value >>> 56)];
+		}
+		long value = pRegister ^ pWord;
+		return tables[7][(int) (value >>> 56)] ^ tables[6][(int) (value >>> 48) & 0xFF]
+				^ tables[5][(int) (value >>> 40) & 0xFF] ^ tables[4][(int) (value >>> 32) & 0xFF]
+				^ tables[3][(int) (value >>> 24) & 0xFF] ^ tables[2][(int) (value >>> 16) & 0xFF]
+				^ tables[1][(int) (value >>> 8) & 0xFF] ^ tables[0][(int) value & 0xFF];
+	}
+
+	/**
+	 * Method used to update a register with a byte
+	 *
+	 * @param pRegister
+	 *            the register
+	 * @param pByte
+	 *            the byte
+	 * @return the new register
+	 */
+	private long updateByte(final long pRegister, final int pByte) {
+		if (refIn) {
+			return tables[0][(int) (pRegister ^ pByte) & 0xFF] ^ pRegister >>> BitUtils.BYTE_SIZE;
+		}
+		return tables[0][(int) (pRegister >>> 56 ^ pByte)] ^ pRegister << BitUtils.BYTE_SIZE;
+	}
+
+	/**
+	 * Method used to shift the register bit by bit
+	 *
+	 * @param pRegister
+	 *            the register with the data already xored
+	 * @param pCount
+	 *            number of bits
+	 * @return the new register
+	 */
+	private long shiftBits(final long pRegister, final int pCount) {
+		long register = pRegister;
+		for (int i = 0; i < pCount; i++) {
+			if (refIn) {
+				register = (register & 1) != 0 ? register >>> 1 ^ poly : register >>> 1;
+			} else {
+				register = register < 0 ? register << 1 ^ poly : register << 1;
+			}
+		}
+		return register;
+	}
+
+	/**
+	 * Method used to reverse the bits of a value of the CRC width
+	 *
+	 * @param pValue
+	 *            the value
+	 * @return the reflected value
+	 */
+	private long reflect(final long pValue) {
+		return Long.reverse(pValue) >>> Long.SIZE - width;
+	}
+}
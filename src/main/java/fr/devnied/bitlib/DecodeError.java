@@ -0,0 +1,161 @@
+package fr.devnied.bitlib;
+
+/**
+ * Class used to describe the last decode error of a BitUtils.<br>
+ * The same instance is reused for all the errors of a BitUtils, so reporting
+ * an error doesn't allocate anything.
+ *
+ * <pre>
+ * bit.setErrorPolicy(DecodeErrorPolicy.STATUS);
+ * int tag = bit.getNextInteger(8);
+ * long length = bit.getNextVarLong();
+ * if (bit.getDecodeError().hasError()) {
+ * 	// drop the frame
+ * }
+ * </pre>
+ *
+ * @author Millau Julien
+ *
+ */
+public final class DecodeError {
+
+	/**
+	 * Error types
+	 */
+	public enum Type {
+
+		/**
+		 * Read after the end of the data
+		 */
+		OUT_OF_RANGE("Read out of range"),
+
+		/**
+		 * Varint with too many groups
+		 */
+		MALFORMED_VARINT("Malformed varint"),
+
+		/**
+		 * Exp-Golomb or Elias code longer than 64 bits
+		 */
+		CODE_TOO_LONG("Variable length code too long"),
+
+		/**
+		 * Unary code without a bit set before the end of the data
+		 */
+		NO_BIT_SET("No bit set"),
+
+		/**
+		 * Date not matching the pattern
+		 */
+		INVALID_DATE("Invalid date");
+
+		/**
+		 * Error message
+		 */
+		private final String message;
+
+		/**
+		 * Constructor of the enum
+		 *
+		 * @param pMessage
+		 *            the error message
+		 */
+		private Type(final String pMessage) {
+			message = pMessage;
+		}
+
+		/**
+		 * Getter for the message
+		 *
+		 * @return the error message
+		 */
+		public String getMessage() {
+			return message;
+		}
+	}
+
+	/**
+	 * Type of the last error
+	 */
+	private Type type;
+
+	/**
+	 * Bit index of the last error
+	 */
+	private int bitIndex;
+
+	/**
+	 * Number of errors since the last clear
+	 */
+	private int count;
+
+	/**
+	 * Package constructor, instances are created by BitUtils
+	 */
+	DecodeError() {
+	}
+
+	/**
+	 * Method used to record an error
+	 *
+	 * @param pType
+	 *            the error type
+	 * @param pBitIndex
+	 *            the bit index of the value in error
+	 */
+	void set(final Type pType, final int pBitIndex) {
+		type = pType;
+		bitIndex = pBitIndex;
+		count++;
+	}
+
+	/**
+	 * Method used to know if an error occurred since the last clear
+	 *
+	 * @return true if an error occurred
+	 */
+	public boolean hasError() {
+		return count > 0;
+	}
+
+	/**
+	 * Getter for the type
+	 *
+	 * @return the type of the last error or null
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Getter for the bit index
+	 *
+	 * @return the bit index of the value of the last error
+	 */
+	public int getBitIndex() {
+		return bitIndex;
+	}
+
+	/**
+	 * Getter for the count
+	 *
+	 * @return the number of errors since the last clear
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Method used to forget the errors
+	 */
+	public void clear() {
+		type = null;
+		bitIndex = 0;
+		count = 0;
+	}
+
+	@Override
+	public String toString() {
+		return type == null ? "No error" : type.getMessage() + " at bit index " + bitIndex + " (" + count + " errors)";
+	}
+}
@@ -0,0 +1,23 @@
+package fr.devnied.bitlib;
+
+/**
+ * Enum used to choose how BitUtils reports the errors of malformed data
+ *
+ * @author Millau Julien
+ *
+ */
+public enum DecodeErrorPolicy {
+
+	/**
+	 * Throw an exception (IndexOutOfBoundsException for reads after the end
+	 * of the data, IllegalArgumentException for malformed values)
+	 */
+	EXCEPTION,
+
+	/**
+	 * Record the error in the {@link DecodeError} of the BitUtils, move the
+	 * current index to the end of the data and return 0, false, null or zeroed
+	 * bytes. No exception is created.
+	 */
+	STATUS
+}
@@ -0,0 +1,262 @@
+package fr.devnied.bitlib;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Class used to store a non decreasing sequence of positive longs with the
+ * Elias-Fano encoding.<br>
+ * Each value is split in l low bits, stored with a fixed width, and high bits
+ * stored in unary in a bit vector: the value i sets the bit (high + i). The
+ * sequence uses less than 2 + log2(max / n) bits per value and gives random
+ * access with a select on the high bits.
+ *
+ * <pre>
+ * EliasFano offsets = EliasFano.encode(new long[] { 3, 4, 7, 13, 14, 15, 21, 43 });
+ * offsets.get(3);        // 13
+ * offsets.nextGEQ(16);   // 6 (index of 21)
+ * </pre>
+ *
+ * @author Millau Julien
+ *
+ */
+public final class EliasFano {
+
+	/**
+	 * Number of values
+	 */
+	private final int count;
+
+	/**
+	 * Number of low bits of each value
+	 */
+	private final int lowBits;
+
+	/**
+	 * Last value
+	 */
+	private final long last;
+
+	/**
+	 * Low bits of the values
+	 */
+	private final byte[] low;
+
+	/**
+	 * High bits of the values in unary
+	 */
+	private final byte[] high;
+
+	/**
+	 * Select index of the high bits
+	 */
+	private final RankSelectBitVector highIndex;
+
+	/**
+	 * Private constructor
+	 *
+	 * @param pCount
+	 *            number of values
+	 * @param pLowBits
+	 *            number of low bits
+	 * @param pLast
+	 *            last value
+	 * @param pLow
+	 *            low bits
+	 * @param pHigh
+	 *            high bits
+	 */
+	private EliasFano(final int pCount, final int pLowBits, final long pLast, final BitUtils pLow, final BitUtils pHigh) {
+		count = pCount;
+		lowBits = pLowBits;
+		last = pLast;
+		low = pLow.getByteTab();
+		high = pHigh.getByteTab();
+		highIndex = new RankSelectBitVector(pHigh);
+	}
+
+	/**
+	 * Method used to encode a sequence
+	 *
+	 * @param pValues
+	 *            non decreasing positive values
+	 * @return the encoded sequence
+	 */
+	public static EliasFano encode(final long[] pValues) {
+		if (pValues == null) {
+			throw new IllegalArgumentException("Parameter 'pValues' cannot be null");
+		}
+		return encode(pValues, 0, pValues.length);
+	}
+
+	/**
+	 * Method used to encode a part of an array
+	 *
+	 * @param pValues
+	 *            non decreasing positive values
+	 * @param pOffset
+	 *            index of the first value
+	 * @param pLength
+	 *            number of values
+	 * @return the encoded sequence
+	 */
+	public static EliasFano encode(final long[] pValues, final int pOffset, final int pLength) {
+		if (pValues == null) {
+			throw new IllegalArgumentException("Parameter 'pValues' cannot be null");
+		}
+		if (pOffset < 0 || pLength < 0 || pValues.length < (long) pOffset + pLength) {
+			throw new IllegalArgumentException("Length or offset not valid");
+		}
+		long previous = 0;
+		int end = pOffset + pLength;
+		for (int i = pOffset; i < end; i++) {
+			if (pValues[i] < previous) {
+				throw new IllegalArgumentException("Values must be positive and non decreasing. index=" + i);
+			}
+			previous = pValues[i];
+		}
+		long max = previous;
+		int lowBits = pLength == 0 || max / pLength == 0 ? 0 : Long.SIZE - 1 - Long.numberOfLeadingZeros(max / pLength);
+		long highSize = pLength + (max >>> lowBits) + 1;
+		if ((long) pLength * lowBits > Integer.MAX_VALUE || highSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Sequence too large");
+		}
+
+		BitUtils lowBit = new BitUtils(pLength * lowBits);
+		BitUtils highBit = new BitUtils((int) highSize);
+		long lowMask = (1L << lowBits) - 1;
+		for (int i = 0; i < pLength; i++) {
+			long value = pValues[pOffset + i];
+			lowBit.setNextLong(value & lowMask, lowBits);
+			highBit.setCurrentBitIndex((int) (value >>> lowBits) + i);
+			highBit.setNextBoolean(true);
+		}
+		return new EliasFano(pLength, lowBits, max, lowBit, highBit);
+	}
+
+	/**
+	 * Method used to get the number of values
+	 *
+	 * @return the number of values
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Method used to get the size of the encoded sequence
+	 *
+	 * @return the number of bits used by the low and high parts
+	 */
+	public long sizeInBits() {
+		return (long) count * lowBits + highIndex.size();
+	}
+
+	/**
+	 * Method used to get a value
+	 *
+	 * @param pIndex
+	 *            the index of the value
+	 * @return the value
+	 */
+	public long get(final int pIndex) {
+		if (pIndex < 0 || pIndex >= count) {
+			throw new IndexOutOfBoundsException("Invalid index " + pIndex + ", size=" + count);
+		}
+		return (long) (highIndex.select1(pIndex) - pIndex) << lowBits | getLow(pIndex);
+	}
+
+	/**
+	 * Method used to find the first value greater or equal to a value
+	 *
+	 * @param pValue
+	 *            the value to find
+	 * @return the index of the first value greater or equal to pValue, or
+	 *         size() if all the values are lower
+	 */
+	public int nextGEQ(final long pValue) {
+		if (count == 0 || pValue > last) {
+			return count;
+		}
+		if (pValue <= 0) {
+			return 0;
+		}
+		long bucket = pValue >>> lowBits;
+		// The values of the bucket start after the (bucket - 1)th zero
+		int position = bucket == 0 ? 0 : highIndex.select0((int) bucket - 1) + 1;
+		int index = position - (int) bucket;
+		// Scan the high bits 64 at a time, like the iterator
+		int wordPosition = position;
+		long word = BitUtils.readBits(high, wordPosition, Long.SIZE);
+		while (index < count) {
+			while (word == 0) {
+				wordPosition += Long.SIZE;
+				word = BitUtils.readBits(high, wordPosition, Long.SIZE);
+			}
+			int bit = Long.numberOfLeadingZeros(word);
+			word &= ~(Long.MIN_VALUE >>> bit);
+			if (((long) (wordPosition + bit - index) << lowBits | getLow(index)) >= pValue) {
+				return index;
+			}
+			index++;
+		}
+		return count;
+	}
+
+	/**
+	 * Method used to iterate over the values
+	 *
+	 * @return an iterator reading the high bits 64 at a time
+	 */
+	public PrimitiveIterator.OfLong iterator() {
+		return new PrimitiveIterator.OfLong() {
+
+			/**
+			 * Index of the next value
+			 */
+			private int index;
+
+			/**
+			 * Bit index of the current word
+			 */
+			private int wordPosition;
+
+			/**
+			 * Current word without the bits already read
+			 */
+			private long word = BitUtils.readBits(high, 0, Long.SIZE);
+
+			@Override
+			public boolean hasNext() {
+				return index < count;
+			}
+
+			@Override
+			public long nextLong() {
+				if (index >= count) {
+					throw new NoSuchElementException();
+				}
+				while (word == 0) {
+					wordPosition += Long.SIZE;
+					word = BitUtils.readBits(high, wordPosition, Long.SIZE);
+				}
+				int bit = Long.numberOfLeadingZeros(word);
+				word &= ~(Long.MIN_VALUE >>> bit);
+				long value = (long) (wordPosition + bit - index) << lowBits | getLow(index);
+				index++;
+				return value;
+			}
+		};
+	}
+
+	/**
+	 * Method used to get the low bits of a value
+	 *
+	 * @param pIndex
+	 *            index of the value
+	 * @return the low bits
+	 */
+	private long getLow(final int pIndex) {
+		return BitUtils.readBits(low, pIndex * lowBits, lowBits);
+	}
+}
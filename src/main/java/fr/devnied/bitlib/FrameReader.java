@@ -0,0 +1,285 @@
+package fr.devnied.bitlib;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Class used to read length prefixed frames from a channel or a stream.<br>
+ * The bytes are read in a buffer reused for all the frames and each frame is
+ * returned as a {@link BitUtils} view over this buffer: there is no copy and
+ * no allocation per frame. The buffer is compacted only when the next frame
+ * doesn't fit after the current position, and grows only for frames larger
+ * than the buffer.<br>
+ * The view covers the prefix and the frame, its current bit index is after
+ * the length. It is valid until the next call to {@link #next()}.
+ *
+ * <pre>
+ * FrameReader reader = new FrameReader(channel, LengthPrefix.BER);
+ * BitUtils frame;
+ * while ((frame = reader.next()) != null) {
+ * 	frame.getNextInteger(8);
+ * }
+ * </pre>
+ *
+ * With a non blocking channel, next returns null when no complete frame is
+ * available: {@link #isEndOfStream()} tells if the channel is closed.
+ *
+ * @author Millau Julien
+ *
+ */
+public final class FrameReader {
+
+	/**
+	 * Default max size of a frame in bytes
+	 */
+	public static final int DEFAULT_MAX_FRAME_LENGTH = 1 << 24;
+
+	/**
+	 * Initial size of the buffer
+	 */
+	private static final int INITIAL_BUFFER_SIZE = 8192;
+
+	/**
+	 * Channel to read, null when a stream is read
+	 */
+	private final ReadableByteChannel channel;
+
+	/**
+	 * Stream to read, null when a channel is read
+	 */
+	private final InputStream stream;
+
+	/**
+	 * Length prefix of the frames
+	 */
+	private final LengthPrefix prefix;
+
+	/**
+	 * Max size of a frame in bytes, prefix included
+	 */
+	private final int maxFrameLength;
+
+	/**
+	 * View returned for each frame
+	 */
+	private final BitUtils view = BitUtils.wrap(new byte[0], 0, 0);
+
+	/**
+	 * Buffer of the bytes read
+	 */
+	private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+
+	/**
+	 * Buffer used for the channel reads
+	 */
+	private ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+
+	/**
+	 * Index of the first byte not returned
+	 */
+	private int start;
+
+	/**
+	 * Index after the last byte read
+	 */
+	private int end;
+
+	/**
+	 * True when the end of the stream is reached
+	 */
+	private boolean endOfStream;
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pChannel
+	 *            the channel to read
+	 * @param pPrefix
+	 *            the length prefix of the frames
+	 */
+	public FrameReader(final ReadableByteChannel pChannel, final LengthPrefix pPrefix) {
+		this(pChannel, null, pPrefix, DEFAULT_MAX_FRAME_LENGTH);
+	}
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pChannel
+	 *            the channel to read
+	 * @param pPrefix
+	 *            the length prefix of the frames
+	 * @param pMaxFrameLength
+	 *            max size of a frame in bytes, prefix included, at most
+	 *            Integer.MAX_VALUE / 8 for the bit indexes of the view
+	 */
+	public FrameReader(final ReadableByteChannel pChannel, final LengthPrefix pPrefix, final int pMaxFrameLength) {
+		this(pChannel, null, pPrefix, pMaxFrameLength);
+	}
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pStream
+	 *            the stream to read
+	 * @param pPrefix
+	 *            the length prefix of the frames
+	 */
+	public FrameReader(final InputStream pStream, final LengthPrefix pPrefix) {
+		this(pStream, pPrefix, DEFAULT_MAX_FRAME_LENGTH);
+	}
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pStream
+	 *            the stream to read
+	 * @param pPrefix
+	 *            the length prefix of the frames
+	 * @param pMaxFrameLength
+	 *            max size of a frame in bytes, prefix included, at most
+	 *            Integer.MAX_VALUE / 8 for the bit indexes of the view
+	 */
+	public FrameReader(final InputStream pStream, final LengthPrefix pPrefix, final int pMaxFrameLength) {
+		this(null, pStream, pPrefix, pMaxFrameLength);
+	}
+
+	/**
+	 * Private constructor
+	 *
+	 * @param pChannel
+	 *            the channel to read
+	 * @param pStream
+	 *            the stream to read
+	 * @param pPrefix
+	 *            the length prefix of the frames
+	 * @param pMaxFrameLength
+	 *            max size of a frame in bytes
+	 */
+	private FrameReader(final ReadableByteChannel pChannel, final InputStream pStream, final LengthPrefix pPrefix,
+			final int pMaxFrameLength) {
+		if (pChannel == null && pStream == null) {
+			throw new IllegalArgumentException("A channel or a stream is needed");
+		}
+		if (pPrefix == null) {
+			throw new IllegalArgumentException("Parameter 'pPrefix' cannot be null");
+		}
+		if (pMaxFrameLength < pPrefix.getMaxBytes()) {
+			throw new IllegalArgumentException("Max frame length too small. pMaxFrameLength=" + pMaxFrameLength);
+		}
+		if (pMaxFrameLength > Integer.MAX_VALUE / BitUtils.BYTE_SIZE) {
+			throw new IllegalArgumentException("Max frame length too large for a view. pMaxFrameLength=" + pMaxFrameLength);
+		}
+		channel = pChannel;
+		stream = pStream;
+		prefix = pPrefix;
+		maxFrameLength = pMaxFrameLength;
+	}
+
+	/**
+	 * Method used to read the next frame
+	 *
+	 * @return a view over the frame, valid until the next call, or null at the
+	 *         end of the stream or when a non blocking channel has no data
+	 * @throws IOException
+	 *             if the data can't be read, the stream ends in a frame, or
+	 *             the prefix is invalid
+	 */
+	public BitUtils next() throws IOException {
+		while (true) {
+			long header = prefix.decode(buffer, start, end - start);
+			int needed = prefix.getMaxBytes();
+			if (header >= 0) {
+				int headerBytes = (int) (header >>> Integer.SIZE);
+				long frameLength = headerBytes + (header & 0xFFFFFFFFL);
+				if (frameLength > maxFrameLength) {
+					throw new IOException("Frame too large: " + frameLength + " bytes, max " + maxFrameLength);
+				}
+				if (frameLength <= end - start) {
+					view.reset(buffer, start, (int) frameLength);
+					view.setCurrentBitIndex(prefix.getBits(headerBytes));
+					start += (int) frameLength;
+					return view;
+				}
+				needed = (int) frameLength;
+			}
+			if (endOfStream) {
+				if (start == end) {
+					return null;
+				}
+				throw new EOFException("End of stream in a frame: " + (end - start) + " bytes available");
+			}
+			if (buffer.length - start < needed) {
+				makeRoom(needed);
+			}
+			int read = read();
+			if (read < 0) {
+				endOfStream = true;
+			} else if (read == 0) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Method used to test the end of the stream
+	 *
+	 * @return true if the channel or the stream is closed
+	 */
+	public boolean isEndOfStream() {
+		return endOfStream;
+	}
+
+	/**
+	 * Method used to get the size of the buffer
+	 *
+	 * @return the size in bytes of the buffer
+	 */
+	public int getBufferSize() {
+		return buffer.length;
+	}
+
+	/**
+	 * Method used to move the bytes not returned at the start of the buffer,
+	 * and to grow the buffer if it can't contain the next frame
+	 *
+	 * @param pNeeded
+	 *            number of bytes needed from the start
+	 */
+	private void makeRoom(final int pNeeded) {
+		int length = end - start;
+		if (pNeeded > buffer.length) {
+			byte[] tab = new byte[Math.max(pNeeded, (int) Math.min((long) buffer.length * 2, maxFrameLength))];
+			System.arraycopy(buffer, start, tab, 0, length);
+			buffer = tab;
+			byteBuffer = ByteBuffer.wrap(buffer);
+		} else {
+			System.arraycopy(buffer, start, buffer, 0, length);
+		}
+		start = 0;
+		end = length;
+	}
+
+	/**
+	 * Method used to read bytes after the end of the buffer
+	 *
+	 * @return the number of bytes read, or -1 at the end of the stream
+	 * @throws IOException
+	 *             if the data can't be read
+	 */
+	private int read() throws IOException {
+		int read;
+		if (stream != null) {
+			read = stream.read(buffer, end, buffer.length - end);
+		} else {
+			byteBuffer.limit(buffer.length).position(end);
+			read = channel.read(byteBuffer);
+		}
+		if (read > 0) {
+			end += read;
+		}
+		return read;
+	}
+}
@@ -0,0 +1,332 @@
+package fr.devnied.bitlib;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Class used to pass frames from an I/O thread to decoding threads without
+ * lock and without allocation.<br>
+ * The ring contains preallocated slots, each one with a buffer and a
+ * {@link BitUtils} view over it. The producer claims a slot, fills its buffer
+ * (for example directly from a channel) and publishes it; a consumer polls
+ * the slot, decodes the frame in place with the view and releases it. The
+ * slot states are written with ordered stores (lazySet) and the cursors are
+ * padded to keep the producer and the consumers on different cache lines.
+ *
+ * <pre>
+ * // I/O thread
+ * FrameRing.Slot slot = ring.claim();
+ * if (slot != null) {
+ * 	int length = read(slot.getBuffer());
+ * 	ring.publish(slot, length);
+ * }
+ * // Decoding thread
+ * FrameRing.Slot slot = ring.poll();
+ * if (slot != null) {
+ * 	slot.getView().getNextInteger(8);
+ * 	ring.release(slot);
+ * }
+ * </pre>
+ *
+ * There must be a single producer thread. With several consumers the
+ * consumer cursor is moved with a compare and set, and the slots can be
+ * released in any order.
+ *
+ * @author Millau Julien
+ *
+ */
+public final class FrameRing {
+
+	/**
+	 * Slots of the ring
+	 */
+	private final Slot[] slots;
+
+	/**
+	 * Mask used to get the index of a slot
+	 */
+	private final int mask;
+
+	/**
+	 * True if several threads poll the ring
+	 */
+	private final boolean multiConsumer;
+
+	/**
+	 * Position of the next slot to claim, written by the producer only
+	 */
+	private final PaddedLong producer = new PaddedLong();
+
+	/**
+	 * Position of the next slot to poll
+	 */
+	private final PaddedLong consumer = new PaddedLong();
+
+	/**
+	 * Constructor of a single consumer ring
+	 *
+	 * @param pCapacity
+	 *            number of slots (power of 2)
+	 * @param pSlotSize
+	 *            size in bytes of the buffer of each slot
+	 */
+	public FrameRing(final int pCapacity, final int pSlotSize) {
+		this(pCapacity, pSlotSize, false);
+	}
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pCapacity
+	 *            number of slots (power of 2)
+	 * @param pSlotSize
+	 *            size in bytes of the buffer of each slot
+	 * @param pMultiConsumer
+	 *            true if several threads poll the ring
+	 */
+	public FrameRing(final int pCapacity, final int pSlotSize, final boolean pMultiConsumer) {
+		if (pCapacity < 1 || Integer.bitCount(pCapacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of 2. pCapacity=" + pCapacity);
+		}
+		if (pSlotSize < 0) {
+			throw new IllegalArgumentException("Slot size must be positive. pSlotSize=" + pSlotSize);
+		}
+		slots = new Slot[pCapacity];
+		for (int i = 0; i < pCapacity; i++) {
+			slots[i] = new Slot(new byte[pSlotSize], i);
+		}
+		mask = pCapacity - 1;
+		multiConsumer = pMultiConsumer;
+	}
+
+	/**
+	 * Method used by the producer to get a free slot
+	 *
+	 * @return the slot to fill, or null if the ring is full
+	 */
+	public Slot claim() {
+		long position = producer.value;
+		Slot slot = slots[(int) position & mask];
+		if (slot.state != position) {
+			return null;
+		}
+		slot.position = position;
+		return slot;
+	}
+
+	/**
+	 * Method used by the producer to make a claimed slot available to the
+	 * consumers
+	 *
+	 * @param pSlot
+	 *            the slot returned by {@link #claim()}
+	 * @param pLength
+	 *            number of bytes of the frame in the buffer of the slot
+	 */
+	public void publish(final Slot pSlot, final int pLength) {
+		if (pSlot.position != producer.value || slots[(int) pSlot.position & mask] != pSlot) {
+			throw new IllegalStateException("Slot not claimed");
+		}
+		if (pLength < 0 || pLength > pSlot.buffer.length) {
+			throw new IllegalArgumentException("Invalid frame length: " + pLength);
+		}
+		pSlot.length = pLength;
+		PaddedLong.VALUE.lazySet(producer, pSlot.position + 1);
+		// Ordered store: the frame is visible before the state
+		Slot.STATE.lazySet(pSlot, pSlot.position + 1);
+	}
+
+	/**
+	 * Method used by the producer to copy a frame in the next slot
+	 *
+	 * @param pData
+	 *            the data
+	 * @param pOffset
+	 *            index of the first byte
+	 * @param pLength
+	 *            number of bytes
+	 * @return false if the ring is full
+	 */
+	public boolean offer(final byte[] pData, final int pOffset, final int pLength) {
+		Slot slot = claim();
+		if (slot == null) {
+			return false;
+		}
+		if (pLength > slot.buffer.length) {
+			throw new IllegalArgumentException("Frame larger than the slots: " + pLength);
+		}
+		System.arraycopy(pData, pOffset, slot.buffer, 0, pLength);
+		publish(slot, pLength);
+		return true;
+	}
+
+	/**
+	 * Method used by a consumer to get the next published frame. The view of
+	 * the slot is reset over the frame.
+	 *
+	 * @return the slot to decode, or null if the ring is empty
+	 */
+	public Slot poll() {
+		while (true) {
+			long position = consumer.value;
+			Slot slot = slots[(int) position & mask];
+			if (slot.state != position + 1) {
+				return null;
+			}
+			if (!multiConsumer) {
+				PaddedLong.VALUE.lazySet(consumer, position + 1);
+			} else if (!PaddedLong.VALUE.compareAndSet(consumer, position, position + 1)) {
+				continue;
+			}
+			slot.position = position;
+			slot.view.reset(slot.buffer, 0, slot.length);
+			return slot;
+		}
+	}
+
+	/**
+	 * Method used by a consumer to give a decoded slot back to the producer
+	 *
+	 * @param pSlot
+	 *            the slot returned by {@link #poll()}
+	 */
+	public void release(final Slot pSlot) {
+		if (pSlot.state != pSlot.position + 1 || slots[(int) pSlot.position & mask] != pSlot) {
+			throw new IllegalStateException("Slot not polled");
+		}
+		Slot.STATE.lazySet(pSlot, pSlot.position + slots.length);
+	}
+
+	/**
+	 * Method used to get the number of slots
+	 *
+	 * @return the capacity of the ring
+	 */
+	public int getCapacity() {
+		return slots.length;
+	}
+
+	/**
+	 * Method used to get the number of frames published and not polled
+	 *
+	 * @return an estimation of the number of frames waiting
+	 */
+	public int size() {
+		long consumed = consumer.value;
+		return (int) Math.max(0, producer.value - consumed);
+	}
+
+	/**
+	 * Slot of the ring
+	 */
+	public static final class Slot {
+
+		/**
+		 * Updater of the state
+		 */
+		private static final AtomicLongFieldUpdater<Slot> STATE = AtomicLongFieldUpdater.newUpdater(Slot.class, "state");
+
+		/**
+		 * Buffer of the frame
+		 */
+		private final byte[] buffer;
+
+		/**
+		 * View over the frame
+		 */
+		private final BitUtils view;
+
+		/**
+		 * Position free for the producer, position + 1 when published
+		 */
+		private volatile long state;
+
+		/**
+		 * Position of the slot claimed or polled
+		 */
+		private long position;
+
+		/**
+		 * Number of bytes of the frame
+		 */
+		private int length;
+
+		/**
+		 * Constructor of the class
+		 *
+		 * @param pBuffer
+		 *            buffer of the frame
+		 * @param pPosition
+		 *            first position of the slot
+		 */
+		private Slot(final byte[] pBuffer, final long pPosition) {
+			buffer = pBuffer;
+			view = BitUtils.wrap(pBuffer, 0, 0);
+			state = pPosition;
+		}
+
+		/**
+		 * Method used to get the buffer, filled by the producer
+		 *
+		 * @return the buffer of the slot
+		 */
+		public byte[] getBuffer() {
+			return buffer;
+		}
+
+		/**
+		 * Method used to get the length of the frame
+		 *
+		 * @return the number of bytes of the frame
+		 */
+		public int getLength() {
+			return length;
+		}
+
+		/**
+		 * Method used to get the view over the frame, for the consumer
+		 *
+		 * @return the view
+		 */
+		public BitUtils getView() {
+			return view;
+		}
+	}
+
+	/**
+	 * Padding before the value
+	 */
+	private abstract static class LeftPadding {
+
+		/**
+		 * Padding
+		 */
+		protected long p1, p2, p3, p4, p5, p6, p7;
+	}
+
+	/**
+	 * Value between the paddings
+	 */
+	private abstract static class PaddedValue extends LeftPadding {
+
+		/**
+		 * Value
+		 */
+		protected volatile long value;
+	}
+
+	/**
+	 * Long alone on its cache line
+	 */
+	private static final class PaddedLong extends PaddedValue {
+
+		/**
+		 * Updater of the value
+		 */
+		private static final AtomicLongFieldUpdater<PaddedValue> VALUE = AtomicLongFieldUpdater.newUpdater(PaddedValue.class, "value");
+
+		/**
+		 * Padding
+		 */
+		protected long p9, p10, p11, p12, p13, p14, p15;
+	}
+}
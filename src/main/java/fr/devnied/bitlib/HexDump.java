@@ -0,0 +1,312 @@
+package fr.devnied.bitlib;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Class used to format bytes as a hex dump:
+ *
+ * <pre>
+ * 00000000  48 65 6C 6C 6F 20 57 6F  72 6C 64 0A 00 01 02 03  |Hello World.....|
+ * </pre>
+ *
+ * The lines are formatted in a small buffer and written to the output by
+ * chunks, so a dump of a large buffer to a {@link Writer} never builds the
+ * whole text in memory. {@link #lazy(byte[])} returns an object formatting the
+ * dump only when its toString is called, for the logs:
+ *
+ * <pre>
+ * LOGGER.debug("Frame:\n{}", HexDump.DEFAULT.lazy(frame));
+ * </pre>
+ *
+ * Instances are immutable and thread safe.
+ *
+ * @author Millau Julien
+ *
+ */
+public final class HexDump {
+
+	/**
+	 * Dump of 16 bytes per line in 2 groups, with offsets and ASCII column
+	 */
+	public static final HexDump DEFAULT = new HexDump(16, 8, true, true);
+
+	/**
+	 * Min number of hexadecimal digits of the offsets
+	 */
+	private static final int OFFSET_DIGITS = 8;
+
+	/**
+	 * Hexadecimal digits
+	 */
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	/**
+	 * Number of bytes per line
+	 */
+	private final int width;
+
+	/**
+	 * Number of bytes per group, 0 for no group
+	 */
+	private final int group;
+
+	/**
+	 * True to write the offset of each line
+	 */
+	private final boolean offsets;
+
+	/**
+	 * True to write the ASCII column
+	 */
+	private final boolean ascii;
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pWidth
+	 *            number of bytes per line (1 to 256)
+	 * @param pGroup
+	 *            number of bytes per group separated by an extra space, 0 for
+	 *            no group
+	 * @param pOffsets
+	 *            true to write the offset of each line
+	 * @param pAscii
+	 *            true to write the printable ASCII chars after the bytes
+	 */
+	public HexDump(final int pWidth, final int pGroup, final boolean pOffsets, final boolean pAscii) {
+		if (pWidth < 1 || pWidth > 256) {
+			throw new IllegalArgumentException("Width must be between 1 and 256. pWidth=" + pWidth);
+		}
+		if (pGroup < 0) {
+			throw new IllegalArgumentException("Group must be positive. pGroup=" + pGroup);
+		}
+		width = pWidth;
+		group = pGroup;
+		offsets = pOffsets;
+		ascii = pAscii;
+	}
+
+	/**
+	 * Method used to write the dump of an array
+	 *
+	 * @param pData
+	 *            the data
+	 * @param pOut
+	 *            the output
+	 * @throws IOException
+	 *             if the output fails
+	 */
+	public void dump(final byte[] pData, final Appendable pOut) throws IOException {
+		if (pData == null) {
+			throw new IllegalArgumentException("Parameter 'pData' cannot be null");
+		}
+		dump(pData, 0, pData.length, pOut);
+	}
+
+	/**
+	 * Method used to write the dump of a part of an array. The offsets start
+	 * at 0 for the first byte dumped.
+	 *
+	 * @param pData
+	 *            the data
+	 * @param pOffset
+	 *            index of the first byte
+	 * @param pLength
+	 *            number of bytes
+	 * @param pOut
+	 *            the output
+	 * @throws IOException
+	 *             if the output fails
+	 */
+	public void dump(final byte[] pData, final int pOffset, final int pLength, final Appendable pOut) throws IOException {
+		if (pData == null) {
+			throw new IllegalArgumentException("Parameter 'pData' cannot be null");
+		}
+		if (pOffset < 0 || pLength < 0 || pData.length < (long) pOffset + pLength) {
+			throw new IllegalArgumentException("Length or offset not valid");
+		}
+		int lineSize = getLineSize(pLength);
+		char[] chunk = new char[Math.max(lineSize, AppendableUtils.CHUNK_SIZE / lineSize * lineSize)];
+		int position = 0;
+		for (int start = 0; start < pLength; start += width) {
+			if (position + lineSize > chunk.length) {
+				AppendableUtils.append(pOut, chunk, position);
+				position = 0;
+			}
+			position = formatLine(pData, pOffset, start, Math.min(width, pLength - start), pLength, chunk, position);
+		}
+		AppendableUtils.append(pOut, chunk, position);
+	}
+
+	/**
+	 * Method used to get the dump of an array
+	 *
+	 * @param pData
+	 *            the data
+	 * @return the dump
+	 */
+	public String toString(final byte[] pData) {
+		if (pData == null) {
+			throw new IllegalArgumentException("Parameter 'pData' cannot be null");
+		}
+		return toString(pData, 0, pData.length);
+	}
+
+	/**
+	 * Method used to get the dump of a part of an array
+	 *
+	 * @param pData
+	 *            the data
+	 * @param pOffset
+	 *            index of the first byte
+	 * @param pLength
+	 *            number of bytes
+	 * @return the dump
+	 */
+	public String toString(final byte[] pData, final int pOffset, final int pLength) {
+		StringBuilder builder = new StringBuilder();
+		try {
+			dump(pData, pOffset, pLength, builder);
+		} catch (IOException e) {
+			// StringBuilder doesn't throw IOException
+			throw new IllegalStateException(e);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Method used to get an object formatting the dump of an array only when
+	 * its toString method is called. The array is not copied.
+	 *
+	 * @param pData
+	 *            the data
+	 * @return the lazy dump
+	 */
+	public Object lazy(final byte[] pData) {
+		if (pData == null) {
+			throw new IllegalArgumentException("Parameter 'pData' cannot be null");
+		}
+		return lazy(pData, 0, pData.length);
+	}
+
+	/**
+	 * Method used to get an object formatting the dump of a part of an array
+	 * only when its toString method is called. The array is not copied.
+	 *
+	 * @param pData
+	 *            the data
+	 * @param pOffset
+	 *            index of the first byte
+	 * @param pLength
+	 *            number of bytes
+	 * @return the lazy dump
+	 */
+	public Object lazy(final byte[] pData, final int pOffset, final int pLength) {
+		return new Object() {
+			@Override
+			public String toString() {
+				return HexDump.this.toString(pData, pOffset, pLength);
+			}
+		};
+	}
+
+	/**
+	 * Method used to get the number of hexadecimal digits of the offsets
+	 *
+	 * @param pLength
+	 *            number of bytes dumped
+	 * @return the number of digits
+	 */
+	private static int getOffsetDigits(final int pLength) {
+		int bits = Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(pLength - 1, 0));
+		return Math.max(OFFSET_DIGITS, (bits + 3) / 4);
+	}
+
+	/**
+	 * Method used to get the max size of a line
+	 *
+	 * @param pLength
+	 *            number of bytes dumped
+	 * @return the number of chars of a full line, with the line separator
+	 */
+	private int getLineSize(final int pLength) {
+		int ret = width * 3;
+		if (group > 0) {
+			ret += (width - 1) / group;
+		}
+		if (offsets) {
+			ret += getOffsetDigits(pLength) + 2;
+		}
+		if (ascii) {
+			ret += width + 4;
+		}
+		return ret;
+	}
+
+	/**
+	 * Method used to format a line
+	 *
+	 * @param pData
+	 *            the data
+	 * @param pOffset
+	 *            index of the first byte dumped
+	 * @param pStart
+	 *            index of the first byte of the line from pOffset
+	 * @param pCount
+	 *            number of bytes of the line
+	 * @param pLength
+	 *            number of bytes dumped
+	 * @param pChunk
+	 *            the buffer
+	 * @param pPosition
+	 *            index of the first char of the line in the buffer
+	 * @return the index after the line
+	 */
+	private int formatLine(final byte[] pData, final int pOffset, final int pStart, final int pCount, final int pLength,
+			final char[] pChunk, final int pPosition) {
+		int position = pPosition;
+		if (offsets) {
+			for (int shift = (getOffsetDigits(pLength) - 1) * 4; shift >= 0; shift -= 4) {
+				pChunk[position++] = HEX[(int) ((long) pStart >>> shift) & 0xF];
+			}
+			pChunk[position++] = ' ';
+			pChunk[position++] = ' ';
+		}
+		for (int i = 0; i < width; i++) {
+			if (i > 0) {
+				pChunk[position++] = ' ';
+				if (group > 0 && i % group == 0) {
+					pChunk[position++] = ' ';
+				}
+			}
+			if (i < pCount) {
+				int value = pData[pOffset + pStart + i];
+				pChunk[position++] = HEX[value >>> 4 & 0xF];
+				pChunk[position++] = HEX[value & 0xF];
+			} else if (ascii) {
+				// Align the ASCII column of the last line
+				pChunk[position++] = ' ';
+				pChunk[position++] = ' ';
+			} else {
+				position--;
+				if (group > 0 && i % group == 0) {
+					position--;
+				}
+				break;
+			}
+		}
+		if (ascii) {
+			pChunk[position++] = ' ';
+			pChunk[position++] = ' ';
+			pChunk[position++] = '|';
+			for (int i = 0; i < pCount; i++) {
+				int value = pData[pOffset + pStart + i] & 0xFF;
+				pChunk[position++] = value >= 0x20 && value < 0x7F ? (char) value : '.';
+			}
+			pChunk[position++] = '|';
+		}
+		pChunk[position++] = '\n';
+		return position;
+	}
+}
@@ -0,0 +1,271 @@
+package fr.devnied.bitlib;
+
+/**
+ * Class used to encode and decode canonical Huffman codes.<br>
+ * The codes are built from the code length of each symbol like in DEFLATE
+ * (RFC 1951): shorter codes first and symbols of the same length in
+ * increasing order. Codes are written most significant bit first with
+ * {@link BitUtils} and decoded with a {@link BitReader}.<br>
+ * Decoding uses a two level lookup table: a root table indexed by the next
+ * root bits resolves all the codes shorter than the root size with a single
+ * peek, longer codes use a second table linked from the root table.
+ *
+ * @author Millau Julien
+ *
+ */
+public final class HuffmanCodec {
+
+	/**
+	 * Max length of a code
+	 */
+	public static final int MAX_CODE_LENGTH = 32;
+
+	/**
+	 * Default size in bits of the root table
+	 */
+	public static final int DEFAULT_ROOT_BITS = 9;
+
+	/**
+	 * Number of bits used to store a length in a table entry
+	 */
+	private static final int LENGTH_BITS = 6;
+
+	/**
+	 * Mask of the length in a table entry
+	 */
+	private static final int LENGTH_MASK = (1 << LENGTH_BITS) - 1;
+
+	/**
+	 * Code of each symbol
+	 */
+	private final int[] codes;
+
+	/**
+	 * Code length of each symbol
+	 */
+	private final int[] lengths;
+
+	/**
+	 * Number of bits of the root table
+	 */
+	private final int rootBits;
+
+	/**
+	 * Decoding table.<br>
+	 * <ul>
+	 * <li>symbol &lt;&lt; 6 | length for a symbol</li>
+	 * <li>~(offset &lt;&lt; 6 | bits) for a link to a second level table</li>
+	 * <li>0 for an unused code</li>
+	 * </ul>
+	 */
+	private final int[] table;
+
+	/**
+	 * Constructor of the class with a root table of 9 bits
+	 *
+	 * @param pCodeLengths
+	 *            code length of each symbol (0 if the symbol is not used)
+	 */
+	public HuffmanCodec(final int[] pCodeLengths) {
+		this(pCodeLengths, DEFAULT_ROOT_BITS);
+	}
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pCodeLengths
+	 *            code length of each symbol (0 if the symbol is not used)
+	 * @param pRootBits
+	 *            number of bits of the root table
+	 */
+	public HuffmanCodec(final int[] pCodeLengths, final int pRootBits) {
+		if (pCodeLengths == null) {
+			throw new IllegalArgumentException("Parameter 'pCodeLengths' cannot be null");
+		}
+		if (pRootBits < 1 || pRootBits > BitReader.MAX_PEEK_BITS / 2) {
+			throw new IllegalArgumentException("Root bits must be between 1 and 28. pRootBits=" + pRootBits);
+		}
+		lengths = pCodeLengths.clone();
+		codes = new int[lengths.length];
+
+		// Count the codes of each length
+		int[] count = new int[MAX_CODE_LENGTH + 1];
+		int maxLength = 0;
+		for (int length : lengths) {
+			if (length < 0 || length > MAX_CODE_LENGTH) {
+				throw new IllegalArgumentException("Code length must be between 0 and 32. length=" + length);
+			}
+			count[length]++;
+			maxLength = Math.max(maxLength, length);
+		}
+		if (maxLength == 0) {
+			throw new IllegalArgumentException("No symbol with a code length");
+		}
+		count[0] = 0;
+		long left = 1;
+		for (int len = 1; len <= maxLength; len++) {
+			left = (left << 1) - count[len];
+			if (left < 0) {
+				throw new IllegalArgumentException("Over-subscribed code lengths");
+			}
+		}
+
+		// First code of each length
+		long[] next = new long[maxLength + 1];
+		long code = 0;
+		for (int len = 1; len <= maxLength; len++) {
+			code = code + count[len - 1] << 1;
+			next[len] = code;
+		}
+		for (int symbol = 0; symbol < lengths.length; symbol++) {
+			if (lengths[symbol] != 0) {
+				codes[symbol] = (int) next[lengths[symbol]]++;
+			}
+		}
+
+		// Size of the second level tables
+		rootBits = Math.min(pRootBits, maxLength);
+		int[] subBits = new int[1 << rootBits];
+		for (int symbol = 0; symbol < lengths.length; symbol++) {
+			int extra = lengths[symbol] - rootBits;
+			if (extra > 0) {
+				int prefix = (int) ((codes[symbol] & 0xFFFFFFFFL) >>> extra);
+				subBits[prefix] = Math.max(subBits[prefix], extra);
+			}
+		}
+		int size = 1 << rootBits;
+		int[] subOffsets = new int[subBits.length];
+		for (int prefix = 0; prefix < subBits.length; prefix++) {
+			if (subBits[prefix] > 0) {
+				subOffsets[prefix] = size;
+				size += 1 << subBits[prefix];
+			}
+		}
+		table = new int[size];
+		for (int prefix = 0; prefix < subBits.length; prefix++) {
+			if (subBits[prefix] > 0) {
+				table[prefix] = ~(subOffsets[prefix] << LENGTH_BITS | subBits[prefix]);
+			}
+		}
+
+		// Fill the entries of each symbol
+		for (int symbol = 0; symbol < lengths.length; symbol++) {
+			int length = lengths[symbol];
+			if (length == 0) {
+				continue;
+			}
+			int entry = symbol << LENGTH_BITS | length;
+			int extra = length - rootBits;
+			int first;
+			int last;
+			if (extra <= 0) {
+				first = codes[symbol] << -extra;
+				last = first + (1 << -extra);
+			} else {
+				int prefix = (int) ((codes[symbol] & 0xFFFFFFFFL) >>> extra);
+				int fill = subBits[prefix] - extra;
+				first = subOffsets[prefix] + ((codes[symbol] & (1 << extra) - 1) << fill);
+				last = first + (1 << fill);
+			}
+			for (int i = first; i < last; i++) {
+				table[i] = entry;
+			}
+		}
+	}
+
+	/**
+	 * Method used to decode the next symbol
+	 *
+	 * @param pReader
+	 *            the reader
+	 * @return the symbol
+	 */
+	public int decode(final BitReader pReader) {
+		int entry = table[(int) pReader.peekBits(rootBits)];
+		if (entry < 0) {
+			int link = ~entry;
+			pReader.skipBits(rootBits);
+			entry = table[(link >>> LENGTH_BITS) + (int) pReader.peekBits(link & LENGTH_MASK)];
+			if (entry == 0) {
+				throw new IllegalArgumentException("Invalid Huffman code at bit position " + pReader.getBitPosition());
+			}
+			pReader.skipBits((entry & LENGTH_MASK) - rootBits);
+		} else {
+			if (entry == 0) {
+				throw new IllegalArgumentException("Invalid Huffman code at bit position " + pReader.getBitPosition());
+			}
+			pReader.skipBits(entry & LENGTH_MASK);
+		}
+		return entry >>> LENGTH_BITS;
+	}
+
+	/**
+	 * Method used to decode several symbols
+	 *
+	 * @param pReader
+	 *            the reader
+	 * @param pSymbols
+	 *            array used to store the symbols
+	 * @param pOffset
+	 *            index of the first symbol in the array
+	 * @param pCount
+	 *            number of symbols to decode
+	 */
+	public void decode(final BitReader pReader, final int[] pSymbols, final int pOffset, final int pCount) {
+		for (int i = pOffset; i < pOffset + pCount; i++) {
+			pSymbols[i] = decode(pReader);
+		}
+	}
+
+	/**
+	 * Method used to write the code of a symbol
+	 *
+	 * @param pBit
+	 *            the bit utils used to write the code
+	 * @param pSymbol
+	 *            the symbol to write
+	 */
+	public void encode(final BitUtils pBit, final int pSymbol) {
+		int length = getCodeLength(pSymbol);
+		if (length == 0) {
+			throw new IllegalArgumentException("Symbol without code. pSymbol=" + pSymbol);
+		}
+		pBit.setNextLong(codes[pSymbol] & 0xFFFFFFFFL, length);
+	}
+
+	/**
+	 * Getter for the code of a symbol
+	 *
+	 * @param pSymbol
+	 *            the symbol
+	 * @return the code right aligned
+	 */
+	public int getCode(final int pSymbol) {
+		checkSymbol(pSymbol);
+		return codes[pSymbol];
+	}
+
+	/**
+	 * Getter for the code length of a symbol
+	 *
+	 * @param pSymbol
+	 *            the symbol
+	 * @return the length of the code or 0 if the symbol is not used
+	 */
+	public int getCodeLength(final int pSymbol) {
+		checkSymbol(pSymbol);
+		return lengths[pSymbol];
+	}
+
+	/**
+	 * Method used to check a symbol
+	 *
+	 * @param pSymbol
+	 *            the symbol to check
+	 */
+	private void checkSymbol(final int pSymbol) {
+		if (pSymbol < 0 || pSymbol >= lengths.length) {
+			throw new IllegalArgumentException("Invalid symbol. pSymbol=" + pSymbol);
+		}
+	}
+}
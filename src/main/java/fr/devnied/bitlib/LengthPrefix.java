@@ -0,0 +1,186 @@
+package fr.devnied.bitlib;
+
+import java.io.IOException;
+
+/**
+ * Class used to describe the length prefix of the frames read by
+ * {@link FrameReader}. The length is the number of bytes of the frame after
+ * the prefix.
+ *
+ * @author Millau Julien
+ *
+ */
+public final class LengthPrefix {
+
+	/**
+	 * Encoding of the length
+	 */
+	private enum Kind {
+		/**
+		 * ASN.1 BER definite length
+		 */
+		BER,
+		/**
+		 * LEB128 varint
+		 */
+		VARINT,
+		/**
+		 * Fixed number of bits
+		 */
+		FIXED
+	}
+
+	/**
+	 * ASN.1 BER definite length: one byte lower than 0x80, or 0x81 to 0x84
+	 * followed by 1 to 4 bytes in big endian
+	 */
+	public static final LengthPrefix BER = new LengthPrefix(Kind.BER, 0);
+
+	/**
+	 * LEB128 varint of 1 to 5 bytes
+	 */
+	public static final LengthPrefix VARINT = new LengthPrefix(Kind.VARINT, 0);
+
+	/**
+	 * Max number of bytes of a BER long form length
+	 */
+	private static final int BER_MAX_BYTES = 4;
+
+	/**
+	 * Max number of bytes of an integer varint
+	 */
+	private static final int VARINT_MAX_BYTES = 5;
+
+	/**
+	 * Encoding of the length
+	 */
+	private final Kind kind;
+
+	/**
+	 * Size in bits of a fixed prefix, 0 for BER and varint
+	 */
+	private final int bits;
+
+	/**
+	 * Private constructor
+	 *
+	 * @param pKind
+	 *            encoding of the length
+	 * @param pBits
+	 *            size in bits of a fixed prefix
+	 */
+	private LengthPrefix(final Kind pKind, final int pBits) {
+		kind = pKind;
+		bits = pBits;
+	}
+
+	/**
+	 * Method used to create a fixed width prefix. The length is read on the
+	 * first pBits bits (most significant bit first) and the prefix uses
+	 * ceil(pBits / 8) bytes: the other bits of the last byte are free for the
+	 * caller (flags, type).
+	 *
+	 * @param pBits
+	 *            size of the length in bits (1 to 32)
+	 * @return the prefix
+	 */
+	public static LengthPrefix fixed(final int pBits) {
+		if (pBits < 1 || pBits > Integer.SIZE) {
+			throw new IllegalArgumentException("Prefix size must be between 1 and 32. pBits=" + pBits);
+		}
+		return new LengthPrefix(Kind.FIXED, pBits);
+	}
+
+	/**
+	 * Method used to get the max size of the prefix
+	 *
+	 * @return the max number of bytes of the prefix
+	 */
+	public int getMaxBytes() {
+		switch (kind) {
+		case BER:
+			return 1 + BER_MAX_BYTES;
+		case VARINT:
+			return VARINT_MAX_BYTES;
+		default:
+			return (bits + BitUtils.BYTE_SIZE - 1) / BitUtils.BYTE_SIZE;
+		}
+	}
+
+	/**
+	 * Method used to get the size in bits of the length
+	 *
+	 * @param pHeaderBytes
+	 *            number of bytes of the prefix
+	 * @return the number of bits used by the length
+	 */
+	int getBits(final int pHeaderBytes) {
+		return kind == Kind.FIXED ? bits : pHeaderBytes * BitUtils.BYTE_SIZE;
+	}
+
+	/**
+	 * Method used to decode a prefix
+	 *
+	 * @param pData
+	 *            the data
+	 * @param pOffset
+	 *            index of the first byte of the prefix
+	 * @param pAvailable
+	 *            number of bytes available
+	 * @return -1 if the prefix is not complete, else the number of bytes of
+	 *         the prefix in the 32 high bits and the length in the 32 low bits
+	 * @throws IOException
+	 *             if the prefix is malformed
+	 */
+	long decode(final byte[] pData, final int pOffset, final int pAvailable) throws IOException {
+		if (pAvailable == 0) {
+			return -1;
+		}
+		int header;
+		long length;
+		switch (kind) {
+		case BER:
+			int first = pData[pOffset] & 0xFF;
+			if (first < 0x80) {
+				return (long) 1 << Integer.SIZE | first;
+			}
+			header = 1 + (first & 0x7F);
+			if (header == 1 || header > 1 + BER_MAX_BYTES) {
+				throw new IOException("Invalid BER length: " + Integer.toHexString(first));
+			}
+			if (pAvailable < header) {
+				return -1;
+			}
+			length = 0;
+			for (int i = 1; i < header; i++) {
+				length = length << BitUtils.BYTE_SIZE | pData[pOffset + i] & 0xFF;
+			}
+			break;
+		case VARINT:
+			length = 0;
+			header = 0;
+			int b;
+			do {
+				if (header == pAvailable) {
+					return -1;
+				}
+				if (header == VARINT_MAX_BYTES) {
+					throw new IOException("Malformed varint length");
+				}
+				b = pData[pOffset + header];
+				length |= (long) (b & 0x7F) << 7 * header;
+				header++;
+			} while ((b & 0x80) != 0);
+			length &= 0xFFFFFFFFL;
+			break;
+		default:
+			header = getMaxBytes();
+			if (pAvailable < header) {
+				return -1;
+			}
+			length = BitUtils.readBits(pData, pOffset * BitUtils.BYTE_SIZE, bits);
+			break;
+		}
+		return (long) header << Integer.SIZE | length;
+	}
+}
@@ -0,0 +1,375 @@
+package fr.devnied.bitlib;
+
+/**
+ * Class used to answer rank and select queries over a bit array.<br>
+ * The bits are read in the BitUtils order: bit 0 is the most significant bit
+ * of the first byte. The data are not copied and must not be modified after
+ * the creation of the vector.<br>
+ * The index contains the rank of each superblock of 65536 bits (int) and of
+ * each block of 512 bits relative to its superblock (char), about 3% of the
+ * data size. Select queries use a sample every 1024 ones (or zeros) and a
+ * binary search on the block ranks. The words are counted with
+ * {@link Long#bitCount(long)}.
+ *
+ * @author Millau Julien
+ *
+ */
+public final class RankSelectBitVector {
+
+	/**
+	 * Log2 of the number of bits in a superblock
+	 */
+	private static final int SUPERBLOCK_SHIFT = 16;
+
+	/**
+	 * Log2 of the number of bits in a block
+	 */
+	private static final int BLOCK_SHIFT = 9;
+
+	/**
+	 * Log2 of the number of bits in a word
+	 */
+	private static final int WORD_SHIFT = 6;
+
+	/**
+	 * Number of words in a block
+	 */
+	private static final int WORDS_PER_BLOCK = 1 << BLOCK_SHIFT - WORD_SHIFT;
+
+	/**
+	 * Number of ones (or zeros) between two select samples
+	 */
+	private static final int SELECT_SAMPLE = 1024;
+
+	/**
+	 * Bit data
+	 */
+	private final byte[] data;
+
+	/**
+	 * Size in bits
+	 */
+	private final int size;
+
+	/**
+	 * Number of ones
+	 */
+	private final int ones;
+
+	/**
+	 * Rank of each superblock
+	 */
+	private final int[] superblocks;
+
+	/**
+	 * Rank of each block relative to its superblock
+	 */
+	private final char[] blocks;
+
+	/**
+	 * Block containing the one of each sample
+	 */
+	private final int[] selectOnes;
+
+	/**
+	 * Block containing the zero of each sample
+	 */
+	private final int[] selectZeros;
+
+	/**
+	 * Constructor used to index the data of a BitUtils without copy (the data
+	 * of a view not starting at the first byte of its array is copied)
+	 *
+	 * @param pBit
+	 *            the bit utils
+	 */
+	public RankSelectBitVector(final BitUtils pBit) {
+		this(pBit.getOffset() == 0 ? pBit.getByteTab() : pBit.getData(), pBit.getSize());
+	}
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pData
+	 *            the bit data
+	 * @param pSize
+	 *            the number of bits to index
+	 */
+	public RankSelectBitVector(final byte[] pData, final int pSize) {
+		if (pData == null) {
+			throw new IllegalArgumentException("Parameter 'pData' cannot be null");
+		}
+		if (pSize < 0 || pSize > (long) pData.length * BitUtils.BYTE_SIZE) {
+			throw new IllegalArgumentException("Invalid size. pSize=" + pSize);
+		}
+		data = pData;
+		size = pSize;
+		superblocks = new int[(pSize >>> SUPERBLOCK_SHIFT) + 1];
+		blocks = new char[(pSize >>> BLOCK_SHIFT) + 1];
+
+		int nbWords = (pSize + Long.SIZE - 1) >>> WORD_SHIFT;
+		int count = 0;
+		for (int w = 0; w < nbWords; w++) {
+			if ((w & WORDS_PER_BLOCK - 1) == 0) {
+				setBlockRank(w << WORD_SHIFT >>> BLOCK_SHIFT, count);
+			}
+			count += Long.bitCount(getWord(w));
+		}
+		for (int b = (nbWords + WORDS_PER_BLOCK - 1) / WORDS_PER_BLOCK; b < blocks.length; b++) {
+			setBlockRank(b, count);
+		}
+		ones = count;
+
+		// Select samples
+		selectOnes = new int[(ones + SELECT_SAMPLE - 1) / SELECT_SAMPLE];
+		selectZeros = new int[(pSize - ones + SELECT_SAMPLE - 1) / SELECT_SAMPLE];
+		int nextOne = 0;
+		int nextZero = 0;
+		int nbOnes = 0;
+		int nbZeros = 0;
+		for (int w = 0; w < nbWords; w++) {
+			int wordOnes = Long.bitCount(getWord(w));
+			int wordZeros = Math.min(Long.SIZE, pSize - (w << WORD_SHIFT)) - wordOnes;
+			int block = w / WORDS_PER_BLOCK;
+			nbOnes += wordOnes;
+			while (nextOne < selectOnes.length && nextOne * SELECT_SAMPLE < nbOnes) {
+				selectOnes[nextOne++] = block;
+			}
+			nbZeros += wordZeros;
+			while (nextZero < selectZeros.length && nextZero * SELECT_SAMPLE < nbZeros) {
+				selectZeros[nextZero++] = block;
+			}
+		}
+	}
+
+	/**
+	 * Getter for the size
+	 *
+	 * @return the number of bits
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Method used to get the number of ones
+	 *
+	 * @return the number of bits set
+	 */
+	public int cardinality() {
+		return ones;
+	}
+
+	/**
+	 * Method used to get a bit
+	 *
+	 * @param pIndex
+	 *            the bit index
+	 * @return true if the bit is set
+	 */
+	public boolean get(final int pIndex) {
+		if (pIndex < 0 || pIndex >= size) {
+			throw new IndexOutOfBoundsException("Invalid index " + pIndex + ", size=" + size);
+		}
+		return (data[pIndex >>> 3] >>> 7 - (pIndex & 7) & 1) != 0;
+	}
+
+	/**
+	 * Method used to count the ones before a position
+	 *
+	 * @param pIndex
+	 *            the position (between 0 and size)
+	 * @return the number of ones in [0, pIndex[
+	 */
+	public int rank1(final int pIndex) {
+		if (pIndex < 0 || pIndex > size) {
+			throw new IndexOutOfBoundsException("Invalid index " + pIndex + ", size=" + size);
+		}
+		int block = pIndex >>> BLOCK_SHIFT;
+		int rank = getBlockRank(block);
+		int lastWord = pIndex >>> WORD_SHIFT;
+		for (int w = block * WORDS_PER_BLOCK; w < lastWord; w++) {
+			rank += Long.bitCount(getWord(w));
+		}
+		int bits = pIndex & Long.SIZE - 1;
+		if (bits != 0) {
+			rank += Long.bitCount(getWord(lastWord) >>> Long.SIZE - bits);
+		}
+		return rank;
+	}
+
+	/**
+	 * Method used to count the zeros before a position
+	 *
+	 * @param pIndex
+	 *            the position (between 0 and size)
+	 * @return the number of zeros in [0, pIndex[
+	 */
+	public int rank0(final int pIndex) {
+		return pIndex - rank1(pIndex);
+	}
+
+	/**
+	 * Method used to get the position of the k-th one
+	 *
+	 * @param pRank
+	 *            the rank of the one (starting at 0)
+	 * @return the position of the one or -1 if pRank is out of range
+	 */
+	public int select1(final int pRank) {
+		if (pRank < 0 || pRank >= ones) {
+			return -1;
+		}
+		return select(pRank, true, selectOnes);
+	}
+
+	/**
+	 * Method used to get the position of the k-th zero
+	 *
+	 * @param pRank
+	 *            the rank of the zero (starting at 0)
+	 * @return the position of the zero or -1 if pRank is out of range
+	 */
+	public int select0(final int pRank) {
+		if (pRank < 0 || pRank >= size - ones) {
+			return -1;
+		}
+		return select(pRank, false, selectZeros);
+	}
+
+	/**
+	 * Method used to find the position of the k-th one or zero
+	 *
+	 * @param pRank
+	 *            the rank
+	 * @param pOnes
+	 *            true to find a one
+	 * @param pSamples
+	 *            the select samples
+	 * @return the position
+	 */
+	private int select(final int pRank, final boolean pOnes, final int[] pSamples) {
+		int sample = pRank / SELECT_SAMPLE;
+		int low = pSamples[sample];
+		int high = sample + 1 < pSamples.length ? pSamples[sample + 1] : blocks.length - 1;
+		// Last block with a rank lower or equal to pRank
+		while (low < high) {
+			int mid = low + high + 1 >>> 1;
+			if (getRank(mid, pOnes) <= pRank) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		int remaining = pRank - getRank(low, pOnes);
+		for (int w = low * WORDS_PER_BLOCK;; w++) {
+			long word = pOnes ? getWord(w) : ~getWord(w) & getValidMask(w);
+			int count = Long.bitCount(word);
+			if (remaining < count) {
+				return (w << WORD_SHIFT) + selectInWord(word, remaining);
+			}
+			remaining -= count;
+		}
+	}
+
+	/**
+	 * Method used to get the rank of a block
+	 *
+	 * @param pBlock
+	 *            the block
+	 * @param pOnes
+	 *            true for the number of ones, false for the zeros
+	 * @return the rank
+	 */
+	private int getRank(final int pBlock, final boolean pOnes) {
+		int rank = getBlockRank(pBlock);
+		return pOnes ? rank : (pBlock << BLOCK_SHIFT) - rank;
+	}
+
+	/**
+	 * Method used to get the number of ones before a block
+	 *
+	 * @param pBlock
+	 *            the block
+	 * @return the rank
+	 */
+	private int getBlockRank(final int pBlock) {
+		return superblocks[pBlock >>> SUPERBLOCK_SHIFT - BLOCK_SHIFT] + blocks[pBlock];
+	}
+
+	/**
+	 * Method used to store the number of ones before a block
+	 *
+	 * @param pBlock
+	 *            the block
+	 * @param pRank
+	 *            the rank
+	 */
+	private void setBlockRank(final int pBlock, final int pRank) {
+		int superblock = pBlock >>> SUPERBLOCK_SHIFT - BLOCK_SHIFT;
+		if ((pBlock & (1 << SUPERBLOCK_SHIFT - BLOCK_SHIFT) - 1) == 0) {
+			superblocks[superblock] = pRank;
+		}
+		blocks[pBlock] = (char) (pRank - superblocks[superblock]);
+	}
+
+	/**
+	 * Method used to get a word of 64 bits, bits after the size are 0
+	 *
+	 * @param pWord
+	 *            index of the word
+	 * @return the word
+	 */
+	private long getWord(final int pWord) {
+		int index = pWord << 3;
+		long word;
+		if (index + Long.BYTES <= data.length) {
+			word = BitUtils.readWord(data, index);
+		} else {
+			word = 0;
+			for (int i = 0; i < Long.BYTES; i++) {
+				word = word << BitUtils.BYTE_SIZE | (index + i < data.length ? data[index + i] & 0xFFL : 0);
+			}
+		}
+		return word & getValidMask(pWord);
+	}
+
+	/**
+	 * Method used to get the mask of the bits lower than size in a word
+	 *
+	 * @param pWord
+	 *            index of the word
+	 * @return the mask
+	 */
+	private long getValidMask(final int pWord) {
+		int valid = size - (pWord << WORD_SHIFT);
+		return valid >= Long.SIZE ? -1L : valid <= 0 ? 0 : -1L << Long.SIZE - valid;
+	}
+
+	/**
+	 * Method used to get the position of the k-th one in a word from the
+	 * most significant bit
+	 *
+	 * @param pWord
+	 *            the word
+	 * @param pRank
+	 *            the rank of the one
+	 * @return the position in the word
+	 */
+	private static int selectInWord(final long pWord, final int pRank) {
+		int remaining = pRank;
+		for (int shift = Long.SIZE - BitUtils.BYTE_SIZE;; shift -= BitUtils.BYTE_SIZE) {
+			int value = (int) (pWord >>> shift) & 0xFF;
+			int count = Integer.bitCount(value);
+			if (remaining < count) {
+				int position = Long.SIZE - BitUtils.BYTE_SIZE - shift;
+				for (int bit = BitUtils.BYTE_SIZE - 1;; bit--, position++) {
+					if ((value >>> bit & 1) != 0 && remaining-- == 0) {
+						return position;
+					}
+				}
+			}
+			remaining -= count;
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package fr.devnied.bitlib;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Class used to decode records of fixed width fields from data arriving in
+ * several chunks.<br>
+ * The fields are read most significant bit first, like {@link BitUtils}, and
+ * each record ends on a byte boundary. When a chunk ends in the middle of a
+ * field the decoder keeps the bits already read and resumes on the next chunk:
+ * each byte is read only once and the chunks are never copied.
+ *
+ * <pre>
+ * ResumableDecoder decoder = new ResumableDecoder(4, 12, 32);
+ * // For each chunk received on the channel
+ * while (decoder.feed(buffer)) {
+ * 	decoder.getValue(2);
+ * }
+ * </pre>
+ *
+ * @author Millau Julien
+ *
+ */
+public final class ResumableDecoder {
+
+	/**
+	 * Size in bits of each field
+	 */
+	private final int[] sizes;
+
+	/**
+	 * Values of the decoded fields
+	 */
+	private final long[] values;
+
+	/**
+	 * Index of the field being decoded
+	 */
+	private int field;
+
+	/**
+	 * Bits of the field being decoded
+	 */
+	private long accumulator;
+
+	/**
+	 * Number of bits of the field being decoded
+	 */
+	private int fieldBits;
+
+	/**
+	 * Last byte read
+	 */
+	private int pending;
+
+	/**
+	 * Number of bits of the last byte not used
+	 */
+	private int pendingBits;
+
+	/**
+	 * True when all the fields of the record are decoded
+	 */
+	private boolean complete;
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pSizes
+	 *            size in bits of each field (1 to 64)
+	 */
+	public ResumableDecoder(final int... pSizes) {
+		if (pSizes == null || pSizes.length == 0) {
+			throw new IllegalArgumentException("The layout must contain at least one field");
+		}
+		for (int size : pSizes) {
+			if (size < 1 || size > Long.SIZE) {
+				throw new IllegalArgumentException("Field size must be between 1 and 64. size=" + size);
+			}
+		}
+		sizes = pSizes.clone();
+		values = new long[pSizes.length];
+	}
+
+	/**
+	 * Method used to decode the bytes of a chunk. The bytes after the end of
+	 * the record are not consumed. When a record is complete the next call
+	 * starts a new record.
+	 *
+	 * @param pChunk
+	 *            the chunk, its position is moved after the bytes read
+	 * @return true if the record is complete, false if more data is needed
+	 */
+	public boolean feed(final ByteBuffer pChunk) {
+		if (complete) {
+			complete = false;
+			field = 0;
+		}
+		while (field < sizes.length) {
+			int size = sizes[field];
+			if (pendingBits == 0) {
+				// Whole bytes of the field without splitting them
+				while (size - fieldBits >= BitUtils.BYTE_SIZE && pChunk.hasRemaining()) {
+					accumulator = accumulator << BitUtils.BYTE_SIZE | pChunk.get() & 0xFF;
+					fieldBits += BitUtils.BYTE_SIZE;
+				}
+				if (fieldBits < size) {
+					if (!pChunk.hasRemaining()) {
+						return false;
+					}
+					pending = pChunk.get() & 0xFF;
+					pendingBits = BitUtils.BYTE_SIZE;
+				}
+			}
+			int take = Math.min(size - fieldBits, pendingBits);
+			if (take > 0) {
+				pendingBits -= take;
+				accumulator = accumulator << take | pending >>> pendingBits & (1 << take) - 1;
+				fieldBits += take;
+			}
+			if (fieldBits == size) {
+				values[field++] = accumulator;
+				accumulator = 0;
+				fieldBits = 0;
+			}
+		}
+		// Padding bits of the last byte
+		pendingBits = 0;
+		complete = true;
+		return true;
+	}
+
+	/**
+	 * Method used to get the value of a decoded field
+	 *
+	 * @param pField
+	 *            index of the field
+	 * @return the value
+	 */
+	public long getValue(final int pField) {
+		checkField(pField);
+		return values[pField];
+	}
+
+	/**
+	 * Method used to get the value of a decoded field as a signed value
+	 *
+	 * @param pField
+	 *            index of the field
+	 * @return the value
+	 */
+	public long getValueSigned(final int pField) {
+		checkField(pField);
+		int shift = Long.SIZE - sizes[pField];
+		return values[pField] << shift >> shift;
+	}
+
+	/**
+	 * Method used to get the number of fields of the layout
+	 *
+	 * @return the number of fields
+	 */
+	public int getFieldCount() {
+		return sizes.length;
+	}
+
+	/**
+	 * Method used to get the field being decoded
+	 *
+	 * @return the index of the field, or the number of fields when the record
+	 *         is complete
+	 */
+	public int getField() {
+		return field;
+	}
+
+	/**
+	 * Method used to test if the record is complete
+	 *
+	 * @return true if all the fields are decoded
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * Method used to drop the record being decoded and start a new one
+	 */
+	public void reset() {
+		field = 0;
+		accumulator = 0;
+		fieldBits = 0;
+		pendingBits = 0;
+		complete = false;
+	}
+
+	/**
+	 * Method used to check that a field is decoded
+	 *
+	 * @param pField
+	 *            index of the field
+	 */
+	private void checkField(final int pField) {
+		if (pField < 0 || pField >= sizes.length) {
+			throw new IllegalArgumentException("Invalid field index: " + pField);
+		}
+		if (pField >= field) {
+			throw new IllegalStateException("Field " + pField + " is not decoded yet");
+		}
+	}
+}
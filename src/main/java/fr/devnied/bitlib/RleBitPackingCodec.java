@@ -0,0 +1,214 @@
+package fr.devnied.bitlib;
+
+import java.util.Arrays;
+
+/**
+ * Class used to store integers of a fixed width with the run length / bit
+ * packing hybrid encoding of Parquet.<br>
+ * The data is a sequence of sections, each one starting with a LEB128 varint
+ * header:
+ *
+ * <pre>
+ * (count &lt;&lt; 1) | 0       run: the value repeated count times, stored on
+ *                       ceil(width / 8) bytes
+ * (groups &lt;&lt; 1) | 1      literal: groups * 8 values packed on width bits
+ * </pre>
+ *
+ * The encoder uses a run for each sequence of at least 8 equal values and
+ * literal groups for the other values. The packed values are written in the
+ * BitUtils order (most significant bit first) and the run values in big
+ * endian. The number of values is not stored: the decoder must know it.
+ *
+ * @author Millau Julien
+ *
+ */
+public final class RleBitPackingCodec {
+
+	/**
+	 * Number of values in a literal group
+	 */
+	private static final int GROUP_SIZE = 8;
+
+	/**
+	 * Minimum number of equal values to use a run
+	 */
+	private static final int MIN_RUN = 8;
+
+	/**
+	 * Max size in bits of a header
+	 */
+	private static final int MAX_HEADER_BITS = 5 * BitUtils.BYTE_SIZE;
+
+	/**
+	 * Width of the values in bit
+	 */
+	private final int width;
+
+	/**
+	 * Size in bits of a run value
+	 */
+	private final int runValueSize;
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pWidth
+	 *            width of the values in bit (0 to 32)
+	 */
+	public RleBitPackingCodec(final int pWidth) {
+		if (pWidth < 0 || pWidth > Integer.SIZE) {
+			throw new IllegalArgumentException("Width must be between 0 and 32. pWidth=" + pWidth);
+		}
+		width = pWidth;
+		runValueSize = (pWidth + BitUtils.BYTE_SIZE - 1) / BitUtils.BYTE_SIZE * BitUtils.BYTE_SIZE;
+	}
+
+	/**
+	 * Method used to get the max size of encoded values
+	 *
+	 * @param pCount
+	 *            number of values
+	 * @return the max number of bits written by encode
+	 */
+	public long getMaxEncodedBits(final int pCount) {
+		// Runs of 8 values or more, literal sections between two runs
+		long sections = pCount / MIN_RUN + 1L;
+		return (long) pCount * (width + runValueSize + MAX_HEADER_BITS) / MIN_RUN + sections * MAX_HEADER_BITS
+				+ (long) pCount * width + (long) GROUP_SIZE * width;
+	}
+
+	/**
+	 * Method used to encode values
+	 *
+	 * @param pOut
+	 *            the bit utils to write to
+	 * @param pValues
+	 *            the values (lower than 2^width)
+	 * @param pOffset
+	 *            index of the first value
+	 * @param pLength
+	 *            number of values
+	 */
+	public void encode(final BitUtils pOut, final int[] pValues, final int pOffset, final int pLength) {
+		checkRange(pValues, pOffset, pLength);
+		int end = pOffset + pLength;
+		int index = pOffset;
+		while (index < end) {
+			int run = getRunLength(pValues, index, end);
+			if (run >= MIN_RUN) {
+				// Header as a long: run << 1 overflows an int from 2^30 values
+				pOut.setNextVarLong((long) run << 1);
+				pOut.setNextLong(pValues[index] & 0xFFFFFFFFL, runValueSize);
+				index += run;
+				continue;
+			}
+			// Literal values until a run long enough after the groups padding
+			int literalEnd = index;
+			while (literalEnd < end) {
+				int length = getRunLength(pValues, literalEnd, end);
+				int padding = (GROUP_SIZE - (literalEnd - index) % GROUP_SIZE) % GROUP_SIZE;
+				if (length >= padding + MIN_RUN) {
+					literalEnd += padding;
+					break;
+				}
+				literalEnd += length;
+			}
+			int count = literalEnd - index;
+			int groups = (count + GROUP_SIZE - 1) / GROUP_SIZE;
+			pOut.setNextVarInteger(groups << 1 | 1);
+			pOut.setNextIntegers(pValues, index, count, width);
+			// Last group padded with zeros
+			pOut.addCurrentBitIndex((groups * GROUP_SIZE - count) * width);
+			index = literalEnd;
+		}
+	}
+
+	/**
+	 * Method used to decode values
+	 *
+	 * @param pIn
+	 *            the bit utils to read from
+	 * @param pValues
+	 *            the array to fill
+	 * @param pOffset
+	 *            index of the first value in the array
+	 * @param pLength
+	 *            number of values to read
+	 */
+	public void decode(final BitUtils pIn, final int[] pValues, final int pOffset, final int pLength) {
+		if (pValues == null) {
+			throw new IllegalArgumentException("Parameter 'pValues' cannot be null");
+		}
+		if (pOffset < 0 || pLength < 0 || pValues.length < (long) pOffset + pLength) {
+			throw new IllegalArgumentException("Length or offset not valid");
+		}
+		int index = pOffset;
+		int end = pOffset + pLength;
+		while (index < end) {
+			long header = pIn.getNextVarLong();
+			long count = header >>> 1;
+			if ((header & 1) == 0) {
+				if (count == 0 || count > end - index) {
+					throw new IllegalArgumentException("Invalid run of " + count + " values, " + (end - index) + " expected");
+				}
+				Arrays.fill(pValues, index, index + (int) count, (int) pIn.getNextLong(runValueSize));
+				index += (int) count;
+			} else {
+				long values = count * GROUP_SIZE;
+				if (count == 0 || values - GROUP_SIZE >= end - index) {
+					throw new IllegalArgumentException("Invalid literal of " + count + " groups, " + (end - index) + " values expected");
+				}
+				int read = (int) Math.min(values, end - index);
+				pIn.getNextIntegers(pValues, index, read, width);
+				pIn.addCurrentBitIndex((int) (values - read) * width);
+				index += read;
+			}
+		}
+	}
+
+	/**
+	 * Method used to get the number of equal values
+	 *
+	 * @param pValues
+	 *            the values
+	 * @param pIndex
+	 *            index of the first value
+	 * @param pEnd
+	 *            index after the last value
+	 * @return the number of values equal to the first one
+	 */
+	private static int getRunLength(final int[] pValues, final int pIndex, final int pEnd) {
+		int value = pValues[pIndex];
+		int index = pIndex + 1;
+		while (index < pEnd && pValues[index] == value) {
+			index++;
+		}
+		return index - pIndex;
+	}
+
+	/**
+	 * Method used to check the values to encode
+	 *
+	 * @param pValues
+	 *            the values
+	 * @param pOffset
+	 *            index of the first value
+	 * @param pLength
+	 *            number of values
+	 */
+	private void checkRange(final int[] pValues, final int pOffset, final int pLength) {
+		if (pValues == null) {
+			throw new IllegalArgumentException("Parameter 'pValues' cannot be null");
+		}
+		if (pOffset < 0 || pLength < 0 || pValues.length < (long) pOffset + pLength) {
+			throw new IllegalArgumentException("Length or offset not valid");
+		}
+		if (width < Integer.SIZE) {
+			for (int i = pOffset; i < pOffset + pLength; i++) {
+				if (pValues[i] >>> width != 0) {
+					throw new IllegalArgumentException("Value " + pValues[i] + " at index " + i + " doesn't fit in " + width + " bits");
+				}
+			}
+		}
+	}
+}
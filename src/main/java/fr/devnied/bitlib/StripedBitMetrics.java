@@ -0,0 +1,154 @@
+package fr.devnied.bitlib;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class used to count the events of the bit codecs.<br>
+ * The counters are {@link LongAdder}: the updates of different threads go to
+ * different cells and do not contend, the sum is computed when a getter is
+ * called.
+ *
+ * <pre>
+ * StripedBitMetrics metrics = new StripedBitMetrics();
+ * BitMetrics.setDefault(metrics);
+ * ...
+ * metrics.getSlowPathHits();
+ * </pre>
+ *
+ * @author Millau Julien
+ *
+ */
+public final class StripedBitMetrics extends BitMetrics {
+
+	/**
+	 * Bits read
+	 */
+	private final LongAdder bitsRead = new LongAdder();
+
+	/**
+	 * Bits written
+	 */
+	private final LongAdder bitsWritten = new LongAdder();
+
+	/**
+	 * Bytes allocated
+	 */
+	private final LongAdder bytesAllocated = new LongAdder();
+
+	/**
+	 * Fast path hits
+	 */
+	private final LongAdder fastPath = new LongAdder();
+
+	/**
+	 * Slow path hits
+	 */
+	private final LongAdder slowPath = new LongAdder();
+
+	/**
+	 * Decode errors
+	 */
+	private final LongAdder decodeErrors = new LongAdder();
+
+	@Override
+	public void bitsRead(final int pCount) {
+		bitsRead.add(pCount);
+	}
+
+	@Override
+	public void bitsWritten(final int pCount) {
+		bitsWritten.add(pCount);
+	}
+
+	@Override
+	public void bytesAllocated(final int pCount) {
+		bytesAllocated.add(pCount);
+	}
+
+	@Override
+	public void fastPath() {
+		fastPath.increment();
+	}
+
+	@Override
+	public void slowPath() {
+		slowPath.increment();
+	}
+
+	@Override
+	public void decodeError() {
+		decodeErrors.increment();
+	}
+
+	/**
+	 * Getter for the bits read
+	 *
+	 * @return the number of bits read
+	 */
+	public long getBitsRead() {
+		return bitsRead.sum();
+	}
+
+	/**
+	 * Getter for the bits written
+	 *
+	 * @return the number of bits written
+	 */
+	public long getBitsWritten() {
+		return bitsWritten.sum();
+	}
+
+	/**
+	 * Getter for the bytes allocated
+	 *
+	 * @return the number of bytes allocated
+	 */
+	public long getBytesAllocated() {
+		return bytesAllocated.sum();
+	}
+
+	/**
+	 * Getter for the fast path hits
+	 *
+	 * @return the number of values read or written with the fast path
+	 */
+	public long getFastPathHits() {
+		return fastPath.sum();
+	}
+
+	/**
+	 * Getter for the slow path hits
+	 *
+	 * @return the number of values read or written with the slow path
+	 */
+	public long getSlowPathHits() {
+		return slowPath.sum();
+	}
+
+	/**
+	 * Getter for the decode errors
+	 *
+	 * @return the number of decode errors
+	 */
+	public long getDecodeErrors() {
+		return decodeErrors.sum();
+	}
+
+	/**
+	 * Method used to reset all the counters
+	 */
+	public void reset() {
+		bitsRead.reset();
+		bitsWritten.reset();
+		bytesAllocated.reset();
+		fastPath.reset();
+		slowPath.reset();
+		decodeErrors.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "bitsRead=" + getBitsRead() + " bitsWritten=" + getBitsWritten() + " bytesAllocated=" + getBytesAllocated()
+				+ " fastPath=" + getFastPathHits() + " slowPath=" + getSlowPathHits() + " decodeErrors=" + getDecodeErrors();
+	}
+}
@@ -0,0 +1,508 @@
+package fr.devnied.bitlib;
+
+import java.util.Arrays;
+
+/**
+ * Class used to index the tags of a BER-TLV byte array.<br>
+ * The index is built in one pass over the data and gives the offset and the
+ * length of the value of a tag in constant time. Tags inside constructed
+ * objects are indexed too and can be retrieved with their path (Ex: 70 / 5A).<br>
+ * The same index can be reused for several messages without reallocation.
+ *
+ * @author Millau Julien
+ *
+ */
+public final class TlvIndex {
+
+	/**
+	 * Default number of entries
+	 */
+	private static final int DEFAULT_CAPACITY = 32;
+
+	/**
+	 * Mask of the constructed bit in the first tag byte
+	 */
+	private static final int CONSTRUCTED_MASK = 0x20;
+
+	/**
+	 * Mask used to detect a tag on several bytes
+	 */
+	private static final int TAG_NUMBER_MASK = 0x1F;
+
+	/**
+	 * Mask of the "more bytes" bit in tag and length bytes
+	 */
+	private static final int MORE_BYTES_MASK = 0x80;
+
+	/**
+	 * Max number of bytes used to encode a length
+	 */
+	private static final int MAX_LENGTH_BYTES = 4;
+
+	/**
+	 * Parent value of the root entries
+	 */
+	private static final int NO_PARENT = -1;
+
+	/**
+	 * Indexed data
+	 */
+	private byte[] data;
+
+	/**
+	 * Tag of each entry
+	 */
+	private int[] tags;
+
+	/**
+	 * Parent entry of each entry
+	 */
+	private int[] parents;
+
+	/**
+	 * Offset of the value of each entry
+	 */
+	private int[] offsets;
+
+	/**
+	 * Length of the value of each entry
+	 */
+	private int[] lengths;
+
+	/**
+	 * Number of entries
+	 */
+	private int count;
+
+	/**
+	 * Open addressing table (parent, tag) to entry + 1
+	 */
+	private int[] pathTable;
+
+	/**
+	 * Open addressing table tag to first entry + 1
+	 */
+	private int[] tagTable;
+
+	/**
+	 * Stack of parent entries used during parsing
+	 */
+	private int[] parentStack;
+
+	/**
+	 * Stack of parent end offsets used during parsing
+	 */
+	private int[] endStack;
+
+	/**
+	 * Default constructor
+	 */
+	public TlvIndex() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pExpectedEntries
+	 *            number of entries expected in a message
+	 */
+	public TlvIndex(final int pExpectedEntries) {
+		if (pExpectedEntries <= 0) {
+			throw new IllegalArgumentException("Expected entries must be greater than 0. pExpectedEntries=" + pExpectedEntries);
+		}
+		allocate(pExpectedEntries);
+		parentStack = new int[8];
+		endStack = new int[8];
+	}
+
+	/**
+	 * Method used to index a byte array
+	 *
+	 * @param pData
+	 *            BER-TLV data to index
+	 */
+	public void build(final byte[] pData) {
+		if (pData == null) {
+			throw new IllegalArgumentException("Parameter 'pData' cannot be null");
+		}
+		build(pData, 0, pData.length);
+	}
+
+	/**
+	 * Method used to index a part of a byte array.<br>
+	 * The data are not copied and must not be modified while the index is used.
+	 *
+	 * @param pData
+	 *            BER-TLV data to index
+	 * @param pOffset
+	 *            offset of the first TLV
+	 * @param pLength
+	 *            length of the data to index
+	 */
+	public void build(final byte[] pData, final int pOffset, final int pLength) {
+		if (pData == null) {
+			throw new IllegalArgumentException("Parameter 'pData' cannot be null");
+		}
+		if (pOffset < 0 || pLength < 0 || pData.length < (long) pOffset + pLength) {
+			throw new IllegalArgumentException("Length or offset not valid");
+		}
+		clear();
+		data = pData;
+		int pos = pOffset;
+		int parent = NO_PARENT;
+		int parentEnd = pOffset + pLength;
+		int depth = 0;
+		for (;;) {
+			if (pos >= parentEnd) {
+				if (depth == 0) {
+					break;
+				}
+				depth--;
+				parent = parentStack[depth];
+				parentEnd = endStack[depth];
+				continue;
+			}
+			// Skip padding bytes between objects
+			if (pData[pos] == 0) {
+				pos++;
+				continue;
+			}
+			// Read tag
+			int first = pData[pos++] & 0xFF;
+			int tag = first;
+			if ((first & TAG_NUMBER_MASK) == TAG_NUMBER_MASK) {
+				int b;
+				do {
+					if (pos >= parentEnd || tag > 0xFFFFFF) {
+						throw new IllegalArgumentException("Invalid tag at offset " + pos);
+					}
+					b = pData[pos++] & 0xFF;
+					tag = tag << 8 | b;
+				} while ((b & MORE_BYTES_MASK) != 0);
+			}
+			// Read length
+			if (pos >= parentEnd) {
+				throw new IllegalArgumentException("Missing length at offset " + pos);
+			}
+			int length = pData[pos++] & 0xFF;
+			if (length == MORE_BYTES_MASK) {
+				throw new IllegalArgumentException("Indefinite length not supported at offset " + (pos - 1));
+			}
+			if (length > MORE_BYTES_MASK) {
+				int nbBytes = length & ~MORE_BYTES_MASK;
+				if (nbBytes > MAX_LENGTH_BYTES || nbBytes > parentEnd - pos) {
+					throw new IllegalArgumentException("Invalid length at offset " + (pos - 1));
+				}
+				length = 0;
+				for (int i = 0; i < nbBytes; i++) {
+					length = length << 8 | pData[pos++] & 0xFF;
+				}
+			}
+			if (length < 0 || length > parentEnd - pos) {
+				throw new IllegalArgumentException("Invalid TLV length " + length + " at offset " + pos);
+			}
+			int entry = add(tag, parent, pos, length);
+			if ((first & CONSTRUCTED_MASK) != 0) {
+				if (depth == parentStack.length) {
+					parentStack = Arrays.copyOf(parentStack, depth * 2);
+					endStack = Arrays.copyOf(endStack, depth * 2);
+				}
+				parentStack[depth] = parent;
+				endStack[depth] = parentEnd;
+				depth++;
+				parent = entry;
+				parentEnd = pos + length;
+			} else {
+				pos += length;
+			}
+		}
+	}
+
+	/**
+	 * Method used to clear the index without releasing memory
+	 */
+	public void clear() {
+		if (count > 0) {
+			Arrays.fill(pathTable, 0);
+			Arrays.fill(tagTable, 0);
+			count = 0;
+		}
+		data = null;
+	}
+
+	/**
+	 * Method used to get the number of indexed tags
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Method used to get the first entry with the given tag at any depth
+	 *
+	 * @param pTag
+	 *            tag to find (Ex 0x9F02)
+	 * @return the entry or -1 if not found
+	 */
+	public int indexOf(final int pTag) {
+		int mask = tagTable.length - 1;
+		int index = hash(pTag, NO_PARENT) & mask;
+		int value;
+		while ((value = tagTable[index]) != 0) {
+			if (tags[value - 1] == pTag) {
+				return value - 1;
+			}
+			index = index + 1 & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Method used to get the first child entry of a constructed entry with the
+	 * given tag
+	 *
+	 * @param pParent
+	 *            the parent entry or -1 for the root level
+	 * @param pTag
+	 *            the tag to find
+	 * @return the entry or -1 if not found
+	 */
+	public int indexOfChild(final int pParent, final int pTag) {
+		int mask = pathTable.length - 1;
+		int index = hash(pTag, pParent) & mask;
+		int value;
+		while ((value = pathTable[index]) != 0) {
+			if (tags[value - 1] == pTag && parents[value - 1] == pParent) {
+				return value - 1;
+			}
+			index = index + 1 & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Method used to get an entry with the path of tags from the root level
+	 *
+	 * @param pPath
+	 *            tags of the path (Ex 0x70, 0x5A)
+	 * @return the entry or -1 if not found
+	 */
+	public int indexOfPath(final int... pPath) {
+		int entry = NO_PARENT;
+		for (int tag : pPath) {
+			entry = indexOfChild(entry, tag);
+			if (entry < 0) {
+				break;
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * Method used to know if a tag is present at any depth
+	 *
+	 * @param pTag
+	 *            the tag to find
+	 * @return true if the tag is indexed
+	 */
+	public boolean contains(final int pTag) {
+		return indexOf(pTag) >= 0;
+	}
+
+	/**
+	 * Method used to get a copy of the value of the first entry with the given
+	 * tag
+	 *
+	 * @param pTag
+	 *            the tag to find
+	 * @return the value or null if not found
+	 */
+	public byte[] getValue(final int pTag) {
+		int entry = indexOf(pTag);
+		byte[] ret = null;
+		if (entry >= 0) {
+			ret = Arrays.copyOfRange(data, offsets[entry], offsets[entry] + lengths[entry]);
+		}
+		return ret;
+	}
+
+	/**
+	 * Getter for the tag of an entry
+	 *
+	 * @param pEntry
+	 *            the entry
+	 * @return the tag
+	 */
+	public int getTag(final int pEntry) {
+		checkEntry(pEntry);
+		return tags[pEntry];
+	}
+
+	/**
+	 * Getter for the parent of an entry
+	 *
+	 * @param pEntry
+	 *            the entry
+	 * @return the parent entry or -1 for the root level
+	 */
+	public int getParent(final int pEntry) {
+		checkEntry(pEntry);
+		return parents[pEntry];
+	}
+
+	/**
+	 * Getter for the offset of the value of an entry in the indexed array
+	 *
+	 * @param pEntry
+	 *            the entry
+	 * @return the value offset
+	 */
+	public int getValueOffset(final int pEntry) {
+		checkEntry(pEntry);
+		return offsets[pEntry];
+	}
+
+	/**
+	 * Getter for the length of the value of an entry
+	 *
+	 * @param pEntry
+	 *            the entry
+	 * @return the value length in bytes
+	 */
+	public int getValueLength(final int pEntry) {
+		checkEntry(pEntry);
+		return lengths[pEntry];
+	}
+
+	/**
+	 * Method used to know if an entry is a constructed object
+	 *
+	 * @param pEntry
+	 *            the entry
+	 * @return true if the entry contains other TLV
+	 */
+	public boolean isConstructed(final int pEntry) {
+		int tag = getTag(pEntry);
+		int first = tag >>> (Integer.SIZE - Integer.numberOfLeadingZeros(tag) - 1) / BitUtils.BYTE_SIZE * BitUtils.BYTE_SIZE;
+		return (first & CONSTRUCTED_MASK) != 0;
+	}
+
+	/**
+	 * Method used to check an entry
+	 *
+	 * @param pEntry
+	 *            the entry to check
+	 */
+	private void checkEntry(final int pEntry) {
+		if (pEntry < 0 || pEntry >= count) {
+			throw new IllegalArgumentException("Invalid entry. pEntry=" + pEntry);
+		}
+	}
+
+	/**
+	 * Method used to add an entry
+	 *
+	 * @param pTag
+	 *            entry tag
+	 * @param pParent
+	 *            parent entry
+	 * @param pOffset
+	 *            value offset
+	 * @param pLength
+	 *            value length
+	 * @return the new entry
+	 */
+	private int add(final int pTag, final int pParent, final int pOffset, final int pLength) {
+		if (count == tags.length) {
+			grow();
+		}
+		int entry = count++;
+		tags[entry] = pTag;
+		parents[entry] = pParent;
+		offsets[entry] = pOffset;
+		lengths[entry] = pLength;
+		insert(pathTable, hash(pTag, pParent), entry, true);
+		insert(tagTable, hash(pTag, NO_PARENT), entry, false);
+		return entry;
+	}
+
+	/**
+	 * Method used to insert an entry in a table if its key is not present
+	 *
+	 * @param pTable
+	 *            the table
+	 * @param pHash
+	 *            hash of the key
+	 * @param pEntry
+	 *            the entry to insert
+	 * @param pWithParent
+	 *            true if the parent is a part of the key
+	 */
+	private void insert(final int[] pTable, final int pHash, final int pEntry, final boolean pWithParent) {
+		int mask = pTable.length - 1;
+		int index = pHash & mask;
+		int value;
+		while ((value = pTable[index]) != 0) {
+			if (tags[value - 1] == tags[pEntry] && (!pWithParent || parents[value - 1] == parents[pEntry])) {
+				// Keep the first occurrence
+				return;
+			}
+			index = index + 1 & mask;
+		}
+		pTable[index] = pEntry + 1;
+	}
+
+	/**
+	 * Method used to double the capacity of the index
+	 */
+	private void grow() {
+		int[] oldTags = tags;
+		int[] oldParents = parents;
+		int[] oldOffsets = offsets;
+		int[] oldLengths = lengths;
+		int oldCount = count;
+		allocate(oldTags.length * 2);
+		System.arraycopy(oldTags, 0, tags, 0, oldCount);
+		System.arraycopy(oldParents, 0, parents, 0, oldCount);
+		System.arraycopy(oldOffsets, 0, offsets, 0, oldCount);
+		System.arraycopy(oldLengths, 0, lengths, 0, oldCount);
+		for (int i = 0; i < oldCount; i++) {
+			insert(pathTable, hash(tags[i], parents[i]), i, true);
+			insert(tagTable, hash(tags[i], NO_PARENT), i, false);
+		}
+	}
+
+	/**
+	 * Method used to allocate the arrays of the index
+	 *
+	 * @param pCapacity
+	 *            number of entries
+	 */
+	private void allocate(final int pCapacity) {
+		tags = new int[pCapacity];
+		parents = new int[pCapacity];
+		offsets = new int[pCapacity];
+		lengths = new int[pCapacity];
+		// Load factor lower than 0.5
+		int tableSize = Integer.highestOneBit(pCapacity * 2 - 1) << 1;
+		pathTable = new int[tableSize];
+		tagTable = new int[tableSize];
+	}
+
+	/**
+	 * Hash function of a key
+	 *
+	 * @param pTag
+	 *            the tag
+	 * @param pParent
+	 *            the parent entry
+	 * @return the hash
+	 */
+	private static int hash(final int pTag, final int pParent) {
+		int h = pTag * 0x9E3779B9 ^ (pParent + 1) * 0x85EBCA6B;
+		return h ^ h >>> 16;
+	}
+}
@@ -0,0 +1,248 @@
+package fr.devnied.bitlib;
+
+import java.util.Arrays;
+
+/**
+ * Class used to write BER-TLV data with a BitUtils.<br>
+ * Constructed tags are opened, filled with their children and closed. The
+ * length is written when the tag is closed: one byte is reserved when the tag
+ * is opened and the value is shifted in place only if the length needs the
+ * long form.
+ *
+ * <pre>
+ * BitUtils bit = new BitUtils(256 * 8);
+ * TlvWriter writer = new TlvWriter(bit);
+ * writer.openTag(0x70);
+ * writer.writeTlv(0x5A, pan);
+ * writer.closeTag();
+ * </pre>
+ *
+ * The BitUtils must be empty after its current index: data are written with
+ * the BitUtils write methods.
+ *
+ * @author Millau Julien
+ *
+ */
+public final class TlvWriter {
+
+	/**
+	 * Max length encoded on one byte
+	 */
+	private static final int SHORT_LENGTH_MAX = 0x7F;
+
+	/**
+	 * First byte of the long form length
+	 */
+	private static final int LONG_LENGTH_FLAG = 0x80;
+
+	/**
+	 * Bit utils used to write data
+	 */
+	private final BitUtils bit;
+
+	/**
+	 * Index in the byte tab of the reserved length of each opened tag
+	 */
+	private int[] lengthOffsets = new int[8];
+
+	/**
+	 * Number of opened tags
+	 */
+	private int depth;
+
+	/**
+	 * Constructor of the class
+	 *
+	 * @param pBit
+	 *            the bit utils used to write data
+	 */
+	public TlvWriter(final BitUtils pBit) {
+		if (pBit == null) {
+			throw new IllegalArgumentException("Parameter 'pBit' cannot be null");
+		}
+		bit = pBit;
+	}
+
+	/**
+	 * Method used to open a constructed tag
+	 *
+	 * @param pTag
+	 *            the tag to open (Ex 0x70)
+	 */
+	public void openTag(final int pTag) {
+		int tagSize = getTagSize(pTag);
+		ensureCapacity(tagSize + 1);
+		writeTag(pTag, tagSize);
+		if (depth == lengthOffsets.length) {
+			lengthOffsets = Arrays.copyOf(lengthOffsets, depth * 2);
+		}
+		lengthOffsets[depth++] = getByteIndex();
+		// Reserve the length byte
+		bit.addCurrentBitIndex(BitUtils.BYTE_SIZE);
+	}
+
+	/**
+	 * Method used to close the last opened tag and write its length
+	 */
+	public void closeTag() {
+		if (depth == 0) {
+			throw new IllegalStateException("No tag to close");
+		}
+		checkAlignment();
+		byte[] data = bit.getByteTab();
+		int lengthOffset = lengthOffsets[--depth];
+		int valueOffset = lengthOffset + 1;
+		int length = getByteIndex() - valueOffset;
+		int lengthSize = getLengthSize(length);
+		if (lengthSize > 1) {
+			ensureCapacity(lengthSize - 1);
+			System.arraycopy(data, valueOffset, data, valueOffset + lengthSize - 1, length);
+			bit.addCurrentBitIndex((lengthSize - 1) * BitUtils.BYTE_SIZE);
+		}
+		writeLength(data, lengthOffset, length, lengthSize);
+	}
+
+	/**
+	 * Method used to write a primitive tag
+	 *
+	 * @param pTag
+	 *            the tag (Ex 0x9F02)
+	 * @param pValue
+	 *            the value of the tag
+	 */
+	public void writeTlv(final int pTag, final byte[] pValue) {
+		if (pValue == null) {
+			throw new IllegalArgumentException("Parameter 'pValue' cannot be null");
+		}
+		int tagSize = getTagSize(pTag);
+		int lengthSize = getLengthSize(pValue.length);
+		ensureCapacity(tagSize + lengthSize + pValue.length);
+		writeTag(pTag, tagSize);
+		writeLength(bit.getByteTab(), getByteIndex(), pValue.length, lengthSize);
+		bit.addCurrentBitIndex(lengthSize * BitUtils.BYTE_SIZE);
+		writeValue(pValue);
+	}
+
+	/**
+	 * Method used to write raw bytes in the current object
+	 *
+	 * @param pValue
+	 *            the bytes to write
+	 */
+	public void writeValue(final byte[] pValue) {
+		if (pValue == null) {
+			throw new IllegalArgumentException("Parameter 'pValue' cannot be null");
+		}
+		ensureCapacity(pValue.length);
+		if (pValue.length > 0) {
+			bit.setNextByte(pValue, pValue.length * BitUtils.BYTE_SIZE);
+		}
+	}
+
+	/**
+	 * Getter for the number of opened tags
+	 *
+	 * @return the depth
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Method used to get the number of bytes of a BER length
+	 *
+	 * @param pLength
+	 *            the length to encode
+	 * @return the size of the encoded length in bytes
+	 */
+	public static int getLengthSize(final int pLength) {
+		if (pLength < 0) {
+			throw new IllegalArgumentException("Length must be positive. pLength=" + pLength);
+		}
+		if (pLength <= SHORT_LENGTH_MAX) {
+			return 1;
+		}
+		return 1 + (Integer.SIZE - Integer.numberOfLeadingZeros(pLength) + BitUtils.BYTE_SIZE - 1) / BitUtils.BYTE_SIZE;
+	}
+
+	/**
+	 * Method used to get the number of bytes of a tag
+	 *
+	 * @param pTag
+	 *            the tag
+	 * @return the size of the tag in bytes
+	 */
+	private static int getTagSize(final int pTag) {
+		if (pTag == 0) {
+			throw new IllegalArgumentException("Invalid tag. pTag=0");
+		}
+		return (Integer.SIZE - Integer.numberOfLeadingZeros(pTag) + BitUtils.BYTE_SIZE - 1) / BitUtils.BYTE_SIZE;
+	}
+
+	/**
+	 * Method used to get the index in the byte tab of the current byte, the
+	 * bit utils can be a view starting after the first byte
+	 *
+	 * @return the byte index
+	 */
+	private int getByteIndex() {
+		return bit.getOffset() + bit.getCurrentBitIndex() / BitUtils.BYTE_SIZE;
+	}
+
+	/**
+	 * Method used to write a tag
+	 *
+	 * @param pTag
+	 *            the tag
+	 * @param pTagSize
+	 *            size of the tag in bytes
+	 */
+	private void writeTag(final int pTag, final int pTagSize) {
+		bit.setNextLong(pTag & 0xFFFFFFFFL, pTagSize * BitUtils.BYTE_SIZE);
+	}
+
+	/**
+	 * Method used to write a BER length in a byte array
+	 *
+	 * @param pData
+	 *            the byte array
+	 * @param pOffset
+	 *            offset of the length
+	 * @param pLength
+	 *            the length to write
+	 * @param pLengthSize
+	 *            the size of the encoded length
+	 */
+	private static void writeLength(final byte[] pData, final int pOffset, final int pLength, final int pLengthSize) {
+		if (pLengthSize == 1) {
+			pData[pOffset] = (byte) pLength;
+		} else {
+			pData[pOffset] = (byte) (LONG_LENGTH_FLAG | pLengthSize - 1);
+			for (int i = 1; i < pLengthSize; i++) {
+				pData[pOffset + i] = (byte) (pLength >>> (pLengthSize - 1 - i) * BitUtils.BYTE_SIZE);
+			}
+		}
+	}
+
+	/**
+	 * Method used to check that the current index is on a byte
+	 */
+	private void checkAlignment() {
+		if (bit.getCurrentBitIndex() % BitUtils.BYTE_SIZE != 0) {
+			throw new IllegalStateException("Current bit index must be a multiple of 8. index=" + bit.getCurrentBitIndex());
+		}
+	}
+
+	/**
+	 * Method used to check the remaining space
+	 *
+	 * @param pBytes
+	 *            number of bytes to write
+	 */
+	private void ensureCapacity(final int pBytes) {
+		checkAlignment();
+		if ((long) bit.getCurrentBitIndex() + (long) pBytes * BitUtils.BYTE_SIZE > bit.getSize()) {
+			throw new IllegalStateException("Not enough space to write " + pBytes + " bytes");
+		}
+	}
+}
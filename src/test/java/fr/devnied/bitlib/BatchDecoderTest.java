@@ -0,0 +1,87 @@
+package fr.devnied.bitlib;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the batch decoder
+ *
+ * @author Millau Julien
+ *
+ */
+public final class BatchDecoderTest {
+
+	/**
+	 * Test the results order and the reuse of the views
+	 */
+	@Test
+	public void testDecode() {
+		Random random = new Random(3);
+		byte[][] messages = new byte[5000][];
+		Long[] expected = new Long[messages.length];
+		for (int i = 0; i < messages.length; i++) {
+			messages[i] = new byte[1 + random.nextInt(8)];
+			random.nextBytes(messages[i]);
+			expected[i] = new BitUtils(messages[i]).getNextLong(messages[i].length * 8);
+		}
+		final Map<BitUtils, Boolean> views = Collections.synchronizedMap(new IdentityHashMap<BitUtils, Boolean>());
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			BatchDecoder<Long> batch = new BatchDecoder<Long>(new BatchDecoder.Decoder<Long>() {
+				@Override
+				public Long decode(final BitUtils pView, final byte[] pScratch) {
+					views.put(pView, Boolean.TRUE);
+					Assertions.assertThat(pScratch.length).isEqualTo(16);
+					return pView.getNextLong(pView.getSize());
+				}
+			}, pool, 16, 32);
+			Long[] results = batch.decode(messages, new Long[messages.length]);
+			Assertions.assertThat(results).isEqualTo(expected);
+			// One view per thread of the pool, the caller may help
+			Assertions.assertThat(views.size()).isLessThanOrEqualTo(5);
+
+			results = batch.decode(Arrays.asList(messages), new Long[messages.length + 1]);
+			Assertions.assertThat(Arrays.copyOf(results, messages.length)).isEqualTo(expected);
+			Assertions.assertThat(results[messages.length]).isNull();
+			Assertions.assertThat(batch.decode(new byte[0][], new Long[0])).isEmpty();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Test the errors
+	 */
+	@Test
+	public void testErrors() {
+		BatchDecoder<Integer> batch = new BatchDecoder<Integer>(new BatchDecoder.Decoder<Integer>() {
+			@Override
+			public Integer decode(final BitUtils pView, final byte[] pScratch) {
+				return pView.getNextInteger(16);
+			}
+		});
+		try {
+			batch.decode(new byte[3][2], new Integer[2]);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		byte[][] messages = new byte[200][2];
+		messages[150] = new byte[1];
+		try {
+			batch.decode(messages, new Integer[200]);
+			Assert.fail();
+		} catch (IndexOutOfBoundsException e) {
+			Assert.assertTrue(true);
+		}
+		Assertions.assertThat(batch.decode(new byte[][] { { 1, 2 } }, new Integer[1])[0]).isEqualTo(0x102);
+	}
+}
@@ -0,0 +1,215 @@
+package fr.devnied.bitlib;
+
+import java.util.Random;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the bulk bit operations
+ *
+ * @author Millau Julien
+ *
+ */
+public final class BitArrayUtilsTest {
+
+	/**
+	 * Test the operations on whole arrays
+	 */
+	@Test
+	public void testArrays() {
+		byte[] first = BytesUtils.fromString("F0 0F AA");
+		byte[] second = BytesUtils.fromString("FF 00 0F");
+		Assertions.assertThat(BytesUtils.bytesToStringNoSpace(BitArrayUtils.and(first, second))).isEqualTo("F0000A");
+		Assertions.assertThat(BytesUtils.bytesToStringNoSpace(BitArrayUtils.or(first, second))).isEqualTo("FF0FAF");
+		Assertions.assertThat(BytesUtils.bytesToStringNoSpace(BitArrayUtils.xor(first, second))).isEqualTo("0F0FA5");
+		Assertions.assertThat(BytesUtils.bytesToStringNoSpace(BitArrayUtils.andNot(first, second))).isEqualTo("000FA0");
+		Assertions.assertThat(BytesUtils.bytesToStringNoSpace(first)).isEqualTo("F00FAA");
+
+		byte[] data = new byte[3];
+		BitArrayUtils.fill(data, 3, 14);
+		Assertions.assertThat(BytesUtils.bytesToStringNoSpace(data)).isEqualTo("1FFF80");
+		BitArrayUtils.not(data, 0, 8);
+		Assertions.assertThat(BytesUtils.bytesToStringNoSpace(data)).isEqualTo("E0FF80");
+		BitArrayUtils.clear(data, 9, 6);
+		Assertions.assertThat(BytesUtils.bytesToStringNoSpace(data)).isEqualTo("E08180");
+		Assertions.assertThat(BitArrayUtils.cardinality(data, 0, 24)).isEqualTo(6);
+		Assertions.assertThat(BitArrayUtils.cardinality(data, 2, 14)).isEqualTo(3);
+		Assertions.assertThat(BitArrayUtils.nextSetBit(data, 3, 24)).isEqualTo(8);
+		Assertions.assertThat(BitArrayUtils.nextSetBit(data, 17, 24)).isEqualTo(-1);
+		Assertions.assertThat(BitArrayUtils.nextClearBit(data, 0, 24)).isEqualTo(3);
+		Assertions.assertThat(BitArrayUtils.nextClearBit(data, 15, 17)).isEqualTo(-1);
+
+		try {
+			BitArrayUtils.and(first, new byte[2]);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		try {
+			BitArrayUtils.fill(data, 20, 5);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Compare with a naive implementation at random offsets
+	 */
+	@Test
+	public void testRandom() {
+		Random random = new Random(5);
+		for (int i = 0; i < 2000; i++) {
+			byte[] dst = new byte[1 + random.nextInt(40)];
+			byte[] src = new byte[1 + random.nextInt(40)];
+			random.nextBytes(dst);
+			random.nextBytes(src);
+			int length = random.nextInt(Math.min(dst.length, src.length) * BitUtils.BYTE_SIZE + 1);
+			int dstIndex = random.nextInt(dst.length * BitUtils.BYTE_SIZE - length + 1);
+			int srcIndex = random.nextInt(src.length * BitUtils.BYTE_SIZE - length + 1);
+			// Same alignment half of the time, for the byte path
+			int aligned = srcIndex - srcIndex % BitUtils.BYTE_SIZE + dstIndex % BitUtils.BYTE_SIZE;
+			if (aligned + length > src.length * BitUtils.BYTE_SIZE) {
+				aligned -= BitUtils.BYTE_SIZE;
+			}
+			if (random.nextBoolean() && aligned >= 0) {
+				srcIndex = aligned;
+			}
+			int operation = random.nextInt(7);
+
+			boolean[] expected = toBits(dst);
+			boolean[] source = toBits(src);
+			for (int j = 0; j < length; j++) {
+				boolean a = expected[dstIndex + j];
+				boolean b = source[srcIndex + j];
+				switch (operation) {
+				case 0:
+					expected[dstIndex + j] = a & b;
+					break;
+				case 1:
+					expected[dstIndex + j] = a | b;
+					break;
+				case 2:
+					expected[dstIndex + j] = a ^ b;
+					break;
+				case 3:
+					expected[dstIndex + j] = a & !b;
+					break;
+				case 4:
+					expected[dstIndex + j] = !a;
+					break;
+				case 5:
+					expected[dstIndex + j] = true;
+					break;
+				default:
+					expected[dstIndex + j] = false;
+					break;
+				}
+			}
+			switch (operation) {
+			case 0:
+				BitArrayUtils.and(dst, dstIndex, src, srcIndex, length);
+				break;
+			case 1:
+				BitArrayUtils.or(dst, dstIndex, src, srcIndex, length);
+				break;
+			case 2:
+				BitArrayUtils.xor(dst, dstIndex, src, srcIndex, length);
+				break;
+			case 3:
+				BitArrayUtils.andNot(dst, dstIndex, src, srcIndex, length);
+				break;
+			case 4:
+				BitArrayUtils.not(dst, dstIndex, length);
+				break;
+			case 5:
+				BitArrayUtils.fill(dst, dstIndex, length);
+				break;
+			default:
+				BitArrayUtils.clear(dst, dstIndex, length);
+				break;
+			}
+			Assertions.assertThat(toBits(dst)).isEqualTo(expected);
+
+			int count = 0;
+			int nextSet = -1;
+			int nextClear = -1;
+			for (int j = dstIndex; j < dstIndex + length; j++) {
+				if (expected[j]) {
+					count++;
+					nextSet = nextSet == -1 ? j : nextSet;
+				} else {
+					nextClear = nextClear == -1 ? j : nextClear;
+				}
+			}
+			Assertions.assertThat(BitArrayUtils.cardinality(dst, dstIndex, length)).isEqualTo(count);
+			Assertions.assertThat(BitArrayUtils.nextSetBit(dst, dstIndex, dstIndex + length)).isEqualTo(nextSet);
+			Assertions.assertThat(BitArrayUtils.nextClearBit(dst, dstIndex, dstIndex + length)).isEqualTo(nextClear);
+		}
+	}
+
+	/**
+	 * Test the copy of bit ranges, with overlapping ranges
+	 */
+	@Test
+	public void testCopyBits() {
+		byte[] dst = new byte[3];
+		BitArrayUtils.copyBits(BytesUtils.fromString("FF 00"), 4, dst, 2, 8);
+		Assertions.assertThat(BytesUtils.bytesToStringNoSpace(dst)).isEqualTo("3C0000");
+		BitArrayUtils.copyBits(BytesUtils.fromString("AB CD EF"), 4, dst, 12, 12);
+		Assertions.assertThat(BytesUtils.bytesToStringNoSpace(dst)).isEqualTo("3C0BCD");
+		// Overlapping ranges in the same array, in both directions
+		byte[] data = BytesUtils.fromString("12 34 56 78 9A");
+		BitArrayUtils.copyBits(data, 0, data, 4, 28);
+		Assertions.assertThat(BytesUtils.bytesToStringNoSpace(data)).isEqualTo("112345679A");
+		BitArrayUtils.copyBits(data, 4, data, 1, 28);
+		Assertions.assertThat(BytesUtils.bytesToStringNoSpace(data)).isEqualTo("091A2B3F9A");
+		BitArrayUtils.copyBits(data, 8, data, 0, 24);
+		Assertions.assertThat(BytesUtils.bytesToStringNoSpace(data)).isEqualTo("1A2B3F3F9A");
+
+		Random random = new Random(7);
+		for (int i = 0; i < 3000; i++) {
+			byte[] src = new byte[1 + random.nextInt(50)];
+			random.nextBytes(src);
+			boolean same = random.nextBoolean();
+			byte[] target = same ? src : new byte[1 + random.nextInt(50)];
+			random.nextBytes(target);
+			int length = random.nextInt(Math.min(src.length, target.length) * BitUtils.BYTE_SIZE + 1);
+			int srcIndex = random.nextInt(src.length * BitUtils.BYTE_SIZE - length + 1);
+			int dstIndex = random.nextBoolean() ? srcIndex % BitUtils.BYTE_SIZE : random.nextInt(target.length * BitUtils.BYTE_SIZE - length + 1);
+			if (dstIndex + length > target.length * BitUtils.BYTE_SIZE) {
+				dstIndex = 0;
+			}
+
+			boolean[] source = toBits(src);
+			boolean[] expected = toBits(target);
+			System.arraycopy(source, srcIndex, expected, dstIndex, length);
+			BitArrayUtils.copyBits(src, srcIndex, target, dstIndex, length);
+			Assertions.assertThat(toBits(target)).isEqualTo(expected);
+		}
+
+		try {
+			BitArrayUtils.copyBits(new byte[1], 0, new byte[1], 1, 8);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Method used to expand an array in booleans
+	 *
+	 * @param pData
+	 *            the array
+	 * @return one boolean per bit
+	 */
+	private static boolean[] toBits(final byte[] pData) {
+		boolean[] ret = new boolean[pData.length * BitUtils.BYTE_SIZE];
+		for (int i = 0; i < ret.length; i++) {
+			ret[i] = (pData[i / BitUtils.BYTE_SIZE] >>> 7 - i % BitUtils.BYTE_SIZE & 1) != 0;
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,177 @@
+package fr.devnied.bitlib;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the bit group codec
+ *
+ * @author Millau Julien
+ *
+ */
+public final class BitGroupCodecTest {
+
+	/**
+	 * Test the vectors of the RFC 4648
+	 */
+	@Test
+	public void testVectors() {
+		String[] input = { "", "f", "fo", "foo", "foob", "fooba", "foobar" };
+		String[] base16 = { "", "66", "666F", "666F6F", "666F6F62", "666F6F6261", "666F6F626172" };
+		String[] base32 = { "", "MY======", "MZXQ====", "MZXW6===", "MZXW6YQ=", "MZXW6YTB", "MZXW6YTBOI======" };
+		String[] base32Hex = { "", "CO======", "CPNG====", "CPNMU===", "CPNMUOG=", "CPNMUOJ1", "CPNMUOJ1E8======" };
+		String[] base64 = { "", "Zg==", "Zm8=", "Zm9v", "Zm9vYg==", "Zm9vYmE=", "Zm9vYmFy" };
+		for (int i = 0; i < input.length; i++) {
+			byte[] data = input[i].getBytes(StandardCharsets.US_ASCII);
+			check(BitGroupCodec.BASE16, data, base16[i]);
+			check(BitGroupCodec.BASE32, data, base32[i]);
+			check(BitGroupCodec.BASE32_HEX, data, base32Hex[i]);
+			check(BitGroupCodec.BASE64, data, base64[i]);
+		}
+		Assertions.assertThat(BitGroupCodec.BASE64_URL.encode(new byte[] { (byte) 0xFB, (byte) 0xFF })).isEqualTo("-_8");
+		// Lower case and missing padding accepted
+		Assertions.assertThat(BitGroupCodec.BASE32.decode("mzxw6yq")).isEqualTo(BitGroupCodec.BASE32.decode("MZXW6YQ="));
+		Assertions.assertThat(BitGroupCodec.BASE16.decode("6f")).isEqualTo(new byte[] { 0x6F });
+	}
+
+	/**
+	 * Test the custom alphabets against the symbols read with BitUtils
+	 */
+	@Test
+	public void testCustomAlphabet() {
+		Random random = new Random(7);
+		String[] alphabets = { "01", "ACGT", "01234567", "0123456789abcdefghjkmnpqrstvwxyz" };
+		for (String alphabet : alphabets) {
+			BitGroupCodec codec = new BitGroupCodec(alphabet, false);
+			for (int length = 0; length < 20; length++) {
+				byte[] data = new byte[length];
+				random.nextBytes(data);
+				String encoded = codec.encode(data);
+				StringBuilder expected = new StringBuilder();
+				BitUtils bit = new BitUtils(data);
+				int bits = codec.getBitsPerChar();
+				while (bit.getCurrentBitIndex() < bit.getSize()) {
+					int count = Math.min(bits, bit.getSize() - bit.getCurrentBitIndex());
+					expected.append(alphabet.charAt(bit.getNextInteger(count) << bits - count));
+				}
+				Assertions.assertThat(encoded).isEqualTo(expected.toString());
+				Assertions.assertThat(codec.decode(encoded)).isEqualTo(data);
+			}
+		}
+		Assertions.assertThat(new BitGroupCodec("01234567", true).encode(new byte[] { (byte) 0xFF })).isEqualTo("776=====");
+	}
+
+	/**
+	 * Test against the JDK and the streaming methods
+	 */
+	@Test
+	public void testStreams() throws IOException {
+		byte[] data = new byte[10001];
+		new Random(8).nextBytes(data);
+		String encoded = BitGroupCodec.BASE64.encode(data);
+		Assertions.assertThat(encoded).isEqualTo(Base64.getEncoder().encodeToString(data));
+		Assertions.assertThat(BitGroupCodec.BASE64_URL.encode(data))
+				.isEqualTo(Base64.getUrlEncoder().withoutPadding().encodeToString(data));
+
+		StringWriter writer = new StringWriter();
+		BitGroupCodec.BASE64.encode(new ByteArrayInputStream(data), writer);
+		Assertions.assertThat(writer.toString()).isEqualTo(encoded);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BitGroupCodec.BASE64.decode(new StringReader(encoded), out);
+		Assertions.assertThat(out.toByteArray()).isEqualTo(data);
+
+		StringBuilder builder = new StringBuilder();
+		BitGroupCodec.BASE32.encode(new ByteArrayInputStream(data), builder);
+		Assertions.assertThat(builder.toString()).isEqualTo(BitGroupCodec.BASE32.encode(data));
+		out.reset();
+		BitGroupCodec.BASE32.decode(new StringReader(builder.toString()), out);
+		Assertions.assertThat(out.toByteArray()).isEqualTo(data);
+
+		// Lines of 76 chars and a final line break, over several chunks
+		StringBuilder lines = new StringBuilder();
+		for (int i = 0; i < encoded.length(); i += 76) {
+			lines.append(encoded, i, Math.min(encoded.length(), i + 76)).append("\r\n");
+		}
+		out.reset();
+		BitGroupCodec.BASE64.decode(new StringReader(lines.toString()), out);
+		Assertions.assertThat(out.toByteArray()).isEqualTo(data);
+	}
+
+	/**
+	 * Test the errors
+	 */
+	@Test
+	public void testErrors() {
+		String[] alphabets = { null, "0", "012", "0123456=", "0120" };
+		for (String alphabet : alphabets) {
+			try {
+				new BitGroupCodec(alphabet, false);
+				Assert.fail();
+			} catch (IllegalArgumentException e) {
+				Assert.assertTrue(true);
+			}
+		}
+		String[] invalid = { "Zm9v!", "Z", "Zm9=v", "Zm=", "Zh==", "Zm9=", "AAAA====", "====" };
+		for (String data : invalid) {
+			try {
+				BitGroupCodec.BASE64.decode(data);
+				Assert.fail(data);
+			} catch (IllegalArgumentException e) {
+				Assert.assertTrue(true);
+			}
+		}
+		try {
+			BitGroupCodec.BASE64.encode(new byte[4], 0, 4, new char[7], 0);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		// A padded block ending the first chunk of 4096 chars, then an other block
+		StringBuilder padded = new StringBuilder();
+		for (int i = 0; i < 1023; i++) {
+			padded.append("AAAA");
+		}
+		padded.append("Zg==").append("Zm8=");
+		try {
+			BitGroupCodec.BASE64.decode(new StringReader(padded.toString()), new ByteArrayOutputStream());
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assertions.assertThat(e.getMessage()).isEqualTo("Data after the last block");
+		} catch (IOException e) {
+			Assert.fail();
+		}
+		try {
+			BitGroupCodec.BASE64.decode(new StringReader("Zg==\nZm8=\n"), new ByteArrayOutputStream());
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		} catch (IOException e) {
+			Assert.fail();
+		}
+	}
+
+	/**
+	 * Method used to check the encoding and the decoding
+	 *
+	 * @param pCodec
+	 *            the codec
+	 * @param pData
+	 *            the data
+	 * @param pExpected
+	 *            the encoded data
+	 */
+	private static void check(final BitGroupCodec pCodec, final byte[] pData, final String pExpected) {
+		Assertions.assertThat(pCodec.encode(pData)).isEqualTo(pExpected);
+		Assertions.assertThat(pCodec.decode(pExpected)).isEqualTo(pData);
+	}
+}
@@ -0,0 +1,103 @@
+package fr.devnied.bitlib;
+
+import java.util.Random;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the bit packing codec
+ *
+ * @author Millau Julien
+ *
+ */
+public final class BitPackingCodecTest {
+
+	/**
+	 * Test the format of a small block
+	 */
+	@Test
+	public void testFormat() {
+		BitUtils bit = new BitUtils(64);
+		new BitPackingCodec().encode(bit, new int[] { 10, 12, 11, 13 }, 0, 4);
+		// count=4, width=2, reference=zigzag(10)=20, values 0 2 1 3
+		Assertions.assertThat(bit.getCurrentBitIndex()).isEqualTo(8 + 8 + 8 + 8);
+		bit.reset();
+		Assertions.assertThat(bit.getNextHexaString(32)).isEqualTo("04021427");
+
+		bit.reset();
+		Assertions.assertThat(new BitPackingCodec().decode(bit)).isEqualTo(new int[] { 10, 12, 11, 13 });
+
+		bit = new BitUtils(64);
+		new BitPackingCodec().encode(bit, new int[0], 0, 0);
+		bit.reset();
+		Assertions.assertThat(new BitPackingCodec().decode(bit)).isEqualTo(new int[0]);
+
+		try {
+			new BitPackingCodec(0, false);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		bit = new BitUtils(64);
+		bit.setNextVarInteger(1000);
+		bit.reset();
+		try {
+			new BitPackingCodec().decode(bit);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test random values with both modes
+	 */
+	@Test
+	public void testRandom() {
+		Random random = new Random(23);
+		for (int i = 0; i < 200; i++) {
+			int[] values = new int[random.nextInt(1000)];
+			int kind = random.nextInt(3);
+			for (int j = 0; j < values.length; j++) {
+				if (kind == 0) {
+					values[j] = random.nextInt();
+				} else if (kind == 1) {
+					values[j] = 1000000 + random.nextInt(1 << random.nextInt(20));
+				} else {
+					values[j] = j == 0 ? random.nextInt() : values[j - 1] + random.nextInt(100);
+				}
+			}
+			BitPackingCodec codec = new BitPackingCodec(1 + random.nextInt(200), random.nextBoolean());
+			int shift = random.nextInt(8);
+			BitUtils bit = new BitUtils((int) codec.getMaxEncodedBits(values.length) + shift);
+			bit.setCurrentBitIndex(shift);
+			codec.encode(bit, values, 0, values.length);
+			int end = bit.getCurrentBitIndex();
+
+			bit.setCurrentBitIndex(shift);
+			int[] decoded = new int[values.length + 2];
+			Assertions.assertThat(codec.decode(bit, decoded, 2)).isEqualTo(values.length);
+			Assertions.assertThat(bit.getCurrentBitIndex()).isEqualTo(end);
+			for (int j = 0; j < values.length; j++) {
+				Assertions.assertThat(decoded[j + 2]).isEqualTo(values[j]);
+			}
+		}
+	}
+
+	/**
+	 * Test the size of sorted values with the delta mode
+	 */
+	@Test
+	public void testDeltaSize() {
+		int[] values = new int[1280];
+		for (int i = 1; i < values.length; i++) {
+			values[i] = values[i - 1] + 1 + i % 7;
+		}
+		BitUtils bit = new BitUtils(values.length * Integer.SIZE);
+		new BitPackingCodec(BitPackingCodec.DEFAULT_BLOCK_SIZE, true).encode(bit, values, 0, values.length);
+		// 3 bits per value and a header of 16 or 24 bits per block
+		Assertions.assertThat(bit.getCurrentBitIndex()).isLessThan(values.length * 4);
+	}
+}
@@ -0,0 +1,120 @@
+package fr.devnied.bitlib;
+
+import java.util.Random;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the bit reader
+ *
+ * @author Millau Julien
+ *
+ */
+public final class BitReaderTest {
+
+	/**
+	 * Test peek, skip and read
+	 */
+	@Test
+	public void testPeekSkip() {
+		BitReader reader = new BitReader(BytesUtils.fromString("A5 0F F0 12"));
+		Assertions.assertThat(reader.peekBits(4)).isEqualTo(0xA);
+		Assertions.assertThat(reader.peekBits(8)).isEqualTo(0xA5);
+		reader.skipBits(4);
+		Assertions.assertThat(reader.getBitPosition()).isEqualTo(4);
+		Assertions.assertThat(reader.readBits(8)).isEqualTo(0x50);
+		Assertions.assertThat(reader.readBoolean()).isTrue();
+		reader.alignToByte();
+		Assertions.assertThat(reader.getBitPosition()).isEqualTo(16);
+		Assertions.assertThat(reader.remaining()).isEqualTo(16);
+		// Bits after the end are 0
+		Assertions.assertThat(reader.peekBits(24)).isEqualTo(0xF01200);
+		Assertions.assertThat(reader.readBits(16)).isEqualTo(0xF012);
+		Assertions.assertThat(reader.readBits(0)).isEqualTo(0);
+		try {
+			reader.skipBits(1);
+			Assert.fail();
+		} catch (IndexOutOfBoundsException e) {
+			Assert.assertTrue(true);
+		}
+		reader.setBitPosition(12);
+		Assertions.assertThat(reader.readBits(12)).isEqualTo(0xFF0);
+	}
+
+	/**
+	 * Compare the reader with BitUtils on random data
+	 */
+	@Test
+	public void testRandom() {
+		Random random = new Random(42);
+		byte[] data = new byte[1000];
+		random.nextBytes(data);
+		BitUtils bit = new BitUtils(data);
+		BitReader reader = new BitReader(data);
+		while (bit.getCurrentBitIndex() < data.length * 8 - 64) {
+			int length = random.nextInt(65);
+			if (random.nextBoolean()) {
+				Assertions.assertThat(reader.readBits(length)).isEqualTo(bit.getNextLong(length));
+			} else {
+				int peek = Math.min(length, BitReader.MAX_PEEK_BITS);
+				long value = reader.peekBits(peek);
+				reader.skipBits(peek);
+				Assertions.assertThat(value).isEqualTo(bit.getNextLong(peek));
+			}
+			Assertions.assertThat(reader.getBitPosition()).isEqualTo(bit.getCurrentBitIndex());
+		}
+	}
+
+	/**
+	 * Test a reader over a part of an array and over a BitUtils
+	 */
+	@Test
+	public void testViews() {
+		byte[] data = BytesUtils.fromString("FF 12 34 56 78 9A BC DE F0 11 FF");
+		BitReader reader = new BitReader(data, 1, 9);
+		Assertions.assertThat(reader.remaining()).isEqualTo(72);
+		reader.skipBits(60);
+		Assertions.assertThat(reader.readBits(12)).isEqualTo(0x011);
+		Assertions.assertThat(reader.peekBits(8)).isEqualTo(0);
+
+		reader.reset(data, 0, 2);
+		Assertions.assertThat(reader.readBits(16)).isEqualTo(0xFF12);
+
+		BitUtils bit = new BitUtils(12);
+		bit.setNextInteger(0xABC, 12);
+		bit.setCurrentBitIndex(4);
+		reader = new BitReader(bit);
+		Assertions.assertThat(reader.getBitPosition()).isEqualTo(4);
+		Assertions.assertThat(reader.remaining()).isEqualTo(8);
+		Assertions.assertThat(reader.readBits(8)).isEqualTo(0xBC);
+
+		try {
+			new BitReader(data, 5, 10);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		try {
+			new BitReader(data, Integer.MAX_VALUE, 8);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		for (int length : new int[] { -1, -40, 65 }) {
+			try {
+				reader.readBits(length);
+				Assert.fail();
+			} catch (IllegalArgumentException e) {
+				Assert.assertTrue(true);
+			}
+		}
+		try {
+			reader.peekBits(-1);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+}
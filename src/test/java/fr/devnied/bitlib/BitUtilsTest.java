@@ -1,5 +1,9 @@
 package fr.devnied.bitlib;
 
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
 import org.fest.assertions.Assertions;
 import org.junit.Assert;
 import org.junit.Test;
@@ -8,6 +12,8 @@ import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class to test the bitutils class
@@ -739,4 +745,526 @@ public final class BitUtilsTest {
 		Assertions.assertThat(bit.getNextLongSigned(65)).isEqualTo(-2);
 	}
 
+	/**
+	 * Unit test for LEB128 varint
+	 */
+	@Test
+	public void testVarLong() {
+		BitUtils bit = new BitUtils(BytesUtils.fromString("96 01 00 7F FF FF FF FF 0F"));
+		Assertions.assertThat(bit.getNextVarLong()).isEqualTo(150);
+		Assertions.assertThat(bit.getNextVarInteger()).isEqualTo(0);
+		Assertions.assertThat(bit.getNextVarLong()).isEqualTo(127);
+		Assertions.assertThat(bit.getNextVarInteger()).isEqualTo(-1);
+		Assertions.assertThat(bit.getCurrentBitIndex()).isEqualTo(9 * 8);
+
+		long[] values = { 0, 1, 127, 128, 300, 1L << 35, (1L << 56) - 1, 1L << 56, Long.MAX_VALUE, -1, Long.MIN_VALUE };
+		for (int offset = 0; offset < 8; offset++) {
+			bit = new BitUtils(128 * 8);
+			bit.setCurrentBitIndex(offset);
+			for (long value : values) {
+				bit.setNextVarLong(value);
+				bit.setNextVarLongSigned(-value);
+			}
+			bit.setCurrentBitIndex(offset);
+			for (long value : values) {
+				Assertions.assertThat(bit.getNextVarLong()).isEqualTo(value);
+				Assertions.assertThat(bit.getNextVarLongSigned()).isEqualTo(-value);
+			}
+		}
+
+		bit = new BitUtils(128);
+		bit.setNextVarIntegerSigned(-1);
+		bit.setNextVarIntegerSigned(Integer.MIN_VALUE);
+		bit.setNextVarInteger(Integer.MIN_VALUE);
+		bit.reset();
+		Assertions.assertThat(bit.getNextHexaString(8)).isEqualTo("01");
+		bit.reset();
+		Assertions.assertThat(bit.getNextVarIntegerSigned()).isEqualTo(-1);
+		Assertions.assertThat(bit.getNextVarIntegerSigned()).isEqualTo(Integer.MIN_VALUE);
+		Assertions.assertThat(bit.getNextVarInteger()).isEqualTo(Integer.MIN_VALUE);
+
+		Assertions.assertThat(BitUtils.getVarLongSize(0)).isEqualTo(1);
+		Assertions.assertThat(BitUtils.getVarLongSize(128)).isEqualTo(2);
+		Assertions.assertThat(BitUtils.getVarLongSize(-1)).isEqualTo(10);
+
+		bit = new BitUtils(BytesUtils.fromString("FF FF FF FF FF FF FF FF FF FF 01"));
+		try {
+			bit.getNextVarLong();
+			Assert.fail();
+		} catch (IllegalArgumentException iae) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Unit test for variable length values with custom group size
+	 */
+	@Test
+	public void testVarLongGroup() {
+		BitUtils bit = new BitUtils(256);
+		bit.setNextVarLong(5, 4);
+		bit.setNextVarLong(300, 4);
+		bit.setNextVarLong(150, 8);
+		bit.setNextVarLong(-1, 64);
+		bit.reset();
+		Assertions.assertThat(bit.getNextInteger(4)).isEqualTo(5);
+		bit.reset();
+		Assertions.assertThat(bit.getNextVarLong(4)).isEqualTo(5);
+		Assertions.assertThat(bit.getNextVarLong(4)).isEqualTo(300);
+		Assertions.assertThat(bit.getNextVarLong(8)).isEqualTo(150);
+		Assertions.assertThat(bit.getNextVarLong(64)).isEqualTo(-1);
+		try {
+			bit.getNextVarLong(1);
+			Assert.fail();
+		} catch (IllegalArgumentException iae) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Unit test for negative values written after other bits
+	 */
+	@Test
+	public void testNegativeUnaligned() {
+		BitUtils bit = new BitUtils(128);
+		bit.setNextInteger(1, 2);
+		bit.setNextLong(-2, 40);
+		bit.setNextLong(-1, 64);
+		bit.reset();
+		Assertions.assertThat(bit.getNextInteger(2)).isEqualTo(1);
+		Assertions.assertThat(bit.getNextLongSigned(40)).isEqualTo(-2);
+		bit.reset();
+		bit.setCurrentBitIndex(42);
+		Assertions.assertThat(bit.getNextLong(64)).isEqualTo(-1);
+	}
+
+	/**
+	 * Unit test for Exp-Golomb codes
+	 */
+	@Test
+	public void testExpGolomb() {
+		// 1 010 011 00100 00101
+		BitUtils bit = new BitUtils(new byte[] { (byte) 0xA6, 0x42, (byte) 0x80 });
+		Assertions.assertThat(bit.getNextExpGolomb()).isEqualTo(0);
+		Assertions.assertThat(bit.getNextExpGolomb()).isEqualTo(1);
+		Assertions.assertThat(bit.getNextExpGolomb()).isEqualTo(2);
+		Assertions.assertThat(bit.getNextExpGolomb()).isEqualTo(3);
+		Assertions.assertThat(bit.getNextExpGolomb()).isEqualTo(4);
+		Assertions.assertThat(bit.getCurrentBitIndex()).isEqualTo(17);
+		bit.setCurrentBitIndex(1);
+		Assertions.assertThat(bit.getNextExpGolombSigned()).isEqualTo(1);
+		Assertions.assertThat(bit.getNextExpGolombSigned()).isEqualTo(-1);
+		Assertions.assertThat(bit.getNextExpGolombSigned()).isEqualTo(2);
+		Assertions.assertThat(bit.getNextExpGolombSigned()).isEqualTo(-2);
+
+		long[] values = { 0, 1, 7, 255, 1L << 40, Long.MAX_VALUE - 1 };
+		bit = new BitUtils(2048);
+		bit.setNextInteger(1, 3);
+		for (long value : values) {
+			bit.setNextExpGolomb(value);
+			bit.setNextExpGolombSigned(-value / 2);
+			bit.setNextExpGolomb(value, 3);
+		}
+		bit.setCurrentBitIndex(3);
+		for (long value : values) {
+			Assertions.assertThat(bit.getNextExpGolomb()).isEqualTo(value);
+			Assertions.assertThat(bit.getNextExpGolombSigned()).isEqualTo(-value / 2);
+			Assertions.assertThat(bit.getNextExpGolomb(3)).isEqualTo(value);
+		}
+
+		try {
+			new BitUtils(new byte[] { 0, 0 }).getNextExpGolomb();
+			Assert.fail();
+		} catch (IllegalArgumentException iae) {
+			Assert.assertTrue(true);
+		}
+		try {
+			bit.setNextExpGolomb(-1);
+			Assert.fail();
+		} catch (IllegalArgumentException iae) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Unit test for Rice and Elias codes
+	 */
+	@Test
+	public void testRiceElias() {
+		BitUtils bit = new BitUtils(4096);
+		bit.setNextRice(5, 2);
+		bit.reset();
+		Assertions.assertThat(bit.getNextHexaString(4)).isEqualTo("50");
+		bit.clear();
+		bit.setNextEliasGamma(9);
+		bit.setNextEliasDelta(9);
+		bit.reset();
+		// gamma(9) = 000 1001, delta(9) = 00100 001
+		Assertions.assertThat(bit.getNextHexaString(16)).isEqualTo("1242");
+		bit.clear();
+
+		long[] values = { 1, 2, 3, 100, 1L << 20, Long.MAX_VALUE };
+		for (long value : values) {
+			bit.setNextEliasGamma(value);
+			bit.setNextEliasDelta(value);
+			bit.setNextRice(value % 1000, 3);
+			bit.setNextRiceSigned(-value % 1000, 4);
+		}
+		// Long unary part
+		bit.setNextRice(200, 0);
+		bit.reset();
+		for (long value : values) {
+			Assertions.assertThat(bit.getNextEliasGamma()).isEqualTo(value);
+			Assertions.assertThat(bit.getNextEliasDelta()).isEqualTo(value);
+			Assertions.assertThat(bit.getNextRice(3)).isEqualTo(value % 1000);
+			Assertions.assertThat(bit.getNextRiceSigned(4)).isEqualTo(-value % 1000);
+		}
+		Assertions.assertThat(bit.getNextRice(0)).isEqualTo(200);
+
+		try {
+			bit.setNextEliasGamma(0);
+			Assert.fail();
+		} catch (IllegalArgumentException iae) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test the decode error policies
+	 */
+	@Test
+	public void testErrorPolicy() {
+		BitUtils bit = new BitUtils(BytesUtils.fromString("FF FF FF FF FF FF FF FF FF FF FF 41 42 43"));
+		Assertions.assertThat(bit.getErrorPolicy()).isEqualTo(DecodeErrorPolicy.EXCEPTION);
+		try {
+			bit.getNextVarLong();
+			Assert.fail();
+		} catch (IllegalArgumentException iae) {
+			Assert.assertTrue(true);
+		}
+		bit.setCurrentBitIndex(13 * 8);
+		try {
+			bit.getNextInteger(9);
+			Assert.fail();
+		} catch (IndexOutOfBoundsException ioobe) {
+			Assert.assertTrue(true);
+		}
+		Assertions.assertThat(bit.getDecodeError().hasError()).isFalse();
+
+		BitUtils.setErrorLogSampling(2);
+		try {
+			bit.setErrorPolicy(DecodeErrorPolicy.STATUS);
+			bit.reset();
+			Assertions.assertThat(bit.getNextVarLong()).isEqualTo(0);
+			Assertions.assertThat(bit.getDecodeError().getType()).isEqualTo(DecodeError.Type.MALFORMED_VARINT);
+			Assertions.assertThat(bit.getDecodeError().getBitIndex()).isEqualTo(0);
+			Assertions.assertThat(bit.getCurrentBitIndex()).isEqualTo(14 * 8);
+			Assertions.assertThat(bit.getNextInteger(8)).isEqualTo(0);
+			Assertions.assertThat(bit.getNextByte(16)).isEqualTo(new byte[2]);
+			Assertions.assertThat(bit.getDecodeError().getType()).isEqualTo(DecodeError.Type.OUT_OF_RANGE);
+			Assertions.assertThat(bit.getDecodeError().getCount()).isEqualTo(3);
+
+			bit.getDecodeError().clear();
+			bit.setCurrentBitIndex(11 * 8);
+			Assertions.assertThat(bit.getNextDate(3 * 8, "yyyy")).isNull();
+			Assertions.assertThat(bit.getDecodeError().getType()).isEqualTo(DecodeError.Type.INVALID_DATE);
+			Assertions.assertThat(bit.getDecodeError().getBitIndex()).isEqualTo(11 * 8);
+			Assertions.assertThat(bit.getDecodeError().toString()).isEqualTo("Invalid date at bit index 88 (1 errors)");
+
+			BitUtils zeros = new BitUtils(100);
+			zeros.setErrorPolicy(DecodeErrorPolicy.STATUS);
+			Assertions.assertThat(zeros.getNextExpGolomb()).isEqualTo(0);
+			Assertions.assertThat(zeros.getDecodeError().getType()).isEqualTo(DecodeError.Type.NO_BIT_SET);
+			zeros.reset();
+			Assertions.assertThat(zeros.getNextEliasDelta()).isEqualTo(0);
+			Assertions.assertThat(zeros.getDecodeError().getCount()).isEqualTo(2);
+		} finally {
+			BitUtils.setErrorLogSampling(0);
+		}
+		try {
+			BitUtils.setErrorLogSampling(-1);
+			Assert.fail();
+		} catch (IllegalArgumentException iae) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test the log sampling with a new instance per frame
+	 */
+	@Test
+	public void testErrorLogSampling() {
+		final AtomicInteger logged = new AtomicInteger();
+		AppenderSkeleton appender = new AppenderSkeleton() {
+			@Override
+			protected void append(final LoggingEvent pEvent) {
+				if (pEvent.getLevel() == Level.WARN) {
+					logged.incrementAndGet();
+				}
+			}
+
+			@Override
+			public void close() {
+			}
+
+			@Override
+			public boolean requiresLayout() {
+				return false;
+			}
+		};
+		Logger logger = Logger.getLogger(BitUtils.class);
+		logger.addAppender(appender);
+		logger.setAdditivity(false);
+		try {
+			for (int i = 0; i < 100; i++) {
+				BitUtils bit = BitUtils.wrap(new byte[1], 0, 1);
+				bit.setErrorPolicy(DecodeErrorPolicy.STATUS);
+				bit.getNextInteger(16);
+			}
+			// Disabled by default
+			Assertions.assertThat(logged.get()).isEqualTo(0);
+			BitUtils.setErrorLogSampling(10);
+			for (int i = 0; i < 100; i++) {
+				BitUtils bit = BitUtils.wrap(new byte[1], 0, 1);
+				bit.setErrorPolicy(DecodeErrorPolicy.STATUS);
+				bit.getNextInteger(16);
+			}
+			Assertions.assertThat(logged.get()).isEqualTo(10);
+		} finally {
+			BitUtils.setErrorLogSampling(0);
+			logger.setAdditivity(true);
+			logger.removeAppender(appender);
+		}
+	}
+
+	/**
+	 * Test the remaining bits checks and the unchecked reads
+	 */
+	@Test
+	public void testRemaining() {
+		BitUtils bit = new BitUtils(20);
+		Assertions.assertThat(bit.remaining()).isEqualTo(20);
+		bit.setNextInteger(0xABCDE, 20);
+		Assertions.assertThat(bit.remaining()).isEqualTo(0);
+		bit.reset();
+		Assertions.assertThat(bit.ensureRemaining(20)).isTrue();
+		try {
+			bit.ensureRemaining(21);
+			Assert.fail();
+		} catch (IndexOutOfBoundsException ioobe) {
+			Assert.assertTrue(true);
+		}
+		bit.setUncheckedReads(true);
+		Assertions.assertThat(bit.isUncheckedReads()).isTrue();
+		Assertions.assertThat(bit.getNextInteger(12)).isEqualTo(0xABC);
+		Assertions.assertThat(bit.getNextInteger(8)).isEqualTo(0xDE);
+		bit.setUncheckedReads(false);
+
+		bit.setErrorPolicy(DecodeErrorPolicy.STATUS);
+		bit.setCurrentBitIndex(10);
+		Assertions.assertThat(bit.ensureRemaining(11)).isFalse();
+		Assertions.assertThat(bit.getDecodeError().getType()).isEqualTo(DecodeError.Type.OUT_OF_RANGE);
+		Assertions.assertThat(bit.remaining()).isEqualTo(0);
+		// The last bits of the last byte are after the end of the data
+		bit.getDecodeError().clear();
+		bit.setCurrentBitIndex(16);
+		Assertions.assertThat(bit.getNextInteger(8)).isEqualTo(0);
+		Assertions.assertThat(bit.getDecodeError().getType()).isEqualTo(DecodeError.Type.OUT_OF_RANGE);
+		Assertions.assertThat(bit.remaining()).isEqualTo(0);
+		// The error state is not kept for the next frame
+		bit.setUncheckedReads(true);
+		bit.reset(new byte[] { 0x12, 0x34 }, 0, 2);
+		Assertions.assertThat(bit.getDecodeError().hasError()).isFalse();
+		Assertions.assertThat(bit.isUncheckedReads()).isFalse();
+		Assertions.assertThat(bit.remaining()).isEqualTo(16);
+
+		// Word loads compared with the bits of the array
+		Random random = new Random(19);
+		byte[] data = new byte[64];
+		random.nextBytes(data);
+		bit = new BitUtils(data);
+		for (int i = 0; i < 2000; i++) {
+			int index = random.nextInt(data.length * 8);
+			int length = Math.min(random.nextInt(65), data.length * 8 - index);
+			long expected = 0;
+			for (int j = index; j < index + length; j++) {
+				expected = expected << 1 | data[j / 8] >>> 7 - j % 8 & 1;
+			}
+			bit.setCurrentBitIndex(index);
+			Assertions.assertThat(bit.getNextLong(length)).isEqualTo(expected);
+			Assertions.assertThat(bit.getCurrentBitIndex()).isEqualTo(index + length);
+		}
+	}
+
+	/**
+	 * Test the floating-point and fixed-point fields
+	 */
+	@Test
+	public void testFloatingPoint() {
+		BitUtils bit = new BitUtils(300);
+		bit.setNextBoolean(true);
+		bit.setNextFloat(-1.5f);
+		bit.setNextDouble(Math.PI);
+		bit.setNextHalf(1.0f);
+		bit.setNextHalf(-2.0f);
+		bit.setNextHalf(65504f);
+		bit.setNextHalf(1e6f);
+		bit.setNextHalf(1.0f / 3);
+		bit.setNextHalf(Float.NaN);
+		bit.reset();
+		Assertions.assertThat(bit.getNextBoolean()).isTrue();
+		Assertions.assertThat(bit.getNextFloat()).isEqualTo(-1.5f);
+		Assertions.assertThat(bit.getNextDouble()).isEqualTo(Math.PI);
+		Assertions.assertThat(bit.getNextHexaString(32)).isEqualTo("3C00C000");
+		Assertions.assertThat(bit.getNextInteger(16)).isEqualTo(0x7BFF);
+		Assertions.assertThat(bit.getNextHalf()).isEqualTo(Float.POSITIVE_INFINITY);
+		Assertions.assertThat(bit.getNextInteger(16)).isEqualTo(0x3555);
+		Assertions.assertThat(Float.isNaN(bit.getNextHalf())).isTrue();
+
+		// All the half values
+		for (int half = 0; half < 0x10000; half++) {
+			float value = BitUtils.halfToFloat(half);
+			if (!Float.isNaN(value)) {
+				Assertions.assertThat(BitUtils.floatToHalf(value)).isEqualTo(half);
+			}
+		}
+		Assertions.assertThat(BitUtils.halfToFloat(1)).isEqualTo((float) Math.pow(2, -24));
+		// Ties to even between subnormals, rounding up to the smallest normal
+		Assertions.assertThat(BitUtils.floatToHalf((float) Math.pow(2, -25))).isEqualTo(0);
+		Assertions.assertThat(BitUtils.floatToHalf((float) (3 * Math.pow(2, -25)))).isEqualTo(2);
+		Assertions.assertThat(BitUtils.floatToHalf((float) (Math.pow(2, -14) - Math.pow(2, -26)))).isEqualTo(0x400);
+	}
+
+	/**
+	 * Test the fixed-point fields
+	 */
+	@Test
+	public void testFixedPoint() {
+		BitUtils bit = new BitUtils(256);
+		bit.setNextFixedPoint(1.5, 8, 8);
+		bit.setNextFixedPoint(-1.5, 8, 8);
+		bit.setNextFixedPoint(200.0, 8, 8);
+		bit.setNextFixedPoint(-200.0, 8, 8);
+		bit.setNextFixedPoint(0.1, 1, 15);
+		bit.setNextFixedPoint(-3.0, 4, 4, false);
+		bit.setNextFixedPoint(17.0, 4, 4, false);
+		bit.setNextFixedPoint(Double.NaN, 3, 2);
+		bit.reset();
+		Assertions.assertThat(bit.getNextHexaString(64)).isEqualTo("0180FE807FFF8000");
+		Assertions.assertThat(bit.getNextInteger(16)).isEqualTo(0x0CCD);
+		Assertions.assertThat(bit.getNextHexaString(16)).isEqualTo("00FF");
+		Assertions.assertThat(bit.getNextInteger(5)).isEqualTo(0);
+
+		bit.clear();
+		bit.setNextInteger(1, 3);
+		bit.setNextFixedPoint(-12.375, 5, 3);
+		bit.setNextFixedPoint(12.375, 5, 3, false);
+		bit.setNextFixedPoint(-0.25, 1, 62);
+		bit.setNextFixedPoint(1e30, 64, 0, false);
+		bit.reset();
+		bit.getNextInteger(3);
+		Assertions.assertThat(bit.getNextFixedPoint(5, 3)).isEqualTo(-12.375);
+		Assertions.assertThat(bit.getNextFixedPoint(5, 3, false)).isEqualTo(12.375);
+		Assertions.assertThat(bit.getNextFixedPoint(1, 62)).isEqualTo(-0.25);
+		Assertions.assertThat(bit.getNextFixedPoint(64, 0, false)).isEqualTo(Math.pow(2, 64));
+
+		try {
+			bit.getNextFixedPoint(60, 5);
+			Assert.fail();
+		} catch (IllegalArgumentException iae) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test the bulk read and write of integers
+	 */
+	@Test
+	public void testIntegers() {
+		Random random = new Random(29);
+		for (int width = 0; width <= 32; width++) {
+			int[] values = new int[50];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = random.nextInt();
+			}
+			int shift = random.nextInt(8);
+			BitUtils bit = new BitUtils(shift + values.length * width + 3);
+			bit.setNextInteger((1 << shift) - 1, shift);
+			bit.setNextIntegers(values, 5, 40, width);
+			bit.setNextInteger(5, 3);
+			Assertions.assertThat(bit.getCurrentBitIndex()).isEqualTo(shift + 40 * width + 3);
+
+			bit.reset();
+			Assertions.assertThat(bit.getNextInteger(shift)).isEqualTo((1 << shift) - 1);
+			int[] read = new int[41];
+			bit.getNextIntegers(read, 1, 40, width);
+			for (int i = 0; i < 40; i++) {
+				long mask = (1L << width) - 1;
+				Assertions.assertThat(read[i + 1]).isEqualTo((int) (values[i + 5] & mask));
+			}
+			Assertions.assertThat(bit.getNextInteger(3)).isEqualTo(5);
+		}
+		try {
+			new BitUtils(8).setNextIntegers(new int[3], 0, 3, 3);
+			Assert.fail();
+		} catch (IndexOutOfBoundsException ioobe) {
+			Assert.assertTrue(true);
+		}
+		try {
+			new BitUtils(8).getNextIntegers(new int[3], 0, 3, 33);
+			Assert.fail();
+		} catch (IllegalArgumentException iae) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test the views over a part of an array
+	 */
+	@Test
+	public void testView() {
+		byte[] data = BytesUtils.fromString("11 22 33 44 55 66 77 88 99 AA BB CC");
+		BitUtils bit = BitUtils.wrap(data, 2, 9);
+		Assertions.assertThat(bit.getSize()).isEqualTo(72);
+		Assertions.assertThat(bit.getNextInteger(8)).isEqualTo(0x33);
+		Assertions.assertThat(bit.getNextLong(64)).isEqualTo(0x445566778899AABBL);
+		Assertions.assertThat(bit.getData()).isEqualTo(BytesUtils.fromString("33 44 55 66 77 88 99 AA BB"));
+		try {
+			bit.getNextInteger(8);
+			Assert.fail();
+		} catch (IndexOutOfBoundsException ioobe) {
+			Assert.assertTrue(true);
+		}
+
+		// Writes go to the array
+		bit.reset(data, 10, 2);
+		Assertions.assertThat(bit.getCurrentBitIndex()).isEqualTo(0);
+		bit.clear();
+		bit.setNextInteger(0x5, 4);
+		Assertions.assertThat(data[9]).isEqualTo((byte) 0xAA);
+		Assertions.assertThat(data[10]).isEqualTo((byte) 0x50);
+		Assertions.assertThat(data[11]).isEqualTo((byte) 0x00);
+		try {
+			bit.setNextIntegers(new int[] { 1, 2, 3 }, 0, 3, 5);
+			Assert.fail();
+		} catch (IndexOutOfBoundsException ioobe) {
+			Assert.assertTrue(true);
+		}
+
+		// Word loads use the offset of the view
+		bit.reset(data, 1, 10);
+		BitUtils copy = new BitUtils(bit.getData());
+		bit.setCurrentBitIndex(3);
+		copy.setCurrentBitIndex(3);
+		Assertions.assertThat(bit.getNextVarLong()).isEqualTo(copy.getNextVarLong());
+		Assertions.assertThat(bit.getCurrentBitIndex()).isEqualTo(copy.getCurrentBitIndex());
+		Assertions.assertThat(bit.getNextLong(21)).isEqualTo(copy.getNextLong(21));
+		try {
+			BitUtils.wrap(data, 8, 5);
+			Assert.fail();
+		} catch (IllegalArgumentException iae) {
+			Assert.assertTrue(true);
+		}
+	}
+
 }
@@ -4,8 +4,11 @@ import org.fest.assertions.Assertions;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Random;
 
 /**
  * Class to test the Utils class bytesUtils
@@ -236,6 +239,73 @@ public final class BytesUtilsTest {
 		Assertions.assertThat(BytesUtils.toBinary(new byte[] {})).isEqualTo(null);
 	}
 
+	/**
+	 * Test the binary conversion of a range of bits
+	 */
+	@Test
+	public void testToBinaryRange() throws IOException {
+		Assertions.assertThat(BytesUtils.toBinary(tab, 4, 12, 0)).isEqualTo("001010010010");
+		Assertions.assertThat(BytesUtils.toBinary(tab, 4, 12, 4)).isEqualTo("0010 1001 0010");
+		Assertions.assertThat(BytesUtils.toBinary(tab, 3, 6, 4)).isEqualTo("1001 01");
+		Assertions.assertThat(BytesUtils.toBinary(tab, 32, 0, 8)).isEqualTo("");
+
+		char[] dest = new char[12];
+		Assertions.assertThat(BytesUtils.toBinary(tab, 0, 8, 0, dest, 4)).isEqualTo(12);
+		Assertions.assertThat(new String(dest, 4, 8)).isEqualTo("00010010");
+
+		byte[] data = new byte[3000];
+		new Random(5).nextBytes(data);
+		StringWriter writer = new StringWriter();
+		BytesUtils.toBinary(data, 3, data.length * 8 - 3, 5, writer);
+		Assertions.assertThat(writer.toString()).isEqualTo(BytesUtils.toBinary(data, 3, data.length * 8 - 3, 5));
+		StringBuilder builder = new StringBuilder();
+		BytesUtils.toBinary(data, 0, data.length * 8, 0, builder);
+		Assertions.assertThat(builder.toString()).isEqualTo(BytesUtils.toBinary(data));
+
+		try {
+			BytesUtils.toBinary(tab, 30, 3, 0);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		try {
+			BytesUtils.toBinary(tab, 0, 8, 0, new char[7], 0);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test the binary parser
+	 */
+	@Test
+	public void testFromBinary() {
+		Assertions.assertThat(BytesUtils.fromBinary("")).isEmpty();
+		Assertions.assertThat(BytesUtils.fromBinary("0100010000000001")).isEqualTo(new byte[] { 0x44, 0x01 });
+		Assertions.assertThat(BytesUtils.fromBinary("0100 0100\n 0000 0001")).isEqualTo(new byte[] { 0x44, 0x01 });
+		Assertions.assertThat(BytesUtils.fromBinary("1 01")).isEqualTo(new byte[] { (byte) 0xA0 });
+		Assertions.assertThat(BytesUtils.fromBinary("111111111")).isEqualTo(new byte[] { (byte) 0xFF, (byte) 0x80 });
+
+		byte[] data = new byte[1000];
+		new Random(6).nextBytes(data);
+		Assertions.assertThat(BytesUtils.fromBinary(BytesUtils.toBinary(data))).isEqualTo(data);
+		Assertions.assertThat(BytesUtils.fromBinary(BytesUtils.toBinary(data, 0, data.length * 8, 3))).isEqualTo(data);
+
+		try {
+			BytesUtils.fromBinary("01201");
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		try {
+			BytesUtils.fromBinary(null);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
 	@Test
 	public void testFromStringEmpty() {
 		Assertions.assertThat(BytesUtils.fromString("")).isEqualTo(new byte[] {});
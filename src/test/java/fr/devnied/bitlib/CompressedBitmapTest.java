@@ -0,0 +1,193 @@
+package fr.devnied.bitlib;
+
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the compressed bitmap
+ *
+ * @author Millau Julien
+ *
+ */
+public final class CompressedBitmapTest {
+
+	/**
+	 * Test the values of the different containers
+	 */
+	@Test
+	public void testContainers() {
+		CompressedBitmap bitmap = CompressedBitmap.of(5, 3, 0x10000, -1, 3);
+		Assertions.assertThat(bitmap.cardinality()).isEqualTo(4);
+		Assertions.assertThat(bitmap.toArray()).isEqualTo(new int[] { 3, 5, 0x10000, -1 });
+		Assertions.assertThat(bitmap.contains(5)).isTrue();
+		Assertions.assertThat(bitmap.contains(4)).isFalse();
+		Assertions.assertThat(bitmap.contains(-1)).isTrue();
+		Assertions.assertThat(new CompressedBitmap().isEmpty()).isTrue();
+
+		// Array container converted to a bitmap container
+		bitmap = new CompressedBitmap();
+		for (int i = 0; i < 10000; i++) {
+			bitmap.add(i * 3);
+		}
+		Assertions.assertThat(bitmap.cardinality()).isEqualTo(10000);
+		Assertions.assertThat(bitmap.contains(29997)).isTrue();
+		Assertions.assertThat(bitmap.contains(29998)).isFalse();
+		Assertions.assertThat(bitmap.getSerializedBits()).isEqualTo(32 + 40 + 65536);
+		Assertions.assertThat(bitmap.runOptimize()).isFalse();
+
+		// Contiguous values stored as runs
+		bitmap = new CompressedBitmap();
+		for (int i = 100; i < 50000; i++) {
+			bitmap.add(i);
+		}
+		Assertions.assertThat(bitmap.runOptimize()).isTrue();
+		Assertions.assertThat(bitmap.getSerializedBits()).isEqualTo(32 + 40 + 32);
+		Assertions.assertThat(bitmap.cardinality()).isEqualTo(49900);
+		Assertions.assertThat(bitmap.contains(99)).isFalse();
+		Assertions.assertThat(bitmap.contains(49999)).isTrue();
+		bitmap.add(60000);
+		Assertions.assertThat(bitmap.cardinality()).isEqualTo(49901);
+		Assertions.assertThat(bitmap.contains(60000)).isTrue();
+
+		PrimitiveIterator.OfInt iterator = CompressedBitmap.of(7, 0x20001).iterator();
+		Assertions.assertThat(iterator.nextInt()).isEqualTo(7);
+		Assertions.assertThat(iterator.nextInt()).isEqualTo(0x20001);
+		Assertions.assertThat(iterator.hasNext()).isFalse();
+		try {
+			iterator.nextInt();
+			Assert.fail();
+		} catch (NoSuchElementException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test the serialized format
+	 */
+	@Test
+	public void testSerialization() {
+		CompressedBitmap bitmap = CompressedBitmap.of(1, 2, 0x30005);
+		byte[] data = bitmap.toByteArray();
+		Assertions.assertThat(BytesUtils.bytesToStringNoSpace(data))
+				.isEqualTo("00000002" + "0000" + "00" + "0001" + "0001" + "0002" + "0003" + "00" + "0000" + "0005");
+		BitUtils bit = new BitUtils(data);
+		Assertions.assertThat(CompressedBitmap.read(bit).toArray()).isEqualTo(new int[] { 1, 2, 0x30005 });
+
+		// Bitmap container readable bit by bit
+		bitmap = new CompressedBitmap();
+		for (int i = 0; i < 5000; i++) {
+			bitmap.add(i * 2 + 1);
+		}
+		bit = new BitUtils(bitmap.toByteArray());
+		bit.setCurrentBitIndex(32 + 40);
+		Assertions.assertThat(bit.getNextInteger(8)).isEqualTo(0x55);
+
+		bit = new BitUtils(64);
+		bit.setNextInteger(1, 32);
+		bit.setNextInteger(0, 16);
+		bit.setNextInteger(3, 8);
+		bit.reset();
+		try {
+			CompressedBitmap.read(bit);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		bit = new BitUtils(BytesUtils.fromString("00000001 0000 00 0001 0005 0004"));
+		try {
+			CompressedBitmap.read(bit);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test the operations against a BitSet
+	 */
+	@Test
+	public void testRandom() {
+		Random random = new Random(7);
+		for (int i = 0; i < 40; i++) {
+			BitSet firstSet = new BitSet();
+			BitSet secondSet = new BitSet();
+			CompressedBitmap first = random(random, firstSet);
+			CompressedBitmap second = random(random, secondSet);
+			if (random.nextBoolean()) {
+				first.runOptimize();
+			}
+			if (random.nextBoolean()) {
+				second.runOptimize();
+			}
+			Assertions.assertThat(first.cardinality()).isEqualTo(firstSet.cardinality());
+
+			BitSet expected = (BitSet) firstSet.clone();
+			expected.and(secondSet);
+			check(first.and(second), expected);
+			expected = (BitSet) firstSet.clone();
+			expected.or(secondSet);
+			CompressedBitmap union = first.or(second);
+			check(union, expected);
+			union.runOptimize();
+			check(union, expected);
+
+			BitUtils bit = new BitUtils((int) union.getSerializedBits());
+			union.write(bit);
+			bit.reset();
+			check(CompressedBitmap.read(bit), expected);
+		}
+	}
+
+	/**
+	 * Method used to create a random bitmap
+	 *
+	 * @param pRandom
+	 *            random generator
+	 * @param pSet
+	 *            the set to fill with the same values
+	 * @return the bitmap
+	 */
+	private static CompressedBitmap random(final Random pRandom, final BitSet pSet) {
+		CompressedBitmap ret = new CompressedBitmap();
+		int count = pRandom.nextInt(20);
+		for (int i = 0; i < count; i++) {
+			int base = pRandom.nextInt(4) << 16;
+			int kind = pRandom.nextInt(3);
+			int values = kind == 0 ? pRandom.nextInt(100) : pRandom.nextInt(20000);
+			int start = pRandom.nextInt(1 << 16);
+			for (int j = 0; j < values; j++) {
+				int low = kind == 2 ? start + j : pRandom.nextInt(1 << 16);
+				int value = base + (low & 0xFFFF);
+				ret.add(value);
+				pSet.set(value);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Method used to compare a bitmap with a BitSet
+	 *
+	 * @param pBitmap
+	 *            the bitmap
+	 * @param pExpected
+	 *            the expected values
+	 */
+	private static void check(final CompressedBitmap pBitmap, final BitSet pExpected) {
+		Assertions.assertThat(pBitmap.cardinality()).isEqualTo(pExpected.cardinality());
+		int[] values = pBitmap.toArray();
+		Assertions.assertThat(values).isEqualTo(pExpected.stream().toArray());
+		PrimitiveIterator.OfInt iterator = pBitmap.iterator();
+		for (int value : values) {
+			Assertions.assertThat(iterator.nextInt()).isEqualTo(value);
+			Assertions.assertThat(pBitmap.contains(value)).isTrue();
+		}
+		Assertions.assertThat(iterator.hasNext()).isFalse();
+	}
+}
@@ -0,0 +1,141 @@
+package fr.devnied.bitlib;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the CRC engine
+ *
+ * @author Millau Julien
+ *
+ */
+public final class CrcTest {
+
+	/**
+	 * Check data of the CRC catalogue
+	 */
+	private static final byte[] CHECK = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+	/**
+	 * Test the check values of the CRC catalogue
+	 */
+	@Test
+	public void testCheckValues() {
+		Assertions.assertThat(Crc.CRC16_ISO14443_A.compute(CHECK)).isEqualTo(0xBF05);
+		Assertions.assertThat(Crc.CRC16_ISO14443_B.compute(CHECK)).isEqualTo(0x906E);
+		Assertions.assertThat(Crc.CRC16_CCITT_FALSE.compute(CHECK)).isEqualTo(0x29B1);
+		Assertions.assertThat(Crc.CRC32.compute(CHECK)).isEqualTo(0xCBF43926L);
+		Assertions.assertThat(Crc.CRC32C.compute(CHECK)).isEqualTo(0xE3069283L);
+		Assertions.assertThat(new Crc(64, 0x42F0E1EBA9EA3693L, -1L, true, true, -1L).compute(CHECK)).isEqualTo(0x995DC9BBDF1939FAL);
+		Assertions.assertThat(new Crc(64, 0x42F0E1EBA9EA3693L, 0, false, false, 0).compute(CHECK)).isEqualTo(0x6C40DF5F0B497347L);
+		Assertions.assertThat(new Crc(5, 0x05, 0x1F, true, true, 0x1F).compute(CHECK)).isEqualTo(0x19);
+		Assertions.assertThat(new Crc(12, 0x80F, 0, false, true, 0).compute(CHECK)).isEqualTo(0xDAF);
+		Assertions.assertThat(new Crc(3, 0x3, 0, false, false, 0x7).compute(CHECK)).isEqualTo(0x4);
+		// REQA answer of ISO/IEC 14443-3 annex B
+		Assertions.assertThat(Crc.CRC16_ISO14443_A.compute(new byte[2])).isEqualTo(0x1EA0);
+
+		Assertions.assertThat(Crc.CRC32.compute(new byte[0])).isEqualTo(0);
+		try {
+			new Crc(65, 1, 0, false, false, 0);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		try {
+			Crc.CRC32.compute(CHECK, 5, 5);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test the bit ranges
+	 */
+	@Test
+	public void testBits() {
+		Random random = new Random(13);
+		Crc[] crcs = { Crc.CRC16_ISO14443_A, Crc.CRC32C, new Crc(64, 0x42F0E1EBA9EA3693L, 0, false, false, 0) };
+		for (int i = 0; i < 500; i++) {
+			byte[] data = new byte[1 + random.nextInt(60)];
+			random.nextBytes(data);
+			int length = random.nextInt(data.length / 2 + 1) * BitUtils.BYTE_SIZE;
+			int index = random.nextInt(data.length * BitUtils.BYTE_SIZE - length + 1);
+			byte[] aligned = new byte[length / BitUtils.BYTE_SIZE];
+			BitArrayUtils.copyBits(data, index, aligned, 0, length);
+			for (Crc crc : crcs) {
+				Assertions.assertThat(crc.computeBits(data, index, length)).isEqualTo(crc.compute(aligned));
+			}
+		}
+
+		// Trailing bits compared with a bit serial CRC-16/CCITT-FALSE
+		for (int i = 0; i < 200; i++) {
+			byte[] data = new byte[1 + random.nextInt(10)];
+			random.nextBytes(data);
+			int index = random.nextInt(8);
+			int length = random.nextInt(data.length * BitUtils.BYTE_SIZE - index + 1);
+			int expected = 0xFFFF;
+			for (int bit = index; bit < index + length; bit++) {
+				int value = data[bit / BitUtils.BYTE_SIZE] >>> 7 - bit % BitUtils.BYTE_SIZE & 1;
+				boolean top = (expected >>> 15 ^ value) != 0;
+				expected = expected << 1 & 0xFFFF;
+				if (top) {
+					expected ^= 0x1021;
+				}
+			}
+			Assertions.assertThat(Crc.CRC16_CCITT_FALSE.computeBits(data, index, length)).isEqualTo(expected);
+		}
+	}
+
+	/**
+	 * Test the incremental update with a BitUtils
+	 */
+	@Test
+	public void testIncremental() {
+		BitUtils bit = new BitUtils(CHECK.length * BitUtils.BYTE_SIZE + 3);
+		bit.setNextBoolean(true);
+		bit.setNextInteger(2, 2);
+		int start = bit.getCurrentBitIndex();
+		long register = Crc.CRC32.getInitialRegister();
+		for (byte value : CHECK) {
+			bit.setNextByte(new byte[] { value }, BitUtils.BYTE_SIZE);
+			register = Crc.CRC32.update(register, bit, start);
+			start = bit.getCurrentBitIndex();
+		}
+		Assertions.assertThat(Crc.CRC32.getValue(register)).isEqualTo(0xCBF43926L);
+
+		bit.reset();
+		bit.getNextInteger(3);
+		register = Crc.CRC32.getInitialRegister();
+		start = bit.getCurrentBitIndex();
+		bit.getNextString(4 * BitUtils.BYTE_SIZE);
+		register = Crc.CRC32.update(register, bit, start);
+		register = Crc.CRC32.update(register, CHECK, 4, 5);
+		Assertions.assertThat(Crc.CRC32.getValue(register)).isEqualTo(0xCBF43926L);
+	}
+
+	/**
+	 * Test the combination of the CRC of consecutive blocks
+	 */
+	@Test
+	public void testCombine() {
+		Random random = new Random(17);
+		Crc[] crcs = { Crc.CRC16_ISO14443_A, Crc.CRC16_CCITT_FALSE, Crc.CRC32, Crc.CRC32C,
+				new Crc(64, 0x42F0E1EBA9EA3693L, 0, false, false, 0), new Crc(12, 0x80F, 0, false, true, 0) };
+		for (int i = 0; i < 100; i++) {
+			byte[] data = new byte[random.nextInt(3000)];
+			random.nextBytes(data);
+			int split = random.nextInt(data.length + 1);
+			for (Crc crc : crcs) {
+				long first = crc.compute(Arrays.copyOfRange(data, 0, split));
+				long second = crc.compute(data, split, data.length - split);
+				Assertions.assertThat(crc.combine(first, second, data.length - split)).isEqualTo(crc.compute(data));
+			}
+		}
+	}
+}
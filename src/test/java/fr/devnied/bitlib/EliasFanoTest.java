@@ -0,0 +1,101 @@
+package fr.devnied.bitlib;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the Elias-Fano encoding
+ *
+ * @author Millau Julien
+ *
+ */
+public final class EliasFanoTest {
+
+	/**
+	 * Test a small sequence
+	 */
+	@Test
+	public void testSmall() {
+		long[] values = { 3, 4, 7, 13, 14, 15, 21, 43 };
+		EliasFano ef = EliasFano.encode(values);
+		Assertions.assertThat(ef.size()).isEqualTo(8);
+		// l = floor(log2(43 / 8)) = 2: 8 * 2 low bits + 8 + 10 + 1 high bits
+		Assertions.assertThat(ef.sizeInBits()).isEqualTo(35);
+		for (int i = 0; i < values.length; i++) {
+			Assertions.assertThat(ef.get(i)).isEqualTo(values[i]);
+		}
+		Assertions.assertThat(ef.nextGEQ(0)).isEqualTo(0);
+		Assertions.assertThat(ef.nextGEQ(5)).isEqualTo(2);
+		Assertions.assertThat(ef.nextGEQ(13)).isEqualTo(3);
+		Assertions.assertThat(ef.nextGEQ(16)).isEqualTo(6);
+		Assertions.assertThat(ef.nextGEQ(43)).isEqualTo(7);
+		Assertions.assertThat(ef.nextGEQ(44)).isEqualTo(8);
+
+		PrimitiveIterator.OfLong iterator = ef.iterator();
+		for (long value : values) {
+			Assertions.assertThat(iterator.hasNext()).isTrue();
+			Assertions.assertThat(iterator.nextLong()).isEqualTo(value);
+		}
+		Assertions.assertThat(iterator.hasNext()).isFalse();
+
+		EliasFano empty = EliasFano.encode(new long[0]);
+		Assertions.assertThat(empty.nextGEQ(1)).isEqualTo(0);
+		Assertions.assertThat(empty.iterator().hasNext()).isFalse();
+
+		try {
+			EliasFano.encode(new long[] { 5, 4 });
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		try {
+			EliasFano.encode(new long[4], 2, Integer.MAX_VALUE);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		try {
+			ef.get(8);
+			Assert.fail();
+		} catch (IndexOutOfBoundsException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test random sequences with duplicates
+	 */
+	@Test
+	public void testRandom() {
+		Random random = new Random(11);
+		for (int gap : new int[] { 1, 3, 1000, 1 << 30 }) {
+			long[] values = new long[5000];
+			for (int i = 1; i < values.length; i++) {
+				values[i] = values[i - 1] + random.nextInt(gap);
+			}
+			EliasFano ef = EliasFano.encode(values);
+			PrimitiveIterator.OfLong iterator = ef.iterator();
+			for (int i = 0; i < values.length; i++) {
+				Assertions.assertThat(ef.get(i)).isEqualTo(values[i]);
+				Assertions.assertThat(iterator.nextLong()).isEqualTo(values[i]);
+			}
+			for (int i = 0; i < 500; i++) {
+				long target = (long) (random.nextDouble() * (values[values.length - 1] + 2));
+				int expected = Arrays.binarySearch(values, target);
+				if (expected < 0) {
+					expected = -expected - 1;
+				} else {
+					while (expected > 0 && values[expected - 1] == target) {
+						expected--;
+					}
+				}
+				Assertions.assertThat(ef.nextGEQ(target)).isEqualTo(expected);
+			}
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package fr.devnied.bitlib;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Random;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the frame reader
+ *
+ * @author Millau Julien
+ *
+ */
+public final class FrameReaderTest {
+
+	/**
+	 * Test the BER and fixed prefixes with a stream
+	 */
+	@Test
+	public void testPrefixes() throws IOException {
+		FrameReader reader = new FrameReader(new ByteArrayInputStream(BytesUtils.fromString("03 AA BB CC 81 02 11 22 00")),
+				LengthPrefix.BER);
+		BitUtils frame = reader.next();
+		Assertions.assertThat(frame.getSize()).isEqualTo(32);
+		Assertions.assertThat(frame.getCurrentBitIndex()).isEqualTo(8);
+		Assertions.assertThat(frame.getNextInteger(24)).isEqualTo(0xAABBCC);
+		Assertions.assertThat(frame.remaining()).isEqualTo(0);
+		frame = reader.next();
+		Assertions.assertThat(frame.getCurrentBitIndex()).isEqualTo(16);
+		Assertions.assertThat(frame.getNextInteger(16)).isEqualTo(0x1122);
+		frame = reader.next();
+		Assertions.assertThat(frame.remaining()).isEqualTo(0);
+		Assertions.assertThat(reader.next()).isNull();
+		Assertions.assertThat(reader.isEndOfStream()).isTrue();
+
+		// 12 bits of length followed by 4 bits of flags
+		reader = new FrameReader(new ByteArrayInputStream(BytesUtils.fromString("00 2F 12 34")), LengthPrefix.fixed(12));
+		frame = reader.next();
+		Assertions.assertThat(frame.getCurrentBitIndex()).isEqualTo(12);
+		Assertions.assertThat(frame.getNextInteger(4)).isEqualTo(0xF);
+		Assertions.assertThat(frame.getNextInteger(16)).isEqualTo(0x1234);
+		Assertions.assertThat(frame.getData()).isEqualTo(BytesUtils.fromString("00 2F 12 34"));
+		Assertions.assertThat(reader.next()).isNull();
+	}
+
+	/**
+	 * Test the invalid data
+	 */
+	@Test
+	public void testErrors() throws IOException {
+		FrameReader reader = new FrameReader(new ByteArrayInputStream(BytesUtils.fromString("05 AA")), LengthPrefix.BER);
+		try {
+			reader.next();
+			Assert.fail();
+		} catch (EOFException e) {
+			Assert.assertTrue(true);
+		}
+		reader = new FrameReader(new ByteArrayInputStream(BytesUtils.fromString("80 00")), LengthPrefix.BER);
+		try {
+			reader.next();
+			Assert.fail();
+		} catch (IOException e) {
+			Assert.assertTrue(true);
+		}
+		reader = new FrameReader(new ByteArrayInputStream(BytesUtils.fromString("FF FF FF FF FF 01")), LengthPrefix.VARINT);
+		try {
+			reader.next();
+			Assert.fail();
+		} catch (IOException e) {
+			Assert.assertTrue(true);
+		}
+		reader = new FrameReader(new ByteArrayInputStream(BytesUtils.fromString("82 01 00")), LengthPrefix.BER, 100);
+		try {
+			reader.next();
+			Assert.fail();
+		} catch (IOException e) {
+			Assert.assertTrue(e.getMessage().contains("too large"));
+		}
+		try {
+			new FrameReader(new ByteArrayInputStream(new byte[0]), LengthPrefix.BER, Integer.MAX_VALUE);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		try {
+			LengthPrefix.fixed(33);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test random frames read from a non blocking channel
+	 */
+	@Test
+	public void testChannel() throws IOException {
+		Random random = new Random(5);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[][] frames = new byte[300][];
+		for (int i = 0; i < frames.length; i++) {
+			frames[i] = new byte[random.nextInt(10) == 0 ? random.nextInt(30000) : random.nextInt(300)];
+			random.nextBytes(frames[i]);
+			int length = frames[i].length;
+			while (length >= 0x80) {
+				out.write(length & 0x7F | 0x80);
+				length >>>= 7;
+			}
+			out.write(length);
+			out.write(frames[i], 0, frames[i].length);
+		}
+		FrameReader reader = new FrameReader(new ChunkChannel(out.toByteArray(), random), LengthPrefix.VARINT);
+		int index = 0;
+		while (!reader.isEndOfStream() || index < frames.length) {
+			BitUtils frame = reader.next();
+			if (frame != null) {
+				byte[] data = frame.remaining() == 0 ? new byte[0] : frame.getNextByte(frame.remaining());
+				Assertions.assertThat(data).isEqualTo(frames[index++]);
+			}
+		}
+		Assertions.assertThat(index).isEqualTo(frames.length);
+		Assertions.assertThat(reader.next()).isNull();
+		Assertions.assertThat(reader.getBufferSize()).isLessThan(70000);
+	}
+
+	/**
+	 * Channel returning the data in random chunks, and sometimes no data
+	 */
+	private static final class ChunkChannel implements ReadableByteChannel {
+
+		/**
+		 * Data to return
+		 */
+		private final ByteBuffer data;
+
+		/**
+		 * Random generator
+		 */
+		private final Random random;
+
+		/**
+		 * Constructor of the class
+		 *
+		 * @param pData
+		 *            data to return
+		 * @param pRandom
+		 *            random generator
+		 */
+		ChunkChannel(final byte[] pData, final Random pRandom) {
+			data = ByteBuffer.wrap(pData);
+			random = pRandom;
+		}
+
+		@Override
+		public int read(final ByteBuffer pDst) {
+			if (!data.hasRemaining()) {
+				return -1;
+			}
+			int length = Math.min(Math.min(random.nextInt(5000), data.remaining()), pDst.remaining());
+			ByteBuffer chunk = data.duplicate();
+			chunk.limit(chunk.position() + length);
+			pDst.put(chunk);
+			data.position(data.position() + length);
+			return length;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+			// Nothing to do
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package fr.devnied.bitlib;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the frame ring
+ *
+ * @author Millau Julien
+ *
+ */
+public final class FrameRingTest {
+
+	/**
+	 * Number of frames sent by the threaded tests
+	 */
+	private static final int FRAMES = 200000;
+
+	/**
+	 * Test the slots with a single thread
+	 */
+	@Test
+	public void testSlots() {
+		FrameRing ring = new FrameRing(2, 4);
+		Assertions.assertThat(ring.getCapacity()).isEqualTo(2);
+		Assertions.assertThat(ring.poll()).isNull();
+		Assertions.assertThat(ring.offer(BytesUtils.fromString("12 34"), 0, 2)).isTrue();
+		FrameRing.Slot slot = ring.claim();
+		slot.getBuffer()[0] = 0x56;
+		ring.publish(slot, 1);
+		Assertions.assertThat(ring.size()).isEqualTo(2);
+		Assertions.assertThat(ring.claim()).isNull();
+
+		slot = ring.poll();
+		Assertions.assertThat(slot.getLength()).isEqualTo(2);
+		Assertions.assertThat(slot.getView().getNextInteger(16)).isEqualTo(0x1234);
+		// Not released: the ring is still full
+		Assertions.assertThat(ring.claim()).isNull();
+		ring.release(slot);
+		try {
+			ring.release(slot);
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			Assert.assertTrue(true);
+		}
+		Assertions.assertThat(ring.claim()).isNotNull();
+
+		slot = ring.poll();
+		Assertions.assertThat(slot.getView().getSize()).isEqualTo(8);
+		Assertions.assertThat(slot.getView().getNextInteger(8)).isEqualTo(0x56);
+		ring.release(slot);
+		Assertions.assertThat(ring.poll()).isNull();
+
+		try {
+			new FrameRing(3, 8);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		try {
+			ring.offer(new byte[5], 0, 5);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test a producer and a consumer on two threads
+	 */
+	@Test
+	public void testSingleConsumer() throws InterruptedException {
+		FrameRing ring = new FrameRing(64, 8);
+		Thread producer = startProducer(ring);
+		long expected = 0;
+		for (int i = 0; i < FRAMES; i++) {
+			FrameRing.Slot slot;
+			while ((slot = ring.poll()) == null) {
+				Thread.yield();
+			}
+			BitUtils view = slot.getView();
+			Assertions.assertThat(view.getSize()).isEqualTo((1 + i % 8) * 8);
+			Assertions.assertThat(view.getNextLong(view.getSize())).isEqualTo(expected & mask(i));
+			ring.release(slot);
+			expected++;
+		}
+		producer.join();
+		Assertions.assertThat(ring.poll()).isNull();
+	}
+
+	/**
+	 * Test a producer and several consumers
+	 */
+	@Test
+	public void testMultiConsumer() throws InterruptedException {
+		final FrameRing ring = new FrameRing(32, 8, true);
+		final AtomicInteger received = new AtomicInteger();
+		final AtomicLong sum = new AtomicLong();
+		Thread[] consumers = new Thread[3];
+		for (int i = 0; i < consumers.length; i++) {
+			consumers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					while (received.get() < FRAMES) {
+						FrameRing.Slot slot = ring.poll();
+						if (slot == null) {
+							Thread.yield();
+							continue;
+						}
+						BitUtils view = slot.getView();
+						sum.addAndGet(view.getNextLong(view.getSize()));
+						ring.release(slot);
+						received.incrementAndGet();
+					}
+				}
+			});
+			consumers[i].start();
+		}
+		Thread producer = startProducer(ring);
+		producer.join();
+		for (Thread consumer : consumers) {
+			consumer.join();
+		}
+		long expected = 0;
+		for (int i = 0; i < FRAMES; i++) {
+			expected += i & mask(i);
+		}
+		Assertions.assertThat(received.get()).isEqualTo(FRAMES);
+		Assertions.assertThat(sum.get()).isEqualTo(expected);
+	}
+
+	/**
+	 * Method used to start a producer sending the frame i on 1 + i % 8 bytes
+	 *
+	 * @param pRing
+	 *            the ring
+	 * @return the producer thread
+	 */
+	private static Thread startProducer(final FrameRing pRing) {
+		Thread ret = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 0; i < FRAMES; i++) {
+					FrameRing.Slot slot;
+					while ((slot = pRing.claim()) == null) {
+						Thread.yield();
+					}
+					int length = 1 + i % 8;
+					long value = i & mask(i);
+					for (int j = length - 1; j >= 0; j--) {
+						slot.getBuffer()[j] = (byte) value;
+						value >>>= 8;
+					}
+					pRing.publish(slot, length);
+				}
+			}
+		});
+		ret.start();
+		return ret;
+	}
+
+	/**
+	 * Method used to get the mask of the value of a frame
+	 *
+	 * @param pIndex
+	 *            index of the frame
+	 * @return the mask of the bytes of the frame
+	 */
+	private static long mask(final int pIndex) {
+		int length = 1 + pIndex % 8;
+		return length == 8 ? -1L : (1L << length * 8) - 1;
+	}
+}
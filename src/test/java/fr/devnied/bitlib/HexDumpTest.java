@@ -0,0 +1,74 @@
+package fr.devnied.bitlib;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the hex dump
+ *
+ * @author Millau Julien
+ *
+ */
+public final class HexDumpTest {
+
+	/**
+	 * Test the default format
+	 */
+	@Test
+	public void testDefault() {
+		byte[] data = BytesUtils.fromString("48656C6C6F20576F726C640A00010203 7F80FF");
+		Assertions.assertThat(HexDump.DEFAULT.toString(data)).isEqualTo(
+				"00000000  48 65 6C 6C 6F 20 57 6F  72 6C 64 0A 00 01 02 03  |Hello World.....|\n"
+						+ "00000010  7F 80 FF                                          |...|\n");
+		Assertions.assertThat(HexDump.DEFAULT.toString(new byte[0])).isEqualTo("");
+		Assertions.assertThat(HexDump.DEFAULT.lazy(data, 16, 2).toString()).isEqualTo(
+				"00000000  7F 80                                             |..|\n");
+	}
+
+	/**
+	 * Test the options
+	 */
+	@Test
+	public void testOptions() {
+		byte[] data = BytesUtils.fromString("01 02 03 04 05 06 07");
+		Assertions.assertThat(new HexDump(4, 2, false, false).toString(data)).isEqualTo("01 02  03 04\n05 06  07\n");
+		Assertions.assertThat(new HexDump(4, 0, true, false).toString(data, 1, 5)).isEqualTo(
+				"00000000  02 03 04 05\n00000004  06\n");
+		Assertions.assertThat(new HexDump(3, 0, false, true).toString(data, 0, 4)).isEqualTo(
+				"01 02 03  |...|\n04        |.|\n");
+		try {
+			new HexDump(0, 0, true, true);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		try {
+			HexDump.DEFAULT.toString(data, 5, 3);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test a dump written by chunks to a writer
+	 */
+	@Test
+	public void testWriter() throws IOException {
+		byte[] data = new byte[100000];
+		new Random(1).nextBytes(data);
+		StringWriter writer = new StringWriter();
+		HexDump.DEFAULT.dump(data, writer);
+		String dump = writer.toString();
+		Assertions.assertThat(dump).isEqualTo(HexDump.DEFAULT.toString(data));
+		String[] lines = dump.split("\n");
+		Assertions.assertThat(lines.length).isEqualTo(6250);
+		Assertions.assertThat(lines[6249]).startsWith("00018690  " + BytesUtils.bytesToString(new byte[] { data[99984] }));
+		Assertions.assertThat(lines[1].length()).isEqualTo(lines[0].length());
+	}
+}
@@ -0,0 +1,104 @@
+package fr.devnied.bitlib;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the canonical Huffman codec
+ *
+ * @author Millau Julien
+ *
+ */
+public final class HuffmanCodecTest {
+
+	/**
+	 * Code lengths of the DEFLATE fixed literal/length code
+	 *
+	 * @return the code lengths
+	 */
+	private static int[] fixedLengths() {
+		int[] lengths = new int[288];
+		Arrays.fill(lengths, 0, 144, 8);
+		Arrays.fill(lengths, 144, 256, 9);
+		Arrays.fill(lengths, 256, 280, 7);
+		Arrays.fill(lengths, 280, 288, 8);
+		return lengths;
+	}
+
+	/**
+	 * Test the canonical codes of the DEFLATE fixed code
+	 */
+	@Test
+	public void testCanonicalCodes() {
+		HuffmanCodec codec = new HuffmanCodec(fixedLengths());
+		Assertions.assertThat(codec.getCode(0)).isEqualTo(0x30);
+		Assertions.assertThat(codec.getCode(143)).isEqualTo(0xBF);
+		Assertions.assertThat(codec.getCode(144)).isEqualTo(0x190);
+		Assertions.assertThat(codec.getCode(255)).isEqualTo(0x1FF);
+		Assertions.assertThat(codec.getCode(256)).isEqualTo(0);
+		Assertions.assertThat(codec.getCode(280)).isEqualTo(0xC0);
+		Assertions.assertThat(codec.getCodeLength(200)).isEqualTo(9);
+	}
+
+	/**
+	 * Test encoding and decoding with one and two level tables
+	 */
+	@Test
+	public void testRoundTrip() {
+		int[][] allLengths = { fixedLengths(), { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 17 },
+				{ 0, 3, 3, 0, 2, 2, 3 }, { 0, 1 } };
+		Random random = new Random(7);
+		for (int[] lengths : allLengths) {
+			for (int rootBits : new int[] { 1, 5, HuffmanCodec.DEFAULT_ROOT_BITS }) {
+				HuffmanCodec codec = new HuffmanCodec(lengths, rootBits);
+				int[] symbols = new int[2000];
+				BitUtils bit = new BitUtils(symbols.length * 17);
+				for (int i = 0; i < symbols.length; i++) {
+					do {
+						symbols[i] = random.nextInt(lengths.length);
+					} while (lengths[symbols[i]] == 0);
+					codec.encode(bit, symbols[i]);
+				}
+				BitReader reader = new BitReader(bit.getData());
+				int[] decoded = new int[symbols.length];
+				codec.decode(reader, decoded, 0, decoded.length);
+				Assertions.assertThat(decoded).isEqualTo(symbols);
+				Assertions.assertThat(reader.getBitPosition()).isEqualTo(bit.getCurrentBitIndex());
+			}
+		}
+	}
+
+	/**
+	 * Test invalid lengths and codes
+	 */
+	@Test
+	public void testInvalid() {
+		int[][] invalid = { { 1, 1, 1 }, { 0, 0 }, { 33 }, { -1, 1 } };
+		for (int[] lengths : invalid) {
+			try {
+				new HuffmanCodec(lengths);
+				Assert.fail();
+			} catch (IllegalArgumentException e) {
+				Assert.assertTrue(true);
+			}
+		}
+		// Incomplete code: 1 is not used
+		HuffmanCodec codec = new HuffmanCodec(new int[] { 1 });
+		try {
+			codec.decode(new BitReader(new byte[] { (byte) 0x80 }));
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		try {
+			codec.encode(new BitUtils(8), 1);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+}
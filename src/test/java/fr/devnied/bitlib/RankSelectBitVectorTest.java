@@ -0,0 +1,84 @@
+package fr.devnied.bitlib;
+
+import java.util.Random;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the rank/select bit vector
+ *
+ * @author Millau Julien
+ *
+ */
+public final class RankSelectBitVectorTest {
+
+	/**
+	 * Test a small vector
+	 */
+	@Test
+	public void testSmall() {
+		// 1010 0000 0000 0001 1
+		RankSelectBitVector vector = new RankSelectBitVector(BytesUtils.fromString("A0 01 FF"), 17);
+		Assertions.assertThat(vector.size()).isEqualTo(17);
+		Assertions.assertThat(vector.cardinality()).isEqualTo(4);
+		Assertions.assertThat(vector.get(0)).isTrue();
+		Assertions.assertThat(vector.get(1)).isFalse();
+		Assertions.assertThat(vector.rank1(0)).isEqualTo(0);
+		Assertions.assertThat(vector.rank1(1)).isEqualTo(1);
+		Assertions.assertThat(vector.rank1(3)).isEqualTo(2);
+		Assertions.assertThat(vector.rank1(17)).isEqualTo(4);
+		Assertions.assertThat(vector.rank0(17)).isEqualTo(13);
+		Assertions.assertThat(vector.select1(0)).isEqualTo(0);
+		Assertions.assertThat(vector.select1(1)).isEqualTo(2);
+		Assertions.assertThat(vector.select1(2)).isEqualTo(15);
+		Assertions.assertThat(vector.select1(3)).isEqualTo(16);
+		Assertions.assertThat(vector.select1(4)).isEqualTo(-1);
+		Assertions.assertThat(vector.select0(0)).isEqualTo(1);
+		Assertions.assertThat(vector.select0(12)).isEqualTo(14);
+		Assertions.assertThat(vector.select0(13)).isEqualTo(-1);
+		try {
+			vector.rank1(18);
+			Assert.fail();
+		} catch (IndexOutOfBoundsException e) {
+			Assert.assertTrue(true);
+		}
+
+		BitUtils bit = new BitUtils(3);
+		bit.setNextInteger(5, 3);
+		vector = new RankSelectBitVector(bit);
+		Assertions.assertThat(vector.cardinality()).isEqualTo(2);
+		Assertions.assertThat(vector.select0(0)).isEqualTo(1);
+	}
+
+	/**
+	 * Compare with a naive implementation on random data
+	 */
+	@Test
+	public void testRandom() {
+		Random random = new Random(3);
+		for (int density : new int[] { 2, 50, 1000 }) {
+			int size = 300000 + random.nextInt(1000);
+			BitUtils bit = new BitUtils(size);
+			int[] ranks = new int[size + 1];
+			for (int i = 0; i < size; i++) {
+				boolean set = random.nextInt(density) == 0;
+				bit.setNextBoolean(set);
+				ranks[i + 1] = ranks[i] + (set ? 1 : 0);
+			}
+			RankSelectBitVector vector = new RankSelectBitVector(bit.getData(), size);
+			Assertions.assertThat(vector.cardinality()).isEqualTo(ranks[size]);
+			for (int i = 0; i <= size; i += 1 + random.nextInt(97)) {
+				Assertions.assertThat(vector.rank1(i)).isEqualTo(ranks[i]);
+			}
+			for (int i = 0; i < size; i++) {
+				if (ranks[i + 1] != ranks[i]) {
+					Assertions.assertThat(vector.select1(ranks[i])).isEqualTo(i);
+				} else if ((i & 15) == 0) {
+					Assertions.assertThat(vector.select0(i - ranks[i])).isEqualTo(i);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package fr.devnied.bitlib;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the resumable decoder
+ *
+ * @author Millau Julien
+ *
+ */
+public final class ResumableDecoderTest {
+
+	/**
+	 * Test a record split in several chunks
+	 */
+	@Test
+	public void testChunks() {
+		ResumableDecoder decoder = new ResumableDecoder(4, 12, 32, 1);
+		Assertions.assertThat(decoder.getFieldCount()).isEqualTo(4);
+		// 4 bits: 0xA, 12 bits: 0xBCD, 32 bits: 0x12345678, 1 bit: 1 + padding
+		ByteBuffer buffer = ByteBuffer.wrap(BytesUtils.fromString("AB CD 12 34 56 78 80 FF"));
+		buffer.limit(1);
+		Assertions.assertThat(decoder.feed(buffer)).isFalse();
+		Assertions.assertThat(decoder.getField()).isEqualTo(1);
+		Assertions.assertThat(decoder.getValue(0)).isEqualTo(0xA);
+		try {
+			decoder.getValue(1);
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			Assert.assertTrue(true);
+		}
+		buffer.limit(4);
+		Assertions.assertThat(decoder.feed(buffer)).isFalse();
+		Assertions.assertThat(decoder.getField()).isEqualTo(2);
+		buffer.limit(8);
+		Assertions.assertThat(decoder.feed(buffer)).isTrue();
+		Assertions.assertThat(decoder.isComplete()).isTrue();
+		Assertions.assertThat(buffer.remaining()).isEqualTo(1);
+		Assertions.assertThat(decoder.getValue(1)).isEqualTo(0xBCD);
+		Assertions.assertThat(decoder.getValue(2)).isEqualTo(0x12345678);
+		Assertions.assertThat(decoder.getValue(3)).isEqualTo(1);
+		Assertions.assertThat(decoder.getValueSigned(3)).isEqualTo(-1);
+		Assertions.assertThat(decoder.getValueSigned(1)).isEqualTo(0xBCD - 0x1000);
+
+		// The next feed starts a new record
+		Assertions.assertThat(decoder.feed(buffer)).isFalse();
+		Assertions.assertThat(decoder.isComplete()).isFalse();
+		decoder.reset();
+		Assertions.assertThat(decoder.getField()).isEqualTo(0);
+
+		try {
+			new ResumableDecoder(8, 65);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		try {
+			new ResumableDecoder();
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test random layouts fed with random chunks
+	 */
+	@Test
+	public void testRandom() {
+		Random random = new Random(11);
+		for (int i = 0; i < 100; i++) {
+			int[] sizes = new int[1 + random.nextInt(6)];
+			int recordBits = 0;
+			for (int j = 0; j < sizes.length; j++) {
+				sizes[j] = 1 + random.nextInt(64);
+				recordBits += sizes[j];
+			}
+			int recordBytes = (recordBits + 7) / 8;
+			int records = 1 + random.nextInt(10);
+			long[][] expected = new long[records][sizes.length];
+			BitUtils bit = new BitUtils(records * recordBytes * 8);
+			for (int r = 0; r < records; r++) {
+				bit.setCurrentBitIndex(r * recordBytes * 8);
+				for (int j = 0; j < sizes.length; j++) {
+					expected[r][j] = random.nextLong() >>> 64 - sizes[j];
+					bit.setNextLong(expected[r][j], sizes[j]);
+				}
+			}
+			byte[] data = bit.getData();
+
+			ResumableDecoder decoder = new ResumableDecoder(sizes);
+			int record = 0;
+			int position = 0;
+			while (position < data.length) {
+				int length = Math.min(data.length - position, random.nextInt(recordBytes + 2));
+				ByteBuffer chunk = ByteBuffer.wrap(data, position, length);
+				while (decoder.feed(chunk)) {
+					for (int j = 0; j < sizes.length; j++) {
+						Assertions.assertThat(decoder.getValue(j)).isEqualTo(expected[record][j]);
+					}
+					record++;
+				}
+				position += length;
+			}
+			Assertions.assertThat(record).isEqualTo(records);
+		}
+	}
+}
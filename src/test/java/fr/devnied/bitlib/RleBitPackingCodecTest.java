@@ -0,0 +1,171 @@
+package fr.devnied.bitlib;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the run length / bit packing hybrid codec
+ *
+ * @author Millau Julien
+ *
+ */
+public final class RleBitPackingCodecTest {
+
+	/**
+	 * Test the format of the sections
+	 */
+	@Test
+	public void testFormat() {
+		int[] values = new int[108];
+		for (int i = 0; i < 8; i++) {
+			values[i] = i;
+		}
+		Arrays.fill(values, 8, values.length, 4);
+		RleBitPackingCodec codec = new RleBitPackingCodec(3);
+		BitUtils bit = new BitUtils(128);
+		codec.encode(bit, values, 0, values.length);
+		// Literal: 1 group of 0..7 on 3 bits, run: 100 times 4 on 1 byte
+		Assertions.assertThat(bit.getCurrentBitIndex()).isEqualTo(56);
+		bit.reset();
+		Assertions.assertThat(bit.getNextHexaString(56)).isEqualTo("03053977C80104");
+
+		bit.reset();
+		int[] decoded = new int[values.length];
+		codec.decode(bit, decoded, 0, decoded.length);
+		Assertions.assertThat(decoded).isEqualTo(values);
+		Assertions.assertThat(bit.getCurrentBitIndex()).isEqualTo(56);
+	}
+
+	/**
+	 * Test a long run decoded with a single section
+	 */
+	@Test
+	public void testLongRun() {
+		int[] values = new int[10000];
+		Arrays.fill(values, 5);
+		RleBitPackingCodec codec = new RleBitPackingCodec(3);
+		BitUtils bit = new BitUtils(64);
+		codec.encode(bit, values, 0, values.length);
+		Assertions.assertThat(bit.getCurrentBitIndex()).isEqualTo(32);
+		bit.reset();
+		Assertions.assertThat(bit.getNextHexaString(32)).isEqualTo("A09C0105");
+
+		bit.reset();
+		int[] decoded = new int[values.length];
+		codec.decode(bit, decoded, 0, decoded.length);
+		Assertions.assertThat(decoded).isEqualTo(values);
+	}
+
+	/**
+	 * Test the literal groups completed with the start of a run
+	 */
+	@Test
+	public void testPadding() {
+		int[] values = new int[23];
+		values[0] = 1;
+		values[1] = 2;
+		values[2] = 3;
+		Arrays.fill(values, 3, values.length, 7);
+		RleBitPackingCodec codec = new RleBitPackingCodec(3);
+		BitUtils bit = new BitUtils(128);
+		codec.encode(bit, values, 0, values.length);
+		// Literal of 8 values (3 bytes), run of 15 values
+		Assertions.assertThat(bit.getCurrentBitIndex()).isEqualTo(8 + 24 + 8 + 8);
+		bit.reset();
+		int[] decoded = new int[values.length];
+		codec.decode(bit, decoded, 0, decoded.length);
+		Assertions.assertThat(decoded).isEqualTo(values);
+
+		// Last literal group padded with zeros
+		bit = new BitUtils(128);
+		codec.encode(bit, new int[] { 1, 2, 3 }, 0, 3);
+		Assertions.assertThat(bit.getCurrentBitIndex()).isEqualTo(8 + 24);
+		bit.reset();
+		decoded = new int[3];
+		codec.decode(bit, decoded, 0, 3);
+		Assertions.assertThat(decoded).isEqualTo(new int[] { 1, 2, 3 });
+		Assertions.assertThat(bit.getCurrentBitIndex()).isEqualTo(8 + 24);
+	}
+
+	/**
+	 * Test the invalid parameters and data
+	 */
+	@Test
+	public void testErrors() {
+		try {
+			new RleBitPackingCodec(33);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		try {
+			new RleBitPackingCodec(3).encode(new BitUtils(64), new int[] { 8 }, 0, 1);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		// Run longer than the values expected
+		BitUtils bit = new BitUtils(64);
+		bit.setNextVarInteger(20 << 1);
+		bit.reset();
+		try {
+			new RleBitPackingCodec(3).decode(bit, new int[10], 0, 10);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		// Empty section
+		bit = new BitUtils(64);
+		bit.setNextVarInteger(1);
+		bit.reset();
+		try {
+			new RleBitPackingCodec(3).decode(bit, new int[10], 0, 10);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test random values of low cardinality
+	 */
+	@Test
+	public void testRandom() {
+		Random random = new Random(42);
+		for (int i = 0; i < 200; i++) {
+			int width = random.nextInt(33);
+			int[] values = new int[random.nextInt(1000)];
+			int[] dictionary = new int[1 + random.nextInt(4)];
+			for (int j = 0; j < dictionary.length; j++) {
+				dictionary[j] = width == Integer.SIZE ? random.nextInt() : random.nextInt() >>> Integer.SIZE - width;
+				if (width == 0) {
+					dictionary[j] = 0;
+				}
+			}
+			int j = 0;
+			while (j < values.length) {
+				int run = Math.min(values.length - j, 1 + random.nextInt(random.nextBoolean() ? 3 : 40));
+				Arrays.fill(values, j, j + run, dictionary[random.nextInt(dictionary.length)]);
+				j += run;
+			}
+			RleBitPackingCodec codec = new RleBitPackingCodec(width);
+			int shift = random.nextInt(8);
+			BitUtils bit = new BitUtils((int) codec.getMaxEncodedBits(values.length) + shift);
+			bit.setCurrentBitIndex(shift);
+			codec.encode(bit, values, 0, values.length);
+			int end = bit.getCurrentBitIndex();
+
+			bit.setCurrentBitIndex(shift);
+			int[] decoded = new int[values.length + 2];
+			codec.decode(bit, decoded, 2, values.length);
+			Assertions.assertThat(bit.getCurrentBitIndex()).isEqualTo(end);
+			for (j = 0; j < values.length; j++) {
+				Assertions.assertThat(decoded[j + 2]).isEqualTo(values[j]);
+			}
+		}
+	}
+}
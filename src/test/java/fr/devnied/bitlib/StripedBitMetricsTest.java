@@ -0,0 +1,88 @@
+package fr.devnied.bitlib;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the metrics of the bit codecs
+ *
+ * @author Millau Julien
+ *
+ */
+public final class StripedBitMetricsTest {
+
+	/**
+	 * Test the counters of a BitUtils
+	 */
+	@Test
+	public void testBitUtils() {
+		StripedBitMetrics metrics = new StripedBitMetrics();
+		BitUtils bit = new BitUtils(128);
+		Assertions.assertThat(bit.getMetrics()).isSameAs(BitMetrics.NONE);
+		bit.setMetrics(metrics);
+
+		bit.setNextInteger(0x12, 8);
+		bit.setNextInteger(5, 3);
+		bit.setNextByte(new byte[] { 0x55 }, 8);
+		Assertions.assertThat(metrics.getBitsWritten()).isEqualTo(19);
+		Assertions.assertThat(metrics.getFastPathHits()).isEqualTo(1);
+		Assertions.assertThat(metrics.getSlowPathHits()).isEqualTo(2);
+		Assertions.assertThat(metrics.getBytesAllocated()).isEqualTo(1);
+
+		bit.reset();
+		bit.getNextLong(8);
+		bit.getNextLong(3);
+		bit.getNextByte(8);
+		Assertions.assertThat(metrics.getBitsRead()).isEqualTo(19);
+		// Word loads for getNextLong, unaligned copy for getNextByte
+		Assertions.assertThat(metrics.getFastPathHits()).isEqualTo(3);
+		Assertions.assertThat(metrics.getSlowPathHits()).isEqualTo(3);
+		Assertions.assertThat(metrics.getBytesAllocated()).isEqualTo(2);
+
+		bit.clear();
+		try {
+			bit.getNextExpGolomb();
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		bit.reset();
+		bit.getNextDate(16, "yyyy");
+		Assertions.assertThat(metrics.getDecodeErrors()).isEqualTo(2);
+		Assertions.assertThat(metrics.toString()).contains("decodeErrors=2");
+
+		metrics.reset();
+		Assertions.assertThat(metrics.getBitsRead()).isEqualTo(0);
+		Assertions.assertThat(metrics.getDecodeErrors()).isEqualTo(0);
+		bit.setMetrics(null);
+		Assertions.assertThat(bit.getMetrics()).isSameAs(BitMetrics.NONE);
+	}
+
+	/**
+	 * Test the default metrics used by BytesUtils and the new BitUtils
+	 */
+	@Test
+	public void testDefault() {
+		StripedBitMetrics metrics = new StripedBitMetrics();
+		BitMetrics.setDefault(metrics);
+		try {
+			BitUtils bit = new BitUtils(BytesUtils.fromString("01 02"));
+			Assertions.assertThat(bit.getMetrics()).isSameAs(metrics);
+			// 2 bytes parsed and 2 bytes copied
+			Assertions.assertThat(metrics.getBytesAllocated()).isEqualTo(4);
+			BytesUtils.bytesToStringNoSpace(bit.getData());
+			Assertions.assertThat(metrics.getBytesAllocated()).isEqualTo(14);
+			try {
+				BytesUtils.fromString("123");
+				Assert.fail();
+			} catch (IllegalArgumentException e) {
+				Assert.assertTrue(true);
+			}
+			Assertions.assertThat(metrics.getDecodeErrors()).isEqualTo(1);
+		} finally {
+			BitMetrics.setDefault(null);
+		}
+		Assertions.assertThat(BitMetrics.getDefault()).isSameAs(BitMetrics.NONE);
+	}
+}
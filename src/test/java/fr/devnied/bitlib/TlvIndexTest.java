@@ -0,0 +1,108 @@
+package fr.devnied.bitlib;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the TLV index
+ *
+ * @author Millau Julien
+ *
+ */
+public final class TlvIndexTest {
+
+	/**
+	 * EMV record: 70 [ 5A (PAN) 5F24 (expiry) A5 [ 9F02 (amount) ] ] 9F26
+	 */
+	private final byte[] record = BytesUtils
+			.fromString("70 13 5A 08 47 61 73 90 01 01 01 19 5F 24 03 25 12 31 A5 00 00 9F 26 02 AB CD");
+
+	/**
+	 * Test lookups
+	 */
+	@Test
+	public void testIndex() {
+		TlvIndex index = new TlvIndex();
+		index.build(record);
+
+		Assertions.assertThat(index.size()).isEqualTo(5);
+		Assertions.assertThat(index.getValue(0x5A)).isEqualTo(BytesUtils.fromString("4761739001010119"));
+		Assertions.assertThat(index.getValue(0x5F24)).isEqualTo(BytesUtils.fromString("251231"));
+		Assertions.assertThat(index.getValue(0x9F26)).isEqualTo(BytesUtils.fromString("ABCD"));
+		Assertions.assertThat(index.getValue(0xA5)).isEqualTo(new byte[0]);
+		Assertions.assertThat(index.getValue(0x9F02)).isNull();
+		Assertions.assertThat(index.contains(0x9F02)).isFalse();
+
+		int pan = index.indexOf(0x5A);
+		Assertions.assertThat(index.getValueOffset(pan)).isEqualTo(4);
+		Assertions.assertThat(index.getValueLength(pan)).isEqualTo(8);
+		Assertions.assertThat(index.isConstructed(pan)).isFalse();
+		Assertions.assertThat(index.isConstructed(index.indexOf(0x70))).isTrue();
+		Assertions.assertThat(index.isConstructed(index.indexOf(0x5F24))).isFalse();
+		Assertions.assertThat(index.getParent(pan)).isEqualTo(index.indexOf(0x70));
+
+		// Path lookup
+		Assertions.assertThat(index.indexOfPath(0x70, 0x5A)).isEqualTo(pan);
+		Assertions.assertThat(index.indexOfPath(0x5A)).isEqualTo(-1);
+		Assertions.assertThat(index.indexOfPath(0x9F26)).isEqualTo(index.indexOf(0x9F26));
+		Assertions.assertThat(index.indexOfChild(-1, 0x70)).isEqualTo(0);
+	}
+
+	/**
+	 * Test nested objects and reuse of the index
+	 */
+	@Test
+	public void testReuse() {
+		TlvIndex index = new TlvIndex(1);
+		index.build(BytesUtils.fromString("77 0E 9F 02 02 00 01 A5 06 9F 02 03 00 00 02 00 9F 02 01 05"));
+		Assertions.assertThat(index.size()).isEqualTo(5);
+		// First occurrence wins
+		Assertions.assertThat(index.getValue(0x9F02)).isEqualTo(BytesUtils.fromString("0001"));
+		int nested = index.indexOfPath(0x77, 0xA5, 0x9F02);
+		Assertions.assertThat(index.getValueOffset(nested)).isEqualTo(12);
+		Assertions.assertThat(index.getValueLength(nested)).isEqualTo(3);
+		Assertions.assertThat(index.getValueOffset(index.indexOfPath(0x9F02))).isEqualTo(19);
+
+		index.clear();
+		Assertions.assertThat(index.size()).isEqualTo(0);
+		Assertions.assertThat(index.indexOf(0x9F02)).isEqualTo(-1);
+
+		// Long form length
+		byte[] data = new byte[0x104];
+		data[0] = 0x5A;
+		data[1] = (byte) 0x82;
+		data[2] = 0x01;
+		index.build(data);
+		Assertions.assertThat(index.getValueLength(index.indexOf(0x5A))).isEqualTo(0x100);
+	}
+
+	/**
+	 * Test malformed data
+	 */
+	@Test
+	public void testInvalid() {
+		TlvIndex index = new TlvIndex();
+		String[] invalid = { "5A 05 00", "70 03 5A 03 00", "9F", "5A", "5A 80", "5A 85 00 00 00 00 01" };
+		for (String value : invalid) {
+			try {
+				index.build(BytesUtils.fromString(value));
+				Assert.fail(value);
+			} catch (IllegalArgumentException e) {
+				Assert.assertTrue(true);
+			}
+		}
+		try {
+			index.build(new byte[4], 2, Integer.MAX_VALUE);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+		try {
+			index.getTag(10);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+}
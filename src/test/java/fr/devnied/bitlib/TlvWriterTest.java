@@ -0,0 +1,117 @@
+package fr.devnied.bitlib;
+
+import java.util.Arrays;
+
+import org.fest.assertions.Assertions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test the TLV writer
+ *
+ * @author Millau Julien
+ *
+ */
+public final class TlvWriterTest {
+
+	/**
+	 * Test short lengths
+	 */
+	@Test
+	public void testWrite() {
+		BitUtils bit = new BitUtils(64 * 8);
+		TlvWriter writer = new TlvWriter(bit);
+		writer.openTag(0x70);
+		writer.writeTlv(0x5A, BytesUtils.fromString("4761739001010119"));
+		writer.openTag(0xA5);
+		writer.writeTlv(0x9F02, BytesUtils.fromString("000000001000"));
+		writer.closeTag();
+		writer.closeTag();
+		writer.writeTlv(0x9F26, new byte[0]);
+		Assertions.assertThat(writer.getDepth()).isEqualTo(0);
+
+		byte[] data = Arrays.copyOf(bit.getData(), bit.getCurrentBitIndex() / 8);
+		Assertions.assertThat(BytesUtils.bytesToString(data))
+				.isEqualTo("70 15 5A 08 47 61 73 90 01 01 01 19 A5 09 9F 02 06 00 00 00 00 10 00 9F 26 00");
+	}
+
+	/**
+	 * Test the writes in a view starting after the first byte
+	 */
+	@Test
+	public void testView() {
+		byte[] buffer = new byte[20];
+		Arrays.fill(buffer, (byte) 0xEE);
+		BitUtils bit = BitUtils.wrap(buffer, 4, 10);
+		bit.clear();
+		TlvWriter writer = new TlvWriter(bit);
+		writer.writeTlv(0x5A, new byte[] { 1, 2 });
+		writer.openTag(0x70);
+		writer.writeTlv(0x9F02, new byte[] { 3 });
+		writer.closeTag();
+		Assertions.assertThat(BytesUtils.bytesToString(buffer))
+				.isEqualTo("EE EE EE EE 5A 02 01 02 70 04 9F 02 01 03 EE EE EE EE EE EE");
+	}
+
+	/**
+	 * Test lengths in long form with back patching
+	 */
+	@Test
+	public void testLongLength() {
+		BitUtils bit = new BitUtils(1024 * 8);
+		TlvWriter writer = new TlvWriter(bit);
+		byte[] value = new byte[300];
+		Arrays.fill(value, (byte) 0x55);
+		writer.openTag(0x77);
+		writer.openTag(0x70);
+		writer.writeTlv(0x5F20, new byte[] { 0x41 });
+		writer.writeValue(new byte[130]);
+		writer.closeTag();
+		writer.writeTlv(0xDF8101, value);
+		writer.closeTag();
+
+		byte[] data = Arrays.copyOf(bit.getData(), bit.getCurrentBitIndex() / 8);
+		TlvIndex index = new TlvIndex();
+		index.build(data);
+		Assertions.assertThat(index.size()).isEqualTo(4);
+		Assertions.assertThat(index.getValueLength(index.indexOf(0x77))).isEqualTo(3 + 134 + 4 + 2 + 300);
+		Assertions.assertThat(index.getValueLength(index.indexOf(0x70))).isEqualTo(134);
+		Assertions.assertThat(index.getValue(0x5F20)).isEqualTo(new byte[] { 0x41 });
+		Assertions.assertThat(index.getValue(0xDF8101)).isEqualTo(value);
+		Assertions.assertThat(BytesUtils.bytesToString(Arrays.copyOf(data, 6))).isEqualTo("77 82 01 BB 70 81");
+
+		Assertions.assertThat(TlvWriter.getLengthSize(0)).isEqualTo(1);
+		Assertions.assertThat(TlvWriter.getLengthSize(127)).isEqualTo(1);
+		Assertions.assertThat(TlvWriter.getLengthSize(128)).isEqualTo(2);
+		Assertions.assertThat(TlvWriter.getLengthSize(256)).isEqualTo(3);
+		Assertions.assertThat(TlvWriter.getLengthSize(Integer.MAX_VALUE)).isEqualTo(5);
+	}
+
+	/**
+	 * Test errors
+	 */
+	@Test
+	public void testErrors() {
+		TlvWriter writer = new TlvWriter(new BitUtils(4 * 8));
+		try {
+			writer.closeTag();
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			Assert.assertTrue(true);
+		}
+		try {
+			writer.writeTlv(0x5A, new byte[3]);
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			Assert.assertTrue(true);
+		}
+		BitUtils bit = new BitUtils(4 * 8);
+		bit.setNextBoolean(true);
+		try {
+			new TlvWriter(bit).openTag(0x70);
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			Assert.assertTrue(true);
+		}
+	}
+}